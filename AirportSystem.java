@@ -1,13 +1,11 @@
 import java.util.*;
 
-import static org.junit.Assert.assertEquals;
-
 /**
  * A class that simulate an airport system
  * @author Quan Tran
  * @references CSDS 233 Lecture Slides
  */
-public class AirportSystem {
+public class AirportSystem implements RouteGraph {
     /** A nested class representing the connection in the graph */
     static class Edges{
 
@@ -17,6 +15,8 @@ public class AirportSystem {
          private String destination;
         /** The distance between start and destination. */
         private int distance;
+        /** The position of the destination city inside the connections list */
+        private int target;
 
         public Edges(String source, String destination, int distance){
             this.destination = destination;
@@ -34,22 +34,70 @@ public class AirportSystem {
     private static class Vertex{
         /** The city name */
         private String id;
+        /** The position of this city inside the connections list */
+        private int index;
         /** The cities that are connected to this city by the airport system */
-        private List<Edges> edges;
-        /** A flag to check if the cities been visited or not for the traversal */
-        private boolean encountered = false;
-        /** Parent of the current city */
-        private Vertex parent;
+        private ArrayList<Edges> edges;
+        /** Hub index from destination name to edge, only built once the city has more than HUB_DEGREE connections */
+        private Map<String, Edges> hubEdges;
 
         /**
          * Initialize a vertex, which is a city and its connection to other cities
          * @param id the city name
+         * @param index the position of the city inside the connections list
          */
-        public Vertex(String id){
+        public Vertex(String id, int index){
             this.id = id;
+            this.index = index;
             edges = new ArrayList<>();
         }
 
+        /**
+         * Append a connection to this city and keep the hub index up to date
+         * @param edge the connection starting from this city
+         */
+        private void addConnection(Edges edge){
+            edges.add(edge);
+            if (hubEdges != null) hubEdges.put(edge.destination, edge);
+            // Once the city becomes a hub, build the index so later lookups do not scan the whole edge list
+            else if (edges.size() > HUB_DEGREE){
+                hubEdges = new HashMap<>();
+                for (int index = 0; index < edges.size(); index++){
+                    hubEdges.put(edges.get(index).destination, edges.get(index));
+                }
+            }
+        }
+
+        /**
+         * Remove the first connection from this city to a destination and keep the hub index up to date
+         * @param destination the destination city name
+         */
+        private void removeConnection(String destination){
+            for (int index = 0; index < edges.size(); index++){
+                if (edges.get(index).destination.equals(destination)){
+                    edges.remove(index);
+                    break;
+                }
+            }
+            // A route from a city to itself has a second copy, which is removed by the next call
+            if (hubEdges != null) hubEdges.remove(destination);
+        }
+
+        /**
+         * Find the connection from this city to a destination
+         * @param destination the destination city name
+         * @return the connection, or null if the two cities are not connected
+         */
+        private Edges findConnection(String destination){
+            // Hubs answer from the hash index
+            if (hubEdges != null) return hubEdges.get(destination);
+            // Small cities are faster to scan than to hash
+            for (int index = 0; index < edges.size(); index++){
+                if (edges.get(index).destination.equals(destination)) return edges.get(index);
+            }
+            return null;
+        }
+
         /** Override to return the city name as a vertex */
         @Override
         public String toString(){
@@ -57,14 +105,34 @@ public class AirportSystem {
         }
     }
 
+    /** Number of connections after which a city keeps a hash index of its neighbors */
+    private static final int HUB_DEGREE = 8;
+
     /** The adjacency list of cities. Each node is a city, and each connecting line indicates a flight between two cities. */
     private List<Vertex> connections;
+    /** The number of each city by name, which is also its position inside the connections list */
+    private CityDictionary dictionary;
+    /** The search used by shortestDistance(), created on the first query */
+    private DijkstraSearch distanceSearch;
+    /** The source of the lazy traversals of breadthFirstIterator(), created on the first call */
+    private BreadthFirstSearch traversal;
+    /** The optional cache of shortestDistance() results */
+    private DistanceCache distanceCache;
+    /** The number of changes made to the graph, used to invalidate cached results */
+    private long version;
+    /** The last snapshot taken, reused until the graph changes */
+    private RouteSnapshot snapshot;
+    /** The optional metrics of the operations, null while they are turned off */
+    private RouteMetrics metrics;
+    /** The structures told about every route change */
+    private final List<RouteListener> listeners = new ArrayList<>();
 
     /**
      * Initialize the airport system by instantiate the list of cities
      */
     public AirportSystem(){
         this.connections = new ArrayList<>();
+        this.dictionary = new CityDictionary();
     }
 
     /**
@@ -82,22 +150,10 @@ public class AirportSystem {
      * @return true if two city has already established a connection
      */
     private boolean checkHasEdge(String source, String destination){
-        // Traverse through the connection list
-        for (int indexCon = 0; indexCon < getConnections().size(); indexCon++){
-            // Get the current city, which is the source
-            Vertex currentCity = getConnections().get(indexCon);
-            // If the city is in the list, traverse through cities that are connected to this city
-            if (currentCity.toString().equals(source)){
-                for (int indexVertex = 0; indexVertex < currentCity.edges.size(); indexVertex++){
-                    // Get the connection
-                    Edges connection = currentCity.edges.get(indexVertex);
-                    // Check if the connection existed in the list by checking if the arrivals matches the input
-                    if (connection.destination.equals(destination)) return true;
-                }
-            }
-        }
-        // Otherwise return false
-        return false;
+        // Look up the source city without creating it
+        Vertex sourceCity = findVertex(source);
+        // If the city is in the list, check its connections for the destination
+        return sourceCity != null && sourceCity.findConnection(destination) != null;
     }
     /**
      * A method to get the cities type "Vertex" in the connections list based on their input name
@@ -106,15 +162,97 @@ public class AirportSystem {
      */
     private Vertex getVertex(String source){
         // If the vertex has already exists in the connection list, retrieve it
-        for (int indexConnection = 0; indexConnection < getConnections().size(); indexConnection++){
-            Vertex sourceCity = getConnections().get(indexConnection);
-            if (sourceCity.toString().equals(source)) return sourceCity;
-        }
+        int city = dictionary.add(source);
+        if (city < getConnections().size()) return getConnections().get(city);
         // If not, create a new one and add it to the connections list
-        Vertex sourceCity = new Vertex(source);
+        Vertex sourceCity = new Vertex(source, city);
         getConnections().add(sourceCity);
+        // A new city changes the graph even without a route, so cached trees and snapshots must be replaced
+        version++;
         return sourceCity;
     }
+
+    /**
+     * A helper method to get the vertex of a city without creating it
+     * @param city the city name
+     * @return the vertex, or null if the city is not in the airport system
+     */
+    private Vertex findVertex(String city){
+        int index = dictionary.id(city);
+        return index < 0 ? null : getConnections().get(index);
+    }
+
+    /**
+     * A helper method to check a city number given to an int method
+     * @param city the city number
+     * @param allowUnknown true if -1 is accepted for a city that is not in the airport system
+     */
+    private void checkCity(int city, boolean allowUnknown){
+        if ((city < 0 && !(allowUnknown && city == -1)) || city >= cityCount()){
+            throw new IllegalArgumentException("No city number " + city);
+        }
+    }
+    /**
+     * Retrieve the number of cities in the airport system
+     * @return the number of cities
+     */
+    @Override
+    public int cityCount(){
+        return getConnections().size();
+    }
+
+    /**
+     * Retrieve the position of a city inside the connections list without creating it
+     * @param city the city name
+     * @return the city number, or -1 if the city is not in the airport system
+     */
+    @Override
+    public int cityId(String city){
+        return dictionary.id(city);
+    }
+
+    /**
+     * Retrieve the name of a city from its position inside the connections list
+     * @param city the city number
+     * @return the city name
+     */
+    @Override
+    public String cityName(int city){
+        return getConnections().get(city).id;
+    }
+
+    /**
+     * Retrieve the number of connections of a city
+     * @param city the city number
+     * @return the number of connections starting from the city
+     */
+    @Override
+    public int degree(int city){
+        return getConnections().get(city).edges.size();
+    }
+
+    /**
+     * Retrieve the destination of a connection
+     * @param city the city number
+     * @param connection the position of the connection inside the edges list of the city
+     * @return the number of the destination city
+     */
+    @Override
+    public int neighbor(int city, int connection){
+        return getConnections().get(city).edges.get(connection).target;
+    }
+
+    /**
+     * Retrieve the distance of a connection
+     * @param city the city number
+     * @param connection the position of the connection inside the edges list of the city
+     * @return the distance between the city and the destination of the connection
+     */
+    @Override
+    public int distance(int city, int connection){
+        return getConnections().get(city).edges.get(connection).distance;
+    }
+
     /**
      * A method to add the edges to vertex in the case that weight is positive and no connection has existed before
      * @param source the starting city
@@ -124,68 +262,364 @@ public class AirportSystem {
      * @references CSDS 233 Lecture Notes
      */
     public boolean addEdge(String source, String destination, int weight){
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return insertEdge(source, destination, weight);
+        long startTime = System.nanoTime();
+        boolean added = insertEdge(source, destination, weight);
+        metrics.record(RouteMetrics.Operation.ADD_EDGE, startTime, source, destination, 0, 0, 0);
+        return added;
+    }
+
+    /**
+     * A helper method for addEdge() that adds the connection in both directions
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the distance between two city
+     * @return true if the connection is established successfully
+     */
+    private boolean insertEdge(String source, String destination, int weight){
         // If the weight is negative or there has been a connection between two cities, return false
         if ((weight < 0) || (checkHasEdge(source, destination)))  return false;
         // If no connection established before, create the connection by adding new edge
         else{
             // Get the vertex of source and destination
-            Vertex startDestination = getVertex(source);
-            Vertex endDestination = getVertex(destination);
-            // Create a new edges to the source
-            Edges newEdge = new Edges(source, destination, weight);
-            startDestination.edges.add(newEdge);
-            // Add the same edges from the destination back to the source
-            newEdge = new Edges(destination, source, weight);
-            endDestination.edges.add(newEdge);
+            connect(getVertex(source), getVertex(destination), weight);
             return true;
         }
     }
 
     /**
-     * A method that traverse through the graph using BFS style
+     * A method to add a route between two cities that already have a number, without looking up their names
+     * @param source the number of the starting city
+     * @param destination the number of the final city
+     * @param weight the distance between two city
+     * @return true if the connection is established successfully, false if the weight is negative or the route exists
+     * @throws IllegalArgumentException if a city number is not in the airport system
+     */
+    public boolean addEdge(int source, int destination, int weight){
+        checkCity(source, false);
+        checkCity(destination, false);
+        RouteMetrics metrics = this.metrics;
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        Vertex startDestination = getConnections().get(source);
+        Vertex endDestination = getConnections().get(destination);
+        // The edges hold the same name objects as the vertices, so comparing names stops at the reference check
+        boolean added = weight >= 0 && startDestination.findConnection(endDestination.id) == null;
+        if (added) connect(startDestination, endDestination, weight);
+        if (metrics != null) metrics.record(RouteMetrics.Operation.ADD_EDGE, startTime, cityName(source), cityName(destination), 0, 0, 0);
+        return added;
+    }
+
+    /**
+     * A method to cancel the route between two cities, in both directions. The cities stay in the airport system.
+     * @param source the starting city
+     * @param destination the final city
+     * @return true if the route existed and was removed
+     */
+    public boolean removeEdge(String source, String destination){
+        RouteMetrics metrics = this.metrics;
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        Vertex startDestination = findVertex(source);
+        Vertex endDestination = findVertex(destination);
+        boolean removed = startDestination != null && endDestination != null && disconnect(startDestination, endDestination);
+        if (metrics != null) metrics.record(RouteMetrics.Operation.REMOVE_EDGE, startTime, source, destination, 0, 0, 0);
+        return removed;
+    }
+
+    /**
+     * A method to cancel the route between two cities that already have a number, in both directions
+     * @param source the number of the starting city
+     * @param destination the number of the final city
+     * @return true if the route existed and was removed
+     * @throws IllegalArgumentException if a city number is not in the airport system
+     */
+    public boolean removeEdge(int source, int destination){
+        checkCity(source, false);
+        checkCity(destination, false);
+        RouteMetrics metrics = this.metrics;
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        boolean removed = disconnect(getConnections().get(source), getConnections().get(destination));
+        if (metrics != null) metrics.record(RouteMetrics.Operation.REMOVE_EDGE, startTime, cityName(source), cityName(destination), 0, 0, 0);
+        return removed;
+    }
+
+    /**
+     * A helper method for removeEdge() that removes the connection between two cities in both directions
+     * @param startDestination the starting city
+     * @param endDestination the final city
+     * @return true if the cities were connected
+     */
+    private boolean disconnect(Vertex startDestination, Vertex endDestination){
+        Edges edge = startDestination.findConnection(endDestination.id);
+        if (edge == null) return false;
+        startDestination.removeConnection(endDestination.id);
+        endDestination.removeConnection(startDestination.id);
+        version++;
+        for (int index = 0; index < listeners.size(); index++){
+            listeners.get(index).routeRemoved(startDestination.index, endDestination.index, edge.distance);
+        }
+        return true;
+    }
+
+    /**
+     * A method to number a city without adding any route, so its number can be used with the int methods
+     * @param city the city name
+     * @return the number of the city, a new one if the city was not in the airport system
+     */
+    public int addCity(String city){
+        return getVertex(city).index;
+    }
+
+    /**
+     * Retrieve the dictionary between city names and city numbers
+     * @return the dictionary, which grows as cities are added
+     */
+    public CityDictionary getCityDictionary(){
+        return dictionary;
+    }
+
+    /**
+     * A helper method to add the connection between two cities in both directions
+     * @param startDestination the starting city
+     * @param endDestination the final city
+     * @param weight the distance between two city
+     */
+    private void connect(Vertex startDestination, Vertex endDestination, int weight){
+        addEdgePair(startDestination, endDestination, weight);
+        version++;
+        routeShortened(startDestination.index, endDestination.index, weight);
+    }
+
+    /**
+     * A helper method for connect() and addEdges() to store the two edges of a route, without changing the version
+     * or telling the listeners
+     * @param startDestination the starting city
+     * @param endDestination the final city
+     * @param weight the distance between two city
+     */
+    private void addEdgePair(Vertex startDestination, Vertex endDestination, int weight){
+        // Create a new edges to the source
+        Edges newEdge = new Edges(startDestination.id, endDestination.id, weight);
+        newEdge.target = endDestination.index;
+        startDestination.addConnection(newEdge);
+        // Add the same edges from the destination back to the source
+        newEdge = new Edges(endDestination.id, startDestination.id, weight);
+        newEdge.target = startDestination.index;
+        endDestination.addConnection(newEdge);
+    }
+
+    /**
+     * A method to lower the distance of an existing route, in both directions
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the new distance between two city
+     * @return true if the route exists and the new distance is shorter but not negative
+     */
+    public boolean decreaseDistance(String source, String destination, int weight){
+        Vertex startDestination = findVertex(source);
+        if (weight < 0 || startDestination == null) return false;
+        Edges edge = startDestination.findConnection(destination);
+        if (edge == null || weight >= edge.distance) return false;
+        Vertex endDestination = getConnections().get(edge.target);
+        // A route from a city to itself is stored twice in the same list, so the return direction is the other copy
+        Edges returnEdge = endDestination.findConnection(source);
+        if (returnEdge == edge){
+            for (int index = 0; index < endDestination.edges.size(); index++){
+                Edges copy = endDestination.edges.get(index);
+                if (copy != edge && copy.target == edge.target && copy.distance == edge.distance) returnEdge = copy;
+            }
+        }
+        edge.distance = weight;
+        returnEdge.distance = weight;
+        version++;
+        routeShortened(startDestination.index, endDestination.index, weight);
+        return true;
+    }
+
+    /**
+     * A method to add many routes at once. Each route is accepted or rejected exactly like addEdge() would in the
+     * same order, but repeated routes are detected with one hash set for the whole batch and every edge list
+     * is grown only once.
+     * @param batch the routes to add
+     * @return how many routes were added and why the others were rejected
+     */
+    public LoadReport addEdges(RouteBatch batch){
+        LoadReport report = new LoadReport();
+        addEdges(batch, report);
+        return report;
+    }
+
+    /**
+     * A method to add many routes at once and record the outcome into an existing report
+     * @param batch the routes to add
+     * @param report the report to update
+     */
+    void addEdges(RouteBatch batch, LoadReport report){
+        // STEP 1: Find the cities of the batch that are already in the graph
+        Vertex[] vertices = new Vertex[batch.cityCount()];
+        for (int city = 0; city < vertices.length; city++){
+            vertices[city] = findVertex(batch.cityName(city));
+        }
+        // STEP 2: Decide which routes are added, creating their cities in the same order as addEdge()
+        boolean[] accepted = new boolean[batch.size()];
+        LongHashSet pairs = new LongHashSet(batch.size());
+        int addedCount = 0;
+        for (int route = 0; route < batch.size(); route++){
+            int source = batch.source(route);
+            int destination = batch.destination(route);
+            if (batch.weight(route) < 0){
+                report.negative(batch.line(route), batch.cityName(source), batch.cityName(destination), batch.weight(route));
+                continue;
+            }
+            // A route is repeated if the graph already has it or an earlier route of the batch added it
+            boolean existing = vertices[source] != null && vertices[destination] != null
+                               && vertices[source].findConnection(batch.cityName(destination)) != null;
+            if (existing || !pairs.add(((long) Math.min(source, destination) << 32) | Math.max(source, destination))){
+                report.duplicate(batch.line(route), batch.cityName(source), batch.cityName(destination));
+                continue;
+            }
+            if (vertices[source] == null) vertices[source] = getVertex(batch.cityName(source));
+            if (vertices[destination] == null) vertices[destination] = getVertex(batch.cityName(destination));
+            accepted[route] = true;
+            addedCount++;
+            report.added();
+        }
+        if (addedCount == 0) return;
+        // STEP 3: Grow every edge list once to its final size
+        int[] newConnections = new int[cityCount()];
+        for (int route = 0; route < accepted.length; route++){
+            if (!accepted[route]) continue;
+            newConnections[vertices[batch.source(route)].index]++;
+            newConnections[vertices[batch.destination(route)].index]++;
+        }
+        for (int city = 0; city < newConnections.length; city++){
+            if (newConnections[city] > 0){
+                Vertex vertex = getConnections().get(city);
+                vertex.edges.ensureCapacity(vertex.edges.size() + newConnections[city]);
+            }
+        }
+        // STEP 4: Add the connections in both directions
+        for (int route = 0; route < accepted.length; route++){
+            if (accepted[route]) addEdgePair(vertices[batch.source(route)], vertices[batch.destination(route)], batch.weight(route));
+        }
+        version++;
+        // STEP 5: Tell the listeners once every route is in place
+        if (listeners.isEmpty()) return;
+        for (int route = 0; route < accepted.length; route++){
+            if (accepted[route]) routeShortened(vertices[batch.source(route)].index, vertices[batch.destination(route)].index, batch.weight(route));
+        }
+    }
+
+    /**
+     * A method to register a structure that is told about every route change
+     * @param listener the listener
+     */
+    void addRouteListener(RouteListener listener){
+        listeners.add(listener);
+    }
+
+    /**
+     * A method to stop telling a structure about route changes
+     * @param listener the listener
+     */
+    void removeRouteListener(RouteListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * A helper method to tell every listener that a route was added or got shorter
+     * @param cityA the city number of one end of the route
+     * @param cityB the city number of the other end of the route
+     * @param distance the new distance of the route
+     */
+    private void routeShortened(int cityA, int cityB, int distance){
+        for (int index = 0; index < listeners.size(); index++){
+            listeners.get(index).routeShortened(cityA, cityB, distance);
+        }
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style. The traversal keeps its own visited flags,
+     * so it can be repeated and never adds the start city to the graph.
      * @param start the original start city
-     * @return the BFS traversal starting from the input city
+     * @return the BFS traversal starting from the input city, or an empty list if the city is not in the graph
      * @references CSDS 233 Lectures Note
      */
     public List<String> breadthFirstSearch(String start) {
-        // An output list of cities name
-        List<String> output = new ArrayList<>();
-        // Retrieve the city as Vertex type from its name
-        Vertex startVertex = getVertex(start);
-        // Set the parent of the start vertex as null because we start from there
-        startVertex.parent = null;
-        // Mark the start vertex as encountered
-        startVertex.encountered = true;
-        // Initialize a queue as linked list
-        LinkedList<Vertex> queue = new LinkedList<>();
-        // Add the start city into the queue
-        queue.add(startVertex);
-        while (!queue.isEmpty()) {
-            // Remove first city inside the queue and set it as the source city for later execution
-            Vertex currentVertex = queue.remove(0);
-            // Traverse through those cities that have the connection with the source city.
-            for (int index = 0; index < currentVertex.edges.size(); index++) {
-                // Retrieve the connection of the current city
-                Edges EdgesInCurrentVertex = currentVertex.edges.get(index);
-                // Retrieve the neighbors of the source city by getting the vertex of its destination
-                // The destinations of the source city are its neighbors
-                Vertex neighbors = getVertex(EdgesInCurrentVertex.destination);
-                // If the neighbor has never been encountered/visited, marked it as visited
-                if (!neighbors.encountered) {
-                    neighbors.encountered = true;
-                    // Set the neighbor parent as the source city
-                    neighbors.parent = currentVertex;
-                    // Add the neighbor into the queue
-                    queue.add(neighbors);
-                }
-            }
-            // Once the inner loop is completed, adding the recently removed city from the queue into the output list
-            output.add(currentVertex.toString());
-        }
-        // Return the output.
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return BreadthFirstSearch.traverse(this, start);
+        long startTime = System.nanoTime();
+        metrics.counters.clear();
+        List<String> output = BreadthFirstSearch.traverse(this, start, metrics.counters);
+        metrics.record(RouteMetrics.Operation.BREADTH_FIRST_SEARCH, startTime, start, null);
+        return output;
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style from a city that already has a number
+     * @param start the number of the start city, or -1 for a city that is not in the airport system
+     * @return the numbers of the cities in the order they were visited, or an empty array for -1
+     * @throws IllegalArgumentException if the city number is not in the airport system and is not -1
+     */
+    public int[] breadthFirstSearch(int start){
+        checkCity(start, true);
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return BreadthFirstSearch.traverse(this, start, null);
+        long startTime = System.nanoTime();
+        metrics.counters.clear();
+        int[] output = BreadthFirstSearch.traverse(this, start, metrics.counters);
+        metrics.record(RouteMetrics.Operation.BREADTH_FIRST_SEARCH, startTime, start < 0 ? null : cityName(start), null);
         return output;
     }
 
+    /**
+     * A method that lazily traverses the graph in BFS order. Cities are only visited as the iterator reaches them,
+     * so stopping early costs nothing for the rest of the graph. Several lazy traversals can be open at once, even
+     * nested inside each other, but the graph must not be changed while iterating.
+     * @param start the original start city
+     * @return the cities in BFS order starting with the start city, or nothing if the city is not in the graph
+     */
+    public Iterator<String> breadthFirstIterator(String start){
+        return breadthFirstIterator(start, BreadthFirstSearch.UNLIMITED, BreadthFirstSearch.UNLIMITED);
+    }
+
+    /**
+     * A method that lazily traverses the cities within a number of connections of a city, in BFS order
+     * @param start the original start city
+     * @param maxHops the largest number of connections between the start city and a returned city
+     * @param limit the largest number of returned cities
+     * @return the cities in BFS order starting with the start city, or nothing if the city is not in the graph
+     */
+    public Iterator<String> breadthFirstIterator(String start, int maxHops, int limit){
+        if (traversal == null) traversal = new BreadthFirstSearch(this);
+        return traversal.iterate(cityId(start), maxHops, limit);
+    }
+
+    /**
+     * A method that streams the cities within a number of connections of a city, in BFS order. The stream is lazy,
+     * so limit() or findFirst() stop the traversal early.
+     * @param start the original start city
+     * @param maxHops the largest number of connections between the start city and a returned city
+     * @return the cities in BFS order starting with the start city, or nothing if the city is not in the graph
+     */
+    public java.util.stream.Stream<String> breadthFirstStream(String start, int maxHops){
+        Iterator<String> cities = breadthFirstIterator(start, maxHops, BreadthFirstSearch.UNLIMITED);
+        return java.util.stream.StreamSupport.stream(Spliterators.spliteratorUnknownSize(cities,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * A method that traverses the whole reachable part of the graph in parallel, one BFS level at a time, switching
+     * between top-down and bottom-up levels. It finds the same cities and levels as breadthFirstSearch().
+     * The graph must not be modified during the traversal.
+     * @param start the original start city
+     * @param parallelism the number of worker threads, for example Runtime.getRuntime().availableProcessors()
+     * @return the level and parent of every reached city, with no city reached if the start city is not in the graph
+     */
+    public ParallelBreadthFirstSearch parallelBreadthFirstSearch(String start, int parallelism){
+        return ParallelBreadthFirstSearch.search(this, cityId(start), parallelism);
+    }
+
     /**
      * A method to print graph
      */
@@ -208,247 +642,302 @@ public class AirportSystem {
     }
 
     /**
-     * A method to find the shortest distance between two cities two Dijkstras' algorithm
+     * A method to find the shortest distance between two cities using Dijkstra's algorithm with a binary heap.
+     * The search stops as soon as cityB is settled and never modifies the cities of the graph.
      * @param cityA the source city
      * @param cityB the destination city
-     * @return the shortest distance bewteen two cities
+     * @return the shortest distance between two cities, or Integer.MAX_VALUE if there is no route between them
      * @references CSDS 233 Lecture 23 Dijkstra's algorithm pseudocode
      */
     public int shortestDistance(String cityA, String cityB){
-        // STEP 1: INITIALIZATION
-        // An array list to store the city that has been visited
-        List<Vertex> visitedCity = new ArrayList<>();
-        // An array to keep up with the updated distance of a city to a source when a city is added into the visited list
-        List<Integer> DistanceTracking = new ArrayList<>();
-        // Retrieve the staring city
-        Vertex startingCity = getVertex(cityA);
-        // Add the startingCity into the visited list
-        visitedCity.add(startingCity);
-        // Once the source is added, update the distance of other city to the source
-        for (int cityTracking = 0; cityTracking < getConnections().size(); cityTracking++){
-            // Calculate the current distance between the source city to other cities
-            int distance = getDistanceBetweenCities(startingCity, getConnections().get(cityTracking));
-            // Add the updated distance into the distance tracking list:
-            DistanceTracking.add(distance);
-        }
-        // Once all the distance is updated, find the city that has the smallest distance to the source
-        Vertex smallestDistanceToSourceCity = findSmallestDistanceAmongList(visitedCity, DistanceTracking);
-        // Once that city is retrieved, start step 2:
-        //STEP 2: Looping and Updating until the visited city list consists with all the city
-        while (visitedCity.size() < getConnections().size()){
-            // Add the city having the smallest distance to the visited list
-            visitedCity.add(smallestDistanceToSourceCity);
-            // After adding, updating the new distance of other cities to the starting city (source)
-            for (int smallestCityTracking = 0; smallestCityTracking < smallestDistanceToSourceCity.edges.size(); smallestCityTracking++){
-                // Retrieve the connection between the smallest city to other cities
-                Edges smallestCityConnection = smallestDistanceToSourceCity.edges.get(smallestCityTracking);
-                // Retrieve the neighbors
-                Vertex neighbors = getVertex(smallestCityConnection.destination);
-                // Retrieve the current distance of the neighbors to the source (before adding to the visited list)
-                int currentDistance = DistanceTracking.get(indexInsideList(getConnections(), neighbors));
-                // Calculate the updated distance of the neighbors after adding the smallest city into the visited list
-                int updatedDistance = DistanceTracking.get(indexInsideList(getConnections(), smallestDistanceToSourceCity)) + smallestCityConnection.distance;
-
-                // Make comparison on what distances to retain of that neighbors
-                if (updatedDistance < currentDistance){
-                    DistanceTracking.set(indexInsideList(getConnections(),neighbors), updatedDistance);
-                }
-            }
-            // Once all the distance of cities is updated, again finding the cities that has the shortest distance to the source
-            Vertex newSmallestDistanceToSourceCity = findSmallestDistanceAmongList(visitedCity, DistanceTracking);
-            // If the new smallest-distance-to-source city is not visited, make it the smallest-distance-to-source city, and return to the
-            // beginning of the while loop
-            if (!visitedCity.contains(newSmallestDistanceToSourceCity)) smallestDistanceToSourceCity = newSmallestDistanceToSourceCity;
-        }
+        // Retrieve the city numbers without adding unknown cities to the graph
+        return measuredDistance(cityId(cityA), cityId(cityB), cityA, cityB);
+    }
 
-        // STEP 3: After we have the shortest distance of each cities to the source, retrieving the shortest distance of cityB
-        // Get the "Vertex" type of cityB
-        Vertex destinationCity = getVertex(cityB);
-        // Retrieve the shortest distance of the destination city that is stored inside the distance tracking list
-        int destinationCityDistance = DistanceTracking.get(indexInsideList(getConnections(), destinationCity));
-        return destinationCityDistance;
+    /**
+     * A method to find the shortest distance between two cities that already have a number, without looking up their names
+     * @param source the number of the source city, or -1 for a city that is not in the airport system
+     * @param destination the number of the destination city, or -1 for a city that is not in the airport system
+     * @return the shortest distance between two cities, or Integer.MAX_VALUE if there is no route between them
+     * @throws IllegalArgumentException if a city number is not in the airport system and is not -1
+     */
+    public int shortestDistance(int source, int destination){
+        checkCity(source, true);
+        checkCity(destination, true);
+        return measuredDistance(source, destination, null, null);
     }
 
     /**
-     * A helper method for shortestDistance() method to find the index of an element inside a list
-     * @param list the list that contains the element
-     * @param city the city which its index is retrieved
-     * @return the index of the city inside the list
+     * A helper method for shortestDistance() that records the metrics of the query when they are turned on
+     * @param source the number of the source city, or -1
+     * @param destination the number of the destination city, or -1
+     * @param cityA the name of the source city, or null to look it up only if it is needed
+     * @param cityB the name of the destination city, or null to look it up only if it is needed
+     * @return the shortest distance between two cities, or Integer.MAX_VALUE if there is no route between them
      */
-    private int indexInsideList(List<Vertex> list, Vertex city){
-        return list.indexOf(city);
+    private int measuredDistance(int source, int destination, String cityA, String cityB){
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return findDistance(source, destination);
+        long startTime = System.nanoTime();
+        if (distanceSearch == null) distanceSearch = new DijkstraSearch(this);
+        // Tell a cache hit from a search by the search source, which is reset to -1 here
+        distanceSearch.clearStatistics();
+        int distance = findDistance(source, destination);
+        if (cityA == null && source >= 0) cityA = cityName(source);
+        if (cityB == null && destination >= 0) cityB = cityName(destination);
+        if (distanceSearch.source() < 0) metrics.record(RouteMetrics.Operation.SHORTEST_DISTANCE, startTime, cityA, cityB, 0, 0, 0);
+        else metrics.record(RouteMetrics.Operation.SHORTEST_DISTANCE, startTime, cityA, cityB,
+                distanceSearch.settledCount(), distanceSearch.relaxedCount(), distanceSearch.queuePeak());
+        return distance;
     }
 
     /**
-     * A helper method for shortestDistance() to find the smallest distance, an integer, inside a list containing full of integer
-     * @param minKnownPath the list of visited city. Helper checking if the city has been visited or not
-     * @param distanceBetweenCities a list that keep track the distance between the source and other cities
-     * @return the city that has the smallest distance to the source among other cities
+     * A helper method for shortestDistance() that answers from the cache or runs the search
+     * @param source the number of the source city, or -1
+     * @param destination the number of the destination city, or -1
+     * @return the shortest distance between two cities, or Integer.MAX_VALUE if there is no route between them
      */
-    private Vertex findSmallestDistanceAmongList(List<Vertex> minKnownPath, List<Integer> distanceBetweenCities) {
-        // Initialize the minimum distance as infinity
-        int minDistance = Integer.MAX_VALUE;
-        // Initialize the city that has the minimum distance
-        Vertex minDistanceCity = null;
-        // Looping inside the list containing the distance between cities and the source
-        for (int index = 0; index < distanceBetweenCities.size(); index++) {
-            // Retrieve the city
-            Vertex currentCity = getConnections().get(index);
-            // Check if the city is not in the known set and has the smallest distance
-            if (!minKnownPath.contains(currentCity) && distanceBetweenCities.get(index) < minDistance) {
-                minDistance = distanceBetweenCities.get(index);
-                minDistanceCity = currentCity;
+    private int findDistance(int source, int destination){
+        // A city that is not in the airport system cannot be reached
+        if (source < 0 || destination < 0) return Integer.MAX_VALUE;
+        // Reuse the search state of the previous query
+        if (distanceSearch == null) distanceSearch = new DijkstraSearch(this);
+        if (distanceCache == null) return DijkstraSearch.toIntDistance(distanceSearch.run(source, destination));
+        // Answer from the cache if the pair or a tree of either city is there
+        int distance = distanceCache.get(source, destination, version);
+        if (distance != DistanceCache.MISS) return distance;
+        // If a whole tree fits, settle every city so later queries from cityA are hits
+        if (distanceCache.cachesTrees(cityCount())){
+            distanceSearch.run(source, -1);
+            int[] tree = new int[cityCount()];
+            for (int city = 0; city < tree.length; city++){
+                tree[city] = DijkstraSearch.toIntDistance(distanceSearch.distanceTo(city));
             }
+            distanceCache.putTree(source, tree);
+            return tree[destination];
         }
-        return minDistanceCity;
+        distance = DijkstraSearch.toIntDistance(distanceSearch.run(source, destination));
+        distanceCache.putPair(source, destination, distance);
+        return distance;
     }
 
+    /**
+     * A method to find the shortest distance of many pairs of cities at once. The pairs are grouped by origin so each
+     * origin needs one search, and the groups run concurrently on the executor on a snapshot of the graph.
+     * @param origins the source city of each pair
+     * @param destinations the destination city of each pair, in the same order
+     * @param executor the executor that runs the groups, for example ForkJoinPool.commonPool()
+     * @param maxConcurrentGroups the largest number of groups submitted to the executor at a time
+     * @return the distance of each pair in input order, Integer.MAX_VALUE if there is no route between them
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the results
+     */
+    public int[] shortestDistances(List<String> origins, List<String> destinations, java.util.concurrent.Executor executor,
+                                   int maxConcurrentGroups) throws InterruptedException {
+        return BatchDistanceQuery.run(snapshot(), origins, destinations, executor, maxConcurrentGroups, null);
+    }
 
     /**
-     * A helper method for shortestDistance() to get the distance between two cities
-     * @param source the source city
-     * @param destination the destination city
-     * @return the distance between two cities if they are neighbors or infinity if they have no connection
+     * A method to find the shortest distance of many pairs of cities at once, handing each distance to a listener
+     * as soon as the group of its origin finishes
+     * @param origins the source city of each pair
+     * @param destinations the destination city of each pair, in the same order
+     * @param executor the executor that runs the groups
+     * @param maxConcurrentGroups the largest number of groups submitted to the executor at a time
+     * @param listener receives the position of each pair in the batch and its distance, from the executor threads
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the results
      */
-    private int getDistanceBetweenCities(Vertex source, Vertex destination){
-        // Looping through the list of cities
-        for (int index = 0; index < getConnections().size(); index++){
-            // Retrieve the current city
-            Vertex currentCity = getConnections().get(index);
-            // Check if two cities, the source city and current city have connection or not.
-            if (checkHasEdge(source.toString(), currentCity.toString())){
-                // If they have connection, looping through the connection of the source city
-                for (int index1 = 0; index1 < source.edges.size(); index1++){
-                    if (source.edges.get(index1).destination.equals(destination.toString())){
-                        return source.edges.get(index1).distance;
-                    }
-                }
-            }
-        }
-        // If there's no connection, return infinity
-        return Integer.MAX_VALUE;
+    public void shortestDistances(List<String> origins, List<String> destinations, java.util.concurrent.Executor executor,
+                                  int maxConcurrentGroups, BatchDistanceQuery.Listener listener) throws InterruptedException {
+        BatchDistanceQuery.run(snapshot(), origins, destinations, executor, maxConcurrentGroups, listener);
     }
 
     /**
-     * A method to create a minimum spanning tree using Prims's algorithm
-     * @return a list that contains the edges of the tree
-     * @references CSDS 233 Lecture 24 Prims's algorithm pseudocode
+     * A method to compute the shortest distance between every pair of cities, running one search per source city in parallel.
+     * The graph must not be modified while the table is being computed.
+     * @param parallelism the number of worker threads, for example Runtime.getRuntime().availableProcessors()
+     * @return the table of distances, stored off-heap when it is large
      */
-    public List<Edges> minimumSpanningTree(){
-        // Choose the second city in the list and start traverse from it
-        Vertex startCity = getConnections().get(1);
-        // A list to keep track the edges
-        List<Edges> edgesTracking = new ArrayList<>();
-        // A list to keep track of the vertex
-        List<Vertex> vertexTracing = new ArrayList<>();
-        // An output list that contains edges
-        List<Edges> output = new ArrayList<>();
-        // Looping through the connection of start city and add them into the edges tracking list
-        appendEdgesFromCity(edgesTracking, startCity);
-        // Add the vertex into the tracing list
-        vertexTracing.add(startCity);
-        startCity.encountered = true;
-        // Once we have the edges, find the one that has the smallest distance among each
-        Edges smallestDistanceEdge = findMinConnectionInList(edgesTracking);
-        // Add the edges into the output
-        output.add(smallestDistanceEdge);
-        // Once we add the edges to the output, we remove it to the edges tracking list
-        edgesTracking.remove(smallestDistanceEdge);
-        // Retrieve the vertex that has the shortest distance to the MST
-        Vertex smallestDistanceVertex = getVertex(smallestDistanceEdge.destination);
-        while (vertexTracing.size() <= getConnections().size()){
-            // Add the new vertex into the vertex tracing list
-            vertexTracing.add(smallestDistanceVertex);
-            smallestDistanceVertex.encountered = true;
-            // Once we add the vertex into the tracing list, looping through its connection
-            appendEdgesFromCity(edgesTracking, smallestDistanceVertex);
-            // Once have the edges in the list, find the one that has the smallest distance among each
-            Edges newSmallestDistanceEdges = findMinConnectionInList(edgesTracking);
-
-            if (newSmallestDistanceEdges != null && !output.contains(newSmallestDistanceEdges)
-                                                 && !getVertex(newSmallestDistanceEdges.destination).encountered) {
-                // Add the edges into the output
-                output.add(newSmallestDistanceEdges);
-            }
-            // Then remove it in the edge tracking list
-            edgesTracking.remove(newSmallestDistanceEdges);
-
-            // Initialize the new smallest distance vertex as empty. As long as it is empty, the vertex tracing list does not increase in size
-            Vertex newSmallestDistanceVertex = null;
-            // If the new edges does not null, get its destination aka the new smallest distance vertex
-            if (newSmallestDistanceEdges != null) {
-                newSmallestDistanceVertex = getVertex(newSmallestDistanceEdges.destination);
-            }
-            // Check and add the new shortest distance vertex into the vertex tracking list
-            if (newSmallestDistanceVertex!= null && !newSmallestDistanceVertex.encountered) smallestDistanceVertex = newSmallestDistanceVertex;
-            // Remove unecessary edges from list
-            removeEdgesFromList(edgesTracking);
-        }
-        return output;
+    public DistanceMatrix allPairsDistances(int parallelism){
+        return DistanceMatrix.compute(this, parallelism);
     }
 
     /**
-     * A helper method for minimumSpanningTree() that traverse through all the connection of a vertex and
-     * remove the connection if its destination has already been visited.
-     * @param edgesListTracking the list that of connection of a vertex
+     * A method to create a point-to-point search that grows from both cities at once instead of settling the whole graph.
+     * With landmarks it is also guided by precomputed lower bounds, which must be recreated after routes change.
+     * @param landmarkCount the number of landmark cities to precompute, or 0 for a plain bidirectional search
+     * @return the search, which gives the same distances as shortestDistance()
      */
-    private void removeEdgesFromList(List<Edges> edgesListTracking){
-        // Looping inside the list that contains edges
-        for (int index = 0; index < edgesListTracking.size(); index++){
-            // If the destination of the edge has already been encountered
-            if (getVertex(edgesListTracking.get(index).destination).encountered){
-                // Remove it from the list
-                edgesListTracking.remove(edgesListTracking.get(index));
-            }
-        }
+    public PointToPointSearch pointToPointSearch(int landmarkCount){
+        return new PointToPointSearch(this, landmarkCount > 0 ? Landmarks.select(this, landmarkCount) : null);
     }
 
     /**
-     * A helper method for minimumSpanningTree() that append the connection of a city into a list that contains connections
-     * Condition: The vertex has not already been visited.
-     * @param edgesList the list that contains connections
-     * @param city the city in which its connections is retrieved under the above condition
-     * @return the list that contains connections passed the condition
+     * A method to preprocess the graph into a contraction hierarchy for very fast distance and route queries.
+     * The hierarchy must be rebuilt after routes change.
+     * @return the hierarchy, which reports its preprocessing time, shortcut count and query latency
      */
-    private List<Edges> appendEdgesFromCity(List<Edges> edgesList, Vertex city){
+    public ContractionHierarchy contractionHierarchy(){
+        return ContractionHierarchy.build(this);
+    }
 
-        for (int edgesIndex = 0; edgesIndex < city.edges.size(); edgesIndex++){
-            // Retrieve the edges
-            Edges connection = city.edges.get(edgesIndex);
-            // Check if the vertex is visited
-            if (!getVertex(connection.destination).encountered){
-                edgesList.add(connection);
-            }
-        }
-        return edgesList;
+    /**
+     * A method to take an immutable snapshot of the graph, which any number of threads can query without locks
+     * @return the snapshot of the current version of the graph
+     */
+    public RouteSnapshot snapshot(){
+        if (snapshot == null || snapshot.getVersion() != version) snapshot = new RouteSnapshot(this, version);
+        return snapshot;
     }
 
     /**
-     * A helper method for minimumSpanningTree() that return the smallest distance edges inside a list of edges
-     * @param edgesList the list contains edges
-     * @return the edge that has the smallest distance
+     * A method to compact the graph into an immutable compressed sparse row structure outside the Java heap.
+     * Each direction of a route takes 8 bytes (int city number and int distance) instead of two objects, and every
+     * query of the airport system can run on the result from any number of threads.
+     * @return the frozen graph, which is not changed by later routes
      */
-    private Edges findMinConnectionInList(List<Edges> edgesList){
-        // If the list is empty, return nothing
-        if (edgesList.isEmpty()) {
-            return null;
+    public FrozenRouteGraph freeze(){
+        return new FrozenRouteGraph(RouteGraphFile.encode(this, true));
+    }
+
+    /**
+     * A method to save the whole graph into a binary file that can later be loaded or memory-mapped
+     * @param file the file to write
+     * @throws java.io.IOException if the file cannot be written
+     */
+    public void save(java.nio.file.Path file) throws java.io.IOException {
+        RouteGraphFile.save(this, file);
+    }
+
+    /**
+     * A method to load a graph saved by save() back into an airport system that can be changed
+     * @param file the file to read
+     * @return the airport system, with the same cities and connections in the same order
+     * @throws java.io.IOException if the file cannot be read or is damaged
+     */
+    public static AirportSystem load(java.nio.file.Path file) throws java.io.IOException {
+        FrozenRouteGraph graph = RouteGraphFile.map(file, true);
+        AirportSystem airportSystem = new AirportSystem();
+        // Create every city first so the connections can refer to them by number
+        for (int city = 0; city < graph.cityCount(); city++){
+            airportSystem.getVertex(graph.cityName(city));
         }
-        // Initialize a minEdges variable
-        Edges minEdge = null;
-        // Set the initial distance as infinity
-        int initialEdgeDistance = Integer.MAX_VALUE;
-        // Looping through the list containing edges
-        for (int index = 0; index < edgesList.size(); index++){
-            // The distance of the edge is less than the initial distance
-            if (edgesList.get(index).distance < initialEdgeDistance){
-                // Set the initial distance the distance of the edges
-                initialEdgeDistance = edgesList.get(index).distance;
-                // Retrieve the edge
-                minEdge = edgesList.get(index);
+        for (int city = 0; city < graph.cityCount(); city++){
+            Vertex vertex = airportSystem.getConnections().get(city);
+            vertex.edges.ensureCapacity(graph.degree(city));
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                Vertex destination = airportSystem.getConnections().get(graph.neighbor(city, connection));
+                Edges edge = new Edges(vertex.id, destination.id, graph.distance(city, connection));
+                edge.target = destination.index;
+                vertex.addConnection(edge);
             }
         }
-        // Return the edge
-        return minEdge;
+        airportSystem.version++;
+        return airportSystem;
+    }
+
+    /**
+     * A method to memory-map a graph saved by save() without creating the city and connection objects, after
+     * checking the checksum of the whole file. The check reads every page once, use map(file, false) to skip it.
+     * @param file the file to map
+     * @return the read-only mapped graph
+     * @throws java.io.IOException if the file cannot be read or is damaged
+     */
+    public static FrozenRouteGraph map(java.nio.file.Path file) throws java.io.IOException {
+        return map(file, true);
+    }
+
+    /**
+     * A method to memory-map a graph saved by save() without creating the city and connection objects. Without the
+     * checksum only the header is read, so a large graph is queryable in milliseconds and pages are read as queries
+     * reach them.
+     * @param file the file to map
+     * @param verifyChecksum true to read the whole file once and check it was not damaged
+     * @return the read-only mapped graph
+     * @throws java.io.IOException if the file cannot be read, has a bad header or fails the requested checksum
+     */
+    public static FrozenRouteGraph map(java.nio.file.Path file, boolean verifyChecksum) throws java.io.IOException {
+        return RouteGraphFile.map(file, verifyChecksum);
+    }
+
+    /**
+     * A method to turn on caching of shortestDistance() results. The cache is emptied whenever a route changes.
+     * @param maxPairs the maximum number of cached city pairs
+     * @param maxTreeBytes the maximum memory for the whole distance trees of recently queried cities, or 0 to only cache pairs
+     */
+    public void enableDistanceCache(int maxPairs, long maxTreeBytes){
+        distanceCache = new DistanceCache(maxPairs, maxTreeBytes);
+    }
+
+    /**
+     * A method to turn off caching of shortestDistance() results
+     */
+    public void disableDistanceCache(){
+        distanceCache = null;
+    }
+
+    /**
+     * Retrieve the cache of shortestDistance() results and its hit, miss and eviction counters
+     * @return the cache, or null if caching is turned off
+     */
+    public DistanceCache getDistanceCache(){
+        return distanceCache;
+    }
+
+    /**
+     * A method to turn on the metrics of addEdge(), removeEdge(), shortestDistance(), breadthFirstSearch() and
+     * minimumSpanningTree().
+     * While they are off the operations are not timed and allocate nothing for them.
+     * @return the metrics, kept if they were already on
+     */
+    public RouteMetrics enableMetrics(){
+        if (metrics == null) metrics = new RouteMetrics();
+        return metrics;
+    }
+
+    /**
+     * A method to turn off the metrics. Metrics registered with JMX stay registered with their last values.
+     */
+    public void disableMetrics(){
+        metrics = null;
+    }
+
+    /**
+     * Retrieve the metrics of the operations
+     * @return the metrics, or null if they are turned off
+     */
+    public RouteMetrics getMetrics(){
+        return metrics;
+    }
+
+    /**
+     * A method to create a minimum spanning forest, one minimum spanning tree for every connected part of the graph.
+     * Kruskal's algorithm is used for small graphs and a parallel Boruvka algorithm for graphs with many routes.
+     * @return a list that contains the edges of the forest, in the order Prim's algorithm would add them from the second city
+     * @references CSDS 233 Lecture 24 minimum spanning tree pseudocode
+     */
+    public List<Edges> minimumSpanningTree(){
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return SpanningForest.compute(this);
+        long startTime = System.nanoTime();
+        metrics.counters.clear();
+        List<Edges> output = SpanningForest.compute(this, metrics.counters);
+        metrics.record(RouteMetrics.Operation.MINIMUM_SPANNING_TREE, startTime, null, null);
+        return output;
+    }
+
+    /**
+     * A method to create a minimum spanning forest as city numbers, without creating an object per edge
+     * @return three ints per edge of the forest: the number of the city already in the tree, the number of the new
+     *         city and the distance, in the same order as minimumSpanningTree()
+     */
+    public int[] minimumSpanningTreeIds(){
+        RouteMetrics metrics = this.metrics;
+        if (metrics == null) return SpanningForest.computeIds(this, null);
+        long startTime = System.nanoTime();
+        metrics.counters.clear();
+        int[] output = SpanningForest.computeIds(this, metrics.counters);
+        metrics.record(RouteMetrics.Operation.MINIMUM_SPANNING_TREE, startTime, null, null);
+        return output;
     }
 
     public static void main(String[] args) {
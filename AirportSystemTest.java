@@ -88,4 +88,141 @@ public class AirportSystemTest {
         String edgesListExpected3 = "[[5, 1]]";
         assertEquals(edgesListExpected3, airportSystem3.minimumSpanningTree().toString());
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void addEdge() {
+        AirportSystem airportSystem = new AirportSystem();
+
+        // Case 1: Negative distance and repeated connections (in both directions) are rejected
+        assertTrue(airportSystem.addEdge("1", "2", 2));
+        assertFalse(airportSystem.addEdge("1", "3", -1));
+        assertFalse(airportSystem.addEdge("1", "2", 5));
+        assertFalse(airportSystem.addEdge("2", "1", 5));
+
+        // Case 2: A hub city with many connections still detects duplicates once it is indexed
+        for (int city = 3; city <= 20; city++) {
+            assertTrue(airportSystem.addEdge("1", String.valueOf(city), city));
+        }
+        for (int city = 2; city <= 20; city++) {
+            assertFalse(airportSystem.addEdge("1", String.valueOf(city), 1));
+            assertFalse(airportSystem.addEdge(String.valueOf(city), "1", 1));
+        }
+
+        // Case 3: The cities keep their insertion order for the traversal
+        List<String> expected = new java.util.ArrayList<>();
+        for (int city = 1; city <= 20; city++) {
+            expected.add(String.valueOf(city));
+        }
+        assertEquals(expected, airportSystem.breadthFirstSearch("1"));
+    }
+
+    @org.junit.Test
+    public void removeEdge() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("4", "5", 9);
+        airportSystem.addEdge("2", "4", 3);
+        airportSystem.addEdge("3", "3", 7);
+
+        // Case 1: A route is removed in both directions and the queries follow
+        assertEquals(6, airportSystem.shortestDistance("2", "5"));
+        assertTrue(airportSystem.removeEdge("5", "1"));
+        assertEquals(12, airportSystem.shortestDistance("2", "5"));
+        assertEquals("[1, 4, 2, 5]", airportSystem.breadthFirstSearch("1").toString());
+        assertFalse(airportSystem.removeEdge("1", "5"));
+        assertTrue(airportSystem.addEdge("5", "1", 6));
+        assertEquals(6, airportSystem.shortestDistance("1", "5"));
+
+        // Case 2: Unknown cities and missing routes are refused, a route from a city to itself is removed whole
+        assertFalse(airportSystem.removeEdge("1", "9"));
+        assertFalse(airportSystem.removeEdge("2", "5"));
+        assertTrue(airportSystem.removeEdge("3", "3"));
+        assertEquals(0, airportSystem.degree(airportSystem.cityId("3")));
+        assertEquals(5, airportSystem.cityCount());
+
+        // Case 3: A hub city drops routes from its index too
+        for (int city = 10; city < 30; city++) {
+            airportSystem.addEdge("1", String.valueOf(city), city);
+        }
+        for (int city = 10; city < 30; city += 2) {
+            assertTrue(airportSystem.removeEdge(airportSystem.cityId(String.valueOf(city)), airportSystem.cityId("1")));
+        }
+        assertFalse(airportSystem.removeEdge("1", "10"));
+        assertTrue(airportSystem.addEdge("10", "1", 1));
+        assertFalse(airportSystem.addEdge("11", "1", 1));
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("1", "12"));
+    }
+
+    @org.junit.Test
+    public void shortestDistanceUnreachable() {
+        // Create a disconnected graph
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("3", "4", Integer.MAX_VALUE);
+
+        // Case 1: Cities in different parts of the graph have no route
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("1", "4"));
+        // Case 2: A city that is not in the graph has no route and is not added to the graph
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("1", "9"));
+        assertEquals(4, airportSystem.cityCount());
+        // Case 3: The distance from a city to itself is zero
+        assertEquals(0, airportSystem.shortestDistance("3", "3"));
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("4", "3"));
+    }
+
+    @org.junit.Test
+    public void repeatedTraversals() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("4", "5", 9);
+        airportSystem.addEdge("2", "4", 3);
+
+        // Case 1: A second traversal visits every city again
+        assertEquals("[1, 5, 4, 2]", airportSystem.breadthFirstSearch("1").toString());
+        assertEquals("[1, 5, 4, 2]", airportSystem.breadthFirstSearch("1").toString());
+        assertEquals("[4, 1, 5, 2]", airportSystem.breadthFirstSearch("4").toString());
+
+        // Case 2: The minimum spanning tree can be computed after a traversal, and more than once
+        assertEquals("[[5, 1], [1, 4], [1, 2]]", airportSystem.minimumSpanningTree().toString());
+        assertEquals("[[5, 1], [1, 4], [1, 2]]", airportSystem.minimumSpanningTree().toString());
+
+        // Case 3: An unknown city is not added to the graph
+        assertTrue(airportSystem.breadthFirstSearch("9").isEmpty());
+        assertEquals(4, airportSystem.cityCount());
+    }
+
+    @org.junit.Test
+    public void addCityAfterCachedQueries() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("A", "B", 3);
+        airportSystem.enableDistanceCache(100, 1 << 20);
+
+        // Case 1: A city added after a tree was cached is answered, not looked up in the old tree
+        assertEquals(3, airportSystem.shortestDistance("A", "B"));
+        airportSystem.addCity("Z");
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("A", "Z"));
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("Z", "B"));
+
+        // Case 2: A snapshot taken before the city is replaced by one that has it
+        RouteSnapshot before = airportSystem.snapshot();
+        airportSystem.addCity("Q");
+        RouteSnapshot after = airportSystem.snapshot();
+        assertNotSame(before, after);
+        assertEquals(-1, before.cityId("Q"));
+        assertEquals(3, after.cityId("Q"));
+
+        // Case 3: Adding a city that is already there keeps the snapshot
+        airportSystem.addCity("A");
+        assertSame(after, airportSystem.snapshot());
+
+        // Case 4: A city added through an update is published
+        ConcurrentAirportSystem concurrent = new ConcurrentAirportSystem();
+        concurrent.addEdge("A", "B", 3);
+        concurrent.update(graph -> graph.addCity("Q"));
+        assertEquals(2, concurrent.snapshot().cityId("Q"));
+    }
+}
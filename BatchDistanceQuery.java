@@ -0,0 +1,149 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Many shortest distance queries answered together. The pairs are grouped by origin, so each origin needs a single
+ * Dijkstra search that stops once all of its destinations are settled, and the groups run concurrently on an
+ * executor. At most a fixed number of groups are submitted at a time, so a large batch never floods the executor
+ * and the number of search objects stays bounded. Those search objects are reused from group to group.
+ * @author Quan Tran
+ */
+public class BatchDistanceQuery {
+    /** Receives the distances of a batch as their groups finish */
+    public interface Listener {
+        /**
+         * Called once per pair, from the thread that ran the group of the pair, or from the calling thread at the
+         * start of the batch for a pair with a city that is not in the graph. It must be safe to call from many threads.
+         * @param index the position of the pair in the batch
+         * @param distance the shortest distance, or Integer.MAX_VALUE if there is no route
+         */
+        void distance(int index, int distance);
+    }
+
+    /** The graph being searched, which must not change during the batch */
+    private final RouteGraph graph;
+    /** The searches that are not running a group */
+    private final ConcurrentLinkedQueue<DijkstraSearch> idleSearches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Initialize a batch over a graph
+     * @param graph the graph
+     */
+    private BatchDistanceQuery(RouteGraph graph){
+        this.graph = graph;
+    }
+
+    /**
+     * A method to find the shortest distance of every pair of a batch
+     * @param graph the graph, which must not be modified during the batch
+     * @param origins the source city of each pair
+     * @param destinations the destination city of each pair, in the same order
+     * @param executor the executor that runs the groups, for example a fork-join pool or a virtual thread executor
+     * @param maxConcurrentGroups the largest number of groups submitted to the executor at a time
+     * @param listener receives each distance as soon as its group finishes, or null
+     * @return the distance of each pair in input order, Integer.MAX_VALUE if there is no route or a city is unknown
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the groups
+     */
+    static int[] run(RouteGraph graph, List<String> origins, List<String> destinations, Executor executor,
+                     int maxConcurrentGroups, Listener listener) throws InterruptedException {
+        if (origins.size() != destinations.size()) throw new IllegalArgumentException("There must be one destination per origin");
+        if (maxConcurrentGroups < 1) throw new IllegalArgumentException("At least one group must be allowed to run");
+        int pairCount = origins.size();
+        int[] output = new int[pairCount];
+        // STEP 1: Sort the known pairs by origin, keeping the input order inside each origin
+        long[] order = new long[pairCount];
+        int[] targets = new int[pairCount];
+        int known = 0;
+        for (int index = 0; index < pairCount; index++){
+            int source = graph.cityId(origins.get(index));
+            int destination = graph.cityId(destinations.get(index));
+            targets[index] = destination;
+            if (source < 0 || destination < 0){
+                output[index] = Integer.MAX_VALUE;
+                if (listener != null) listener.distance(index, Integer.MAX_VALUE);
+            }
+            else order[known++] = ((long) source << 32) | index;
+        }
+        Arrays.sort(order, 0, known);
+        // STEP 2: Find where each origin's group starts
+        int[] groupStarts = new int[known + 1];
+        int groupCount = 0;
+        for (int position = 0; position < known; position++){
+            if (position == 0 || (order[position] >>> 32) != (order[position - 1] >>> 32)) groupStarts[groupCount++] = position;
+        }
+        groupStarts[groupCount] = known;
+        // STEP 3: Run the groups, waiting for a permit before each submission
+        BatchDistanceQuery batch = new BatchDistanceQuery(graph);
+        Semaphore permits = new Semaphore(maxConcurrentGroups);
+        CountDownLatch finished = new CountDownLatch(groupCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int group = 0; group < groupCount; group++){
+            permits.acquire();
+            if (failure.get() != null){
+                permits.release();
+                break;
+            }
+            int from = groupStarts[group];
+            int to = groupStarts[group + 1];
+            try {
+                executor.execute(() -> {
+                    try {
+                        batch.runGroup(order, from, to, targets, output, listener);
+                    } catch (Throwable throwable){
+                        failure.compareAndSet(null, throwable);
+                    } finally {
+                        permits.release();
+                        finished.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException exception){
+                permits.release();
+                failure.compareAndSet(null, exception);
+                break;
+            }
+        }
+        // STEP 4: Wait for the submitted groups. After a failure, waiting for all permits covers the ones submitted.
+        if (failure.get() == null) finished.await();
+        else permits.acquire(maxConcurrentGroups);
+        Throwable throwable = failure.get();
+        if (throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+        if (throwable instanceof Error) throw (Error) throwable;
+        if (throwable != null) throw new IllegalStateException(throwable);
+        return output;
+    }
+
+    /**
+     * A helper method for run() that answers every pair of one origin with one search
+     * @param order the pairs sorted by origin, each packed as origin << 32 | index
+     * @param from the position of the first pair of the group inside order
+     * @param to one past the position of the last pair of the group
+     * @param targets the destination city of each pair by index
+     * @param output the distance of each pair by index
+     * @param listener receives each distance, or null
+     */
+    private void runGroup(long[] order, int from, int to, int[] targets, int[] output, Listener listener){
+        DijkstraSearch search = idleSearches.poll();
+        if (search == null) search = new DijkstraSearch(graph);
+        try {
+            int source = (int) (order[from] >>> 32);
+            int[] groupTargets = new int[to - from];
+            for (int position = from; position < to; position++){
+                groupTargets[position - from] = targets[(int) order[position]];
+            }
+            search.runToTargets(source, groupTargets, 0, groupTargets.length);
+            for (int position = from; position < to; position++){
+                int index = (int) order[position];
+                output[index] = DijkstraSearch.toIntDistance(search.distanceTo(targets[index]));
+                if (listener != null) listener.distance(index, output[index]);
+            }
+        } finally {
+            idleSearches.add(search);
+        }
+    }
+}
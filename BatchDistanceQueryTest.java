@@ -0,0 +1,91 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A JUnit class to test answering many shortest distance queries at once
+ */
+public class BatchDistanceQueryTest {
+
+    @org.junit.Test
+    public void matchesSingleQueries() throws InterruptedException {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(400, 900, 17);
+        Random random = new Random(3);
+        List<String> origins = new ArrayList<>();
+        List<String> destinations = new ArrayList<>();
+        // Few origins with many destinations each, plus repeated pairs and unknown cities
+        for (int pair = 0; pair < 3000; pair++) {
+            origins.add(String.valueOf(random.nextInt(40)));
+            destinations.add(String.valueOf(random.nextInt(400)));
+        }
+        origins.add("unknown");
+        destinations.add("1");
+        origins.add("1");
+        destinations.add("1");
+
+        // Case 1: The distances come back in input order on a bounded executor
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            int[] distances = airportSystem.shortestDistances(origins, destinations, executor, 2);
+            for (int pair = 0; pair < origins.size(); pair++) {
+                assertEquals(airportSystem.shortestDistance(origins.get(pair), destinations.get(pair)), distances[pair]);
+            }
+            assertEquals(0, distances[origins.size() - 1]);
+            assertEquals(Integer.MAX_VALUE, distances[origins.size() - 2]);
+
+            // Case 2: The listener receives every pair once
+            AtomicIntegerArray streamed = new AtomicIntegerArray(origins.size());
+            AtomicInteger calls = new AtomicInteger();
+            airportSystem.shortestDistances(origins, destinations, ForkJoinPool.commonPool(), 8, (index, distance) -> {
+                streamed.set(index, distance);
+                calls.incrementAndGet();
+            });
+            assertEquals(origins.size(), calls.get());
+            for (int pair = 0; pair < origins.size(); pair++) {
+                assertEquals(distances[pair], streamed.get(pair));
+            }
+
+            // Case 3: The concurrent airport system answers from its snapshot
+            ConcurrentAirportSystem concurrent = new ConcurrentAirportSystem();
+            concurrent.addEdge("A", "B", 3);
+            concurrent.addEdge("B", "C", 4);
+            assertArrayEquals(new int[]{7, 3, Integer.MAX_VALUE}, concurrent.shortestDistances(
+                    Arrays.asList("A", "A", "C"), Arrays.asList("C", "B", "D"), executor, 1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @org.junit.Test
+    public void errors() throws InterruptedException {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(50, 50, 1);
+
+        // Case 1: Lists of different sizes are refused
+        try {
+            airportSystem.shortestDistances(Arrays.asList("1", "2"), Arrays.asList("3"), Runnable::run, 1);
+            fail("The lists should be refused");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // Case 2: A rejected group fails the batch
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        try {
+            airportSystem.shortestDistances(Arrays.asList("1", "2"), Arrays.asList("3", "4"), executor, 1);
+            fail("The batch should fail");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        // Case 3: An empty batch
+        assertEquals(0, airportSystem.shortestDistances(new ArrayList<>(), new ArrayList<>(), Runnable::run, 1).length);
+    }
+}
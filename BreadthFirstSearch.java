@@ -0,0 +1,231 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A breadth-first traversal over a route graph. The visited flags and the queue belong to the traversal, so the
+ * cities of the graph are never modified and any number of traversals can run at the same time on an unchanging graph.
+ * An instance also gives lazy traversals that stop after a number of connections or results. Each lazy traversal
+ * has its own queue and visit stamps, taken back from a finished traversal when there is one, so nothing has to be
+ * allocated or cleared between two traversals and several of them can be open at once.
+ * @author Quan Tran
+ * @references CSDS 233 Lectures Note
+ */
+class BreadthFirstSearch {
+    /** The hop count or result limit that means no limit */
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /** The graph traversed by iterate() */
+    private final RouteGraph graph;
+    /** The arrays of the finished lazy traversals, ready for the next ones */
+    private final ArrayDeque<State> idle = new ArrayDeque<>();
+
+    /**
+     * Initialize a reusable traversal of a graph
+     * @param graph the graph to traverse
+     */
+    BreadthFirstSearch(RouteGraph graph){
+        this.graph = graph;
+    }
+
+    /**
+     * A method to start a lazy traversal. Each city is only found when the iterator reaches it, so stopping early
+     * skips the rest of the graph. The traversal is independent of every other one, and its arrays are reused once
+     * it has returned its last city; a traversal dropped before that just leaves them to the garbage collector.
+     * @param start the start city number, or -1 for an empty traversal
+     * @param maxHops the largest number of connections from the start city, or UNLIMITED
+     * @param limit the largest number of returned cities, or UNLIMITED
+     * @return the cities in the order they are visited, starting with the start city
+     */
+    Iterator<String> iterate(int start, int maxHops, int limit){
+        if (maxHops < 0 || limit < 0) throw new IllegalArgumentException("The hop count and the limit must not be negative");
+        if (start < 0 || limit == 0) return new Traversal(null, -1, maxHops, limit);
+        State state = idle.isEmpty() ? new State() : idle.pop();
+        state.begin(graph.cityCount());
+        return new Traversal(state, start, maxHops, limit);
+    }
+
+    /** The queue and visit stamps used by one lazy traversal at a time */
+    private static class State {
+        /** The cities in the order they were reached, each city enters it at most once */
+        private int[] queue = new int[0];
+        /** The traversal number in which each city was last reached */
+        private int[] visitedStamp = new int[0];
+        /** The number of the current traversal, so the visited flags never have to be cleared */
+        private int stamp;
+
+        /**
+         * A helper method for iterate() that prepares the arrays for a new traversal
+         * @param cityCount the number of cities in the graph, which may have grown since the last traversal
+         */
+        private void begin(int cityCount){
+            if (cityCount > queue.length){
+                int newLength = Math.max(cityCount, queue.length * 2);
+                queue = Arrays.copyOf(queue, newLength);
+                visitedStamp = Arrays.copyOf(visitedStamp, newLength);
+            }
+            // A new traversal number invalidates every visit of the previous traversal
+            if (++stamp == Integer.MAX_VALUE){
+                Arrays.fill(visitedStamp, 0);
+                stamp = 1;
+            }
+        }
+    }
+
+    /** The iterator of one lazy traversal */
+    private class Traversal implements Iterator<String> {
+        /** The arrays of this traversal, null once it has returned its last city */
+        private State state;
+        /** The largest number of connections from the start city */
+        private final int maxHops;
+        /** The number of cities that can still be returned */
+        private int remaining;
+        /** The position of the next city to return inside the queue */
+        private int head;
+        /** The position after the last reached city inside the queue */
+        private int tail;
+        /** The position inside the queue where the cities one more connection away start */
+        private int levelEnd;
+        /** The number of connections between the start city and the city at head */
+        private int depth;
+
+        /**
+         * Initialize a traversal by putting the start city into the queue
+         * @param state the arrays of the traversal, or null for an empty traversal
+         * @param start the start city number
+         * @param maxHops the largest number of connections from the start city
+         * @param limit the largest number of returned cities
+         */
+        private Traversal(State state, int start, int maxHops, int limit){
+            this.state = state;
+            this.maxHops = maxHops;
+            this.remaining = limit;
+            if (state == null) return;
+            state.queue[tail++] = start;
+            state.visitedStamp[start] = state.stamp;
+            levelEnd = tail;
+        }
+
+        @Override
+        public boolean hasNext(){
+            return state != null;
+        }
+
+        @Override
+        public String next(){
+            if (!hasNext()) throw new NoSuchElementException();
+            int[] queue = state.queue;
+            int[] visitedStamp = state.visitedStamp;
+            int epoch = state.stamp;
+            // Every city before levelEnd is one connection closer than the cities after it
+            if (head == levelEnd){
+                depth++;
+                levelEnd = tail;
+            }
+            int city = queue[head++];
+            remaining--;
+            // Only reach further if the neighbors are within the hop count and a result is still wanted
+            if (depth < maxHops && remaining > 0){
+                for (int connection = 0; connection < graph.degree(city); connection++){
+                    int neighbor = graph.neighbor(city, connection);
+                    if (visitedStamp[neighbor] != epoch){
+                        visitedStamp[neighbor] = epoch;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            // The last city hands the arrays to the next traversal
+            if (remaining == 0 || head == tail){
+                idle.push(state);
+                state = null;
+            }
+            return graph.cityName(city);
+        }
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style
+     * @param graph the graph
+     * @param start the original start city
+     * @return the cities in the order they were visited, or an empty list if the start city is not in the graph
+     */
+    static List<String> traverse(RouteGraph graph, String start){
+        return traverse(graph, start, null);
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style and counts the work it does
+     * @param graph the graph
+     * @param start the original start city
+     * @param counters the counters to fill with the visited cities, examined connections and largest queue size, or null
+     * @return the cities in the order they were visited, or an empty list if the start city is not in the graph
+     */
+    static List<String> traverse(RouteGraph graph, String start, RouteMetrics.Counters counters){
+        int startCity = graph.cityId(start);
+        if (startCity < 0) return new ArrayList<>();
+        // The queue is an array, since every city enters it at most once
+        int[] queue = new int[graph.cityCount()];
+        int count = visit(graph, startCity, queue, counters);
+        List<String> output = new ArrayList<>(count);
+        for (int index = 0; index < count; index++){
+            output.add(graph.cityName(queue[index]));
+        }
+        return output;
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style and returns city numbers
+     * @param graph the graph
+     * @param start the start city number, or -1 for an empty traversal
+     * @param counters the counters to fill with the visited cities, examined connections and largest queue size, or null
+     * @return the city numbers in the order they were visited
+     */
+    static int[] traverse(RouteGraph graph, int start, RouteMetrics.Counters counters){
+        if (start < 0) return new int[0];
+        int[] queue = new int[graph.cityCount()];
+        int count = visit(graph, start, queue, counters);
+        return count == queue.length ? queue : Arrays.copyOf(queue, count);
+    }
+
+    /**
+     * A helper method for traverse() that visits the cities in BFS order
+     * @param graph the graph
+     * @param startCity the start city number
+     * @param queue an array of one int per city, which receives the visited cities in order
+     * @param counters the counters to fill with the visited cities, examined connections and largest queue size, or null
+     * @return the number of visited cities
+     */
+    private static int visit(RouteGraph graph, int startCity, int[] queue, RouteMetrics.Counters counters){
+        boolean[] encountered = new boolean[queue.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startCity;
+        encountered[startCity] = true;
+        long examined = 0;
+        int queuePeak = 1;
+        while (head < tail){
+            // Remove first city inside the queue
+            int city = queue[head++];
+            int degree = graph.degree(city);
+            examined += degree;
+            // Add its neighbors that have never been encountered
+            for (int connection = 0; connection < degree; connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (!encountered[neighbor]){
+                    encountered[neighbor] = true;
+                    queue[tail++] = neighbor;
+                }
+            }
+            if (tail - head > queuePeak) queuePeak = tail - head;
+        }
+        if (counters != null){
+            counters.settled = tail;
+            counters.relaxed = examined;
+            counters.queuePeak = queuePeak;
+        }
+        return tail;
+    }
+}
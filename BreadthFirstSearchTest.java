@@ -0,0 +1,85 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A JUnit class to test the lazy breadth-first traversal
+ */
+public class BreadthFirstSearchTest {
+
+    /**
+     * A helper method to collect the remaining cities of an iterator
+     * @param cities the iterator
+     * @return the cities
+     */
+    private static List<String> collect(Iterator<String> cities) {
+        List<String> output = new ArrayList<>();
+        cities.forEachRemaining(output::add);
+        return output;
+    }
+
+    @org.junit.Test
+    public void hopLimitAndResultLimit() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("A", "B", 1);
+        airportSystem.addEdge("A", "C", 1);
+        airportSystem.addEdge("B", "D", 1);
+        airportSystem.addEdge("C", "E", 1);
+        airportSystem.addEdge("E", "F", 1);
+        airportSystem.addEdge("X", "Y", 1);
+
+        // Case 1: The cities within N connections, in BFS order
+        assertEquals(Arrays.asList("A"), collect(airportSystem.breadthFirstIterator("A", 0, 10)));
+        assertEquals(Arrays.asList("A", "B", "C"), collect(airportSystem.breadthFirstIterator("A", 1, 10)));
+        assertEquals(Arrays.asList("A", "B", "C", "D", "E"), collect(airportSystem.breadthFirstIterator("A", 2, 10)));
+
+        // Case 2: Only the first K cities
+        assertEquals(Arrays.asList("A", "B", "C", "D"), collect(airportSystem.breadthFirstIterator("A", 10, 4)));
+
+        // Case 3: An unknown city gives nothing and is not added to the graph
+        assertFalse(airportSystem.breadthFirstIterator("Z").hasNext());
+        assertEquals(-1, airportSystem.cityId("Z"));
+
+        // Case 4: The stream stops early and can be repeated
+        assertEquals(Arrays.asList("A", "B"), airportSystem.breadthFirstStream("A", 5).limit(2).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("X", "Y"), airportSystem.breadthFirstStream("X", 5).collect(Collectors.toList()));
+        assertEquals(6, airportSystem.breadthFirstStream("F", BreadthFirstSearch.UNLIMITED).count());
+    }
+
+    @org.junit.Test
+    public void repeatedLazyTraversals() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(300, 400, 9);
+
+        // Case 1: A full lazy traversal visits the same cities as the eager one, every time
+        for (int city = 0; city < 300; city += 37) {
+            String start = String.valueOf(city);
+            assertEquals(airportSystem.breadthFirstSearch(start), collect(airportSystem.breadthFirstIterator(start)));
+        }
+
+        // Case 2: Cities added between two traversals are visited
+        airportSystem.addEdge("0", "new", 1);
+        assertTrue(collect(airportSystem.breadthFirstIterator("0")).contains("new"));
+
+        // Case 3: Two open traversals do not disturb each other
+        Iterator<String> older = airportSystem.breadthFirstIterator("0");
+        older.next();
+        List<String> newer = collect(airportSystem.breadthFirstIterator("1"));
+        assertEquals(airportSystem.breadthFirstSearch("1"), newer);
+        List<String> full = airportSystem.breadthFirstSearch("0");
+        assertEquals(full.subList(1, full.size()), collect(older));
+
+        // Case 4: Nested traversals each visit their own cities
+        List<String> nested = airportSystem.breadthFirstStream("0", 1)
+                .flatMap(city -> airportSystem.breadthFirstStream(city, 1))
+                .collect(Collectors.toList());
+        List<String> expected = new ArrayList<>();
+        for (String city : collect(airportSystem.breadthFirstIterator("0", 1, BreadthFirstSearch.UNLIMITED))) {
+            expected.addAll(collect(airportSystem.breadthFirstIterator(city, 1, BreadthFirstSearch.UNLIMITED)));
+        }
+        assertEquals(expected, nested);
+    }
+}
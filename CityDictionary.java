@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * A dictionary that gives every city name a dense number, 0 for the first city added, 1 for the next and so on.
+ * Names are kept in an open-addressing table of ints, so a lookup hashes the name once (String caches its hash)
+ * and never boxes the number. Callers that keep the numbers can then use the int methods of the airport system.
+ * @author Quan Tran
+ */
+public class CityDictionary {
+    /** The number plus one of the city in each slot, 0 for an empty slot */
+    private int[] slots = new int[16];
+    /** The name of each city by number */
+    private String[] names = new String[8];
+    /** The number of cities */
+    private int size;
+
+    /**
+     * Retrieve the number of a city
+     * @param name the city name
+     * @return the city number, or -1 if the city is not in the dictionary
+     */
+    public int id(String name){
+        int mask = slots.length - 1;
+        for (int slot = slot(name, mask); slots[slot] != 0; slot = (slot + 1) & mask){
+            int city = slots[slot] - 1;
+            if (names[city].equals(name)) return city;
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieve the name of a city
+     * @param city the city number
+     * @return the city name
+     * @throws IndexOutOfBoundsException if the number is not in the dictionary
+     */
+    public String name(int city){
+        if (city < 0 || city >= size) throw new IndexOutOfBoundsException("No city number " + city);
+        return names[city];
+    }
+
+    /**
+     * Retrieve the number of cities
+     * @return the number of cities, which is also the next city number
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * A method to number a city if it is new
+     * @param name the city name
+     * @return the number of the city, size() - 1 if it was just added
+     */
+    int add(String name){
+        int mask = slots.length - 1;
+        int slot = slot(name, mask);
+        while (slots[slot] != 0){
+            int city = slots[slot] - 1;
+            if (names[city].equals(name)) return city;
+            slot = (slot + 1) & mask;
+        }
+        if (size == names.length) names = Arrays.copyOf(names, size * 2);
+        names[size] = name;
+        slots[slot] = ++size;
+        // Keep the table at most half full so probes stay short
+        if (size * 2 > slots.length) grow();
+        return size - 1;
+    }
+
+    /**
+     * A helper method to double the table and place every city again
+     */
+    private void grow(){
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int city = 0; city < size; city++){
+            int slot = slot(names[city], mask);
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = city + 1;
+        }
+    }
+
+    /**
+     * A helper method to find the first slot of a name. The hash is mixed so names with close hashes spread out.
+     * @param name the city name
+     * @param mask the size of the table minus one
+     * @return the first slot to probe
+     */
+    private static int slot(String name, int mask){
+        int hash = name.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,89 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A JUnit class to test the city dictionary and the int methods of the airport system
+ */
+public class CityDictionaryTest {
+
+    @org.junit.Test
+    public void denseNumbers() {
+        CityDictionary dictionary = new CityDictionary();
+
+        // Case 1: Cities are numbered in insertion order and a repeated name keeps its number
+        assertEquals(0, dictionary.add("CLE"));
+        assertEquals(1, dictionary.add("JFK"));
+        assertEquals(0, dictionary.add(new String("CLE")));
+        assertEquals(2, dictionary.size());
+        assertEquals("JFK", dictionary.name(1));
+        assertEquals(-1, dictionary.id("LAX"));
+
+        // Case 2: The table keeps every city while it grows
+        for (int city = 0; city < 10000; city++) {
+            dictionary.add("C" + city);
+        }
+        for (int city = 0; city < 10000; city++) {
+            assertEquals(city + 2, dictionary.id("C" + city));
+        }
+
+        // Case 3: A number outside the dictionary is refused
+        try {
+            dictionary.name(10002);
+            fail("The number should be refused");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @org.junit.Test
+    public void intMethods() {
+        AirportSystem airportSystem = new AirportSystem();
+        int one = airportSystem.addCity("1");
+        int two = airportSystem.addCity("2");
+        int three = airportSystem.addCity("3");
+        int four = airportSystem.addCity("4");
+        int five = airportSystem.addCity("5");
+
+        // Case 1: Routes added by number behave like routes added by name
+        assertTrue(airportSystem.addEdge(one, five, 4));
+        assertTrue(airportSystem.addEdge(one, four, 1));
+        assertTrue(airportSystem.addEdge(one, two, 2));
+        assertTrue(airportSystem.addEdge(four, five, 9));
+        assertTrue(airportSystem.addEdge(two, four, 3));
+        assertFalse(airportSystem.addEdge(four, two, 8));
+        assertFalse(airportSystem.addEdge("2", "4", 8));
+        assertFalse(airportSystem.addEdge(two, three, -1));
+        assertEquals(one, airportSystem.getCityDictionary().id("1"));
+
+        // Case 2: The int queries give the same answers as the String queries
+        assertEquals(airportSystem.shortestDistance("2", "5"), airportSystem.shortestDistance(two, five));
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance(one, three));
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance(one, -1));
+        int[] visited = airportSystem.breadthFirstSearch(one);
+        List<String> names = airportSystem.breadthFirstSearch("1");
+        assertEquals(names.size(), visited.length);
+        for (int index = 0; index < visited.length; index++) {
+            assertEquals(names.get(index), airportSystem.cityName(visited[index]));
+        }
+        assertEquals(0, airportSystem.breadthFirstSearch(-1).length);
+        assertArrayEquals(new int[]{three}, airportSystem.breadthFirstSearch(three));
+        int[] forest = airportSystem.minimumSpanningTreeIds();
+        assertEquals("[[2, 1], [1, 4], [1, 5]]", airportSystem.minimumSpanningTree().toString());
+        assertArrayEquals(new int[]{two, one, 2, one, four, 1, one, five, 4}, forest);
+
+        // Case 3: Numbers that are not cities are refused
+        try {
+            airportSystem.addEdge(one, 5, 1);
+            fail("The number should be refused");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            airportSystem.shortestDistance(-2, one);
+            fail("The number should be refused");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5"), Arrays.asList(airportSystem.cityName(0), airportSystem.cityName(1),
+                airportSystem.cityName(2), airportSystem.cityName(3), airportSystem.cityName(4)));
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe airport system for many query threads and a few writers.
+ * Writers take a lock, change a private airport system and publish an immutable snapshot of it. Readers only read
+ * the latest published snapshot, so queries never take a lock and never see a half-applied update.
+ * @author Quan Tran
+ */
+public class ConcurrentAirportSystem {
+    /** The airport system that writers change, only used while holding the lock of this object */
+    private final AirportSystem graph = new AirportSystem();
+    /** The latest published snapshot */
+    private volatile RouteSnapshot current = graph.snapshot();
+
+    /**
+     * A method to add a route and publish the new graph
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the distance between two city
+     * @return true if the connection is established successfully
+     */
+    public synchronized boolean addEdge(String source, String destination, int weight){
+        boolean added = graph.addEdge(source, destination, weight);
+        if (added) current = graph.snapshot();
+        return added;
+    }
+
+    /**
+     * A method to cancel a route and publish the new graph
+     * @param source the starting city
+     * @param destination the final city
+     * @return true if the route existed and was removed
+     */
+    public synchronized boolean removeEdge(String source, String destination){
+        boolean removed = graph.removeEdge(source, destination);
+        if (removed) current = graph.snapshot();
+        return removed;
+    }
+
+    /**
+     * A method to apply several changes at once and publish a single snapshot, which is much cheaper than
+     * publishing after every route
+     * @param updates the changes to apply to the airport system
+     */
+    public synchronized void update(Consumer<AirportSystem> updates){
+        try {
+            updates.accept(graph);
+        } finally {
+            current = graph.snapshot();
+        }
+    }
+
+    /**
+     * Retrieve the latest published snapshot. Several queries on the same snapshot see the same graph.
+     * @return the snapshot
+     */
+    public RouteSnapshot snapshot(){
+        return current;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities on the latest snapshot
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     */
+    public int shortestDistance(String cityA, String cityB){
+        return current.shortestDistance(cityA, cityB);
+    }
+
+    /**
+     * A method to find the shortest distance of many pairs of cities at once on the latest snapshot, one search per
+     * origin with the origins running concurrently on the executor
+     * @param origins the source city of each pair
+     * @param destinations the destination city of each pair, in the same order
+     * @param executor the executor that runs the searches
+     * @param maxConcurrentGroups the largest number of searches submitted to the executor at a time
+     * @return the distance of each pair in input order, Integer.MAX_VALUE if there is no route between them
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the results
+     */
+    public int[] shortestDistances(List<String> origins, List<String> destinations, java.util.concurrent.Executor executor,
+                                   int maxConcurrentGroups) throws InterruptedException {
+        return BatchDistanceQuery.run(current, origins, destinations, executor, maxConcurrentGroups, null);
+    }
+
+    /**
+     * A method that traverse through the latest snapshot using BFS style
+     * @param start the original start city
+     * @return the BFS traversal starting from the input city, or an empty list if the city is not in the graph
+     */
+    public List<String> breadthFirstSearch(String start){
+        return current.breadthFirstSearch(start);
+    }
+
+    /**
+     * A method to create a minimum spanning forest of the latest snapshot
+     * @return a list that contains the edges of the forest
+     */
+    public List<AirportSystem.Edges> minimumSpanningTree(){
+        return current.minimumSpanningTree();
+    }
+}
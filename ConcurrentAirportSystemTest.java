@@ -0,0 +1,81 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the concurrent airport system
+ */
+public class ConcurrentAirportSystemTest {
+
+    @org.junit.Test
+    public void snapshotsAreIsolated() {
+        ConcurrentAirportSystem airportSystem = new ConcurrentAirportSystem();
+        airportSystem.addEdge("1", "2", 5);
+        RouteSnapshot before = airportSystem.snapshot();
+
+        // Case 1: A snapshot does not see later routes
+        airportSystem.update(graph -> {
+            graph.addEdge("2", "3", 1);
+            graph.addEdge("1", "3", 1);
+        });
+        assertEquals(5, before.shortestDistance("1", "2"));
+        assertEquals("[1, 2]", before.breadthFirstSearch("1").toString());
+        assertEquals(2, airportSystem.shortestDistance("1", "2"));
+        assertEquals("[1, 2, 3]", airportSystem.breadthFirstSearch("1").toString());
+        assertTrue(airportSystem.snapshot().getVersion() > before.getVersion());
+
+        // Case 2: A rejected route does not publish a new snapshot
+        RouteSnapshot latest = airportSystem.snapshot();
+        assertFalse(airportSystem.addEdge("1", "2", 7));
+        assertSame(latest, airportSystem.snapshot());
+    }
+
+    @org.junit.Test
+    public void readersDuringWrites() throws InterruptedException {
+        ConcurrentAirportSystem airportSystem = new ConcurrentAirportSystem();
+        airportSystem.addEdge("0", "1", 1);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[4];
+        // The writer waits for every reader to start, and each reader checks at least one snapshot
+        CountDownLatch started = new CountDownLatch(readers.length);
+        AtomicBoolean written = new AtomicBoolean();
+        AtomicInteger checked = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                failure.set("The writer was interrupted");
+                return;
+            }
+            // Grow a chain of cities one route at a time
+            for (int city = 2; city <= 300; city++) {
+                airportSystem.addEdge(String.valueOf(city - 1), String.valueOf(city), 1);
+            }
+            written.set(true);
+        });
+        for (int index = 0; index < readers.length; index++) {
+            readers[index] = new Thread(() -> {
+                started.countDown();
+                do {
+                    // Every snapshot is a complete chain, so its last city is one unit of distance per route away
+                    RouteSnapshot snapshot = airportSystem.snapshot();
+                    int last = snapshot.cityCount() - 1;
+                    int distance = snapshot.shortestDistance("0", String.valueOf(last));
+                    int visited = snapshot.breadthFirstSearch("0").size();
+                    if (distance != last || visited != snapshot.cityCount()) failure.set("Inconsistent snapshot at " + last);
+                    checked.incrementAndGet();
+                } while (!written.get());
+            });
+        }
+        writer.start();
+        for (Thread reader : readers) reader.start();
+        writer.join();
+        for (Thread reader : readers) reader.join();
+        assertTrue(checked.get() >= readers.length);
+        assertNull(failure.get());
+        assertEquals(300, airportSystem.shortestDistance("0", "300"));
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * The Connection Scan Algorithm over a timetable. Every flight is one connection in a single int array sorted by
+ * departure time, four ints per connection, so a query is one forward (earliest arrival) or backward (profile)
+ * pass over consecutive memory with no priority queue. The engine keeps its per-query arrays between queries and
+ * uses query stamps so nothing has to be cleared.
+ * @author Quan Tran
+ * @references Dibbelt, Pajor, Strasser and Wagner, Connection Scan Algorithm
+ */
+class ConnectionScan {
+    /** The departure time, arrival time, departure city and arrival city of each connection, sorted by departure */
+    private final int[] connections;
+    /** The number of connections */
+    private final int count;
+    /** The minimum connection time of each city */
+    private final int[] connectionTimes;
+    /** The earliest arrival time at each city. Only valid if arrivalStamp matches the current query */
+    private final int[] arrival;
+    /** The query number in which each city was last reached */
+    private final int[] arrivalStamp;
+    /** The connection that gave each city its earliest arrival */
+    private final int[] reachedBy;
+    /** The number of the current query */
+    private int stamp;
+
+    /**
+     * Initialize the engine by sorting the flights of a timetable
+     * @param flights the departure city, arrival city, departure time and arrival time of each flight
+     * @param flightCount the number of flights
+     * @param connectionTimes the minimum connection time of each city, one entry per city
+     */
+    ConnectionScan(int[] flights, int flightCount, int[] connectionTimes){
+        this.count = flightCount;
+        this.connectionTimes = connectionTimes;
+        int cityCount = connectionTimes.length;
+        // Sort by departure with one primitive sort. Every flight lands after it leaves, so a flight can never
+        // feed another flight with the same departure time and their order does not matter.
+        long[] order = new long[flightCount];
+        for (int flight = 0; flight < flightCount; flight++){
+            order[flight] = ((long) flights[4 * flight + 2] << 32) | flight;
+        }
+        Arrays.sort(order);
+        connections = new int[4 * flightCount];
+        for (int position = 0; position < flightCount; position++){
+            int flight = (int) order[position];
+            connections[4 * position] = flights[4 * flight + 2];
+            connections[4 * position + 1] = flights[4 * flight + 3];
+            connections[4 * position + 2] = flights[4 * flight];
+            connections[4 * position + 3] = flights[4 * flight + 1];
+        }
+        arrival = new int[cityCount];
+        arrivalStamp = new int[cityCount];
+        reachedBy = new int[cityCount];
+    }
+
+    /**
+     * Retrieve the number of cities the engine was built for
+     * @return the number of cities
+     */
+    int cityCount(){
+        return arrival.length;
+    }
+
+    /**
+     * Find the earliest arrival at a city when leaving another city at a time or later. One pass over the
+     * connections from the first departure at that time, stopping once no connection can arrive earlier.
+     * @param source the source city number
+     * @param target the target city number
+     * @param departure the earliest departure time
+     * @return the earliest arrival time, or Timetable.UNREACHABLE
+     */
+    int earliestArrival(int source, int target, int departure){
+        if (++stamp == Integer.MAX_VALUE){
+            Arrays.fill(arrivalStamp, 0);
+            stamp = 1;
+        }
+        arrivalStamp[source] = stamp;
+        arrival[source] = departure;
+        reachedBy[source] = -1;
+        if (source == target) return departure;
+        for (int connection = firstDeparture(departure); connection < count; connection++){
+            int position = 4 * connection;
+            // Connections are sorted by departure, so none of the rest can arrive before the best arrival
+            if (arrivalStamp[target] == stamp && connections[position] >= arrival[target]) break;
+            int from = connections[position + 2];
+            if (arrivalStamp[from] != stamp) continue;
+            // Changing flights takes the minimum connection time, except at the source where the traveler waits
+            int readyTime = from == source ? arrival[from] : arrival[from] + connectionTimes[from];
+            if (connections[position] < readyTime) continue;
+            int to = connections[position + 3];
+            if (arrivalStamp[to] != stamp || connections[position + 1] < arrival[to]){
+                arrivalStamp[to] = stamp;
+                arrival[to] = connections[position + 1];
+                reachedBy[to] = connection;
+            }
+        }
+        return arrivalStamp[target] == stamp ? arrival[target] : Timetable.UNREACHABLE;
+    }
+
+    /**
+     * Find every journey from a city to a target that no other journey beats on both departure and arrival.
+     * One backward pass keeps, for each city, the best arrival at the target for each departure time.
+     * @param source the source city number
+     * @param target the target city number, different from the source
+     * @return two ints per option, departure then arrival, from the latest departure to the earliest
+     */
+    int[] profile(int source, int target){
+        // The options of each city, two ints each, with departures and arrivals both decreasing along the list
+        int[][] options = new int[arrival.length][];
+        int[] sizes = new int[arrival.length];
+        for (int connection = count - 1; connection >= 0; connection--){
+            int position = 4 * connection;
+            int from = connections[position + 2];
+            int to = connections[position + 3];
+            if (from == target) continue;
+            // Either the flight lands at the target, or the traveler changes to the best later journey from its city
+            int best = to == target ? connections[position + 1]
+                                    : bestArrival(options[to], sizes[to], connections[position + 1] + connectionTimes[to]);
+            if (best == Timetable.UNREACHABLE) continue;
+            int size = sizes[from];
+            if (size > 0 && options[from][size - 1] <= best) continue;
+            // A departure at the same time as the last option replaces it, otherwise the option is added
+            if (size > 0 && options[from][size - 2] == connections[position]){
+                options[from][size - 1] = best;
+                continue;
+            }
+            if (options[from] == null) options[from] = new int[8];
+            else if (size == options[from].length) options[from] = Arrays.copyOf(options[from], size * 2);
+            options[from][size] = connections[position];
+            options[from][size + 1] = best;
+            sizes[from] = size + 2;
+        }
+        return options[source] == null ? new int[0] : Arrays.copyOf(options[source], sizes[source]);
+    }
+
+    /**
+     * Retrieve the connection that gave a city its earliest arrival in the last earliestArrival() query
+     * @param city the city number
+     * @return the connection number, or -1 for the source
+     */
+    int reachedBy(int city){
+        return reachedBy[city];
+    }
+
+    /**
+     * Retrieve the departure city of a connection
+     * @param connection the connection number
+     * @return the city number
+     */
+    int source(int connection){
+        return connections[4 * connection + 2];
+    }
+
+    /**
+     * Retrieve the departure time of a connection
+     * @param connection the connection number
+     * @return the departure time
+     */
+    int departure(int connection){
+        return connections[4 * connection];
+    }
+
+    /**
+     * Retrieve the arrival time of a connection
+     * @param connection the connection number
+     * @return the arrival time
+     */
+    int arrival(int connection){
+        return connections[4 * connection + 1];
+    }
+
+    /**
+     * A helper method for profile() to find the earliest arrival at the target when leaving a city at a time or later
+     * @param options the options of the city, departures and arrivals both decreasing
+     * @param size the number of ints used in the options
+     * @param time the earliest departure time
+     * @return the arrival of the latest option that still leaves at the time or later, or Timetable.UNREACHABLE
+     */
+    private static int bestArrival(int[] options, int size, int time){
+        if (options == null || options[0] < time) return Timetable.UNREACHABLE;
+        // Find the last option whose departure is not before the time
+        int low = 0;
+        int high = size / 2 - 1;
+        while (low < high){
+            int middle = (low + high + 1) >>> 1;
+            if (options[2 * middle] >= time) low = middle;
+            else high = middle - 1;
+        }
+        return options[2 * low + 1];
+    }
+
+    /**
+     * A helper method to find the first connection that leaves at a time or later
+     * @param time the time
+     * @return the connection number, or the number of connections if none leaves that late
+     */
+    private int firstDeparture(int time){
+        int low = 0;
+        int high = count;
+        while (low < high){
+            int middle = (low + high) >>> 1;
+            if (connections[4 * middle] < time) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,534 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A contraction hierarchy of the airport system for very fast shortest distance queries.
+ * Preprocessing removes (contracts) the cities one by one, least important first, and adds a shortcut between two
+ * neighbors of the removed city whenever the only shortest route between them went through it. A query then runs a
+ * bidirectional Dijkstra search that only follows connections towards more important cities, which settles a few
+ * hundred cities even on very large graphs. Shortcuts remember the city they skip, so routes can be unpacked back
+ * into the original connections.
+ * The hierarchy describes the graph at the time it was built and must be rebuilt after routes are added.
+ * @author Quan Tran
+ * @references Geisberger, Sanders, Schultes and Delling, Contraction Hierarchies: Faster and Simpler Hierarchical Routing in Road Networks
+ */
+public class ContractionHierarchy {
+    /** The largest number of cities settled by one witness search before a shortcut is added anyway */
+    private static final int WITNESS_SETTLE_LIMIT = 200;
+
+    /** The graph the hierarchy was built from */
+    private final RouteGraph graph;
+    /** The number of cities */
+    private final int cityCount;
+    /** The position of each city in the contraction order, more important cities have a higher rank */
+    private final int[] rank;
+    /** Where the upward connections of each city start inside the arrays below */
+    private int[] upOffsets;
+    /** The destination of each upward connection */
+    private int[] upTargets;
+    /** The distance of each upward connection */
+    private long[] upWeights;
+    /** The city skipped by each upward connection, or -1 for an original connection */
+    private int[] upMiddles;
+    /** The number of shortcuts added by the preprocessing */
+    private int shortcutCount;
+    /** The time the preprocessing took in nanoseconds */
+    private long preprocessingNanos;
+
+    /** The query state of the forward (0) and backward (1) searches */
+    private final DistanceHeap[] queues = new DistanceHeap[2];
+    /** The tentative distance of each city in each search */
+    private final long[][] distance = new long[2][];
+    /** The previous city on the route to each city in each search */
+    private final int[][] parent = new int[2][];
+    /** The upward connection used to reach each city in each search */
+    private final int[][] parentConnection = new int[2][];
+    /** The query number in which each city was last reached by each search */
+    private final int[][] reachedStamp = new int[2][];
+    /** The number of the current query */
+    private int stamp;
+    /** The city where the two searches of the last query met, or -1 if there is no route */
+    private int meetingCity = -1;
+    /** The number of cities settled by the last query */
+    private int settledCount;
+    /** The time the last query took in nanoseconds */
+    private long lastQueryNanos;
+
+    /**
+     * Initialize an empty hierarchy, build() fills it
+     * @param graph the graph
+     */
+    private ContractionHierarchy(RouteGraph graph){
+        this.graph = graph;
+        this.cityCount = graph.cityCount();
+        this.rank = new int[cityCount];
+        for (int side = 0; side < 2; side++){
+            queues[side] = new DistanceHeap(cityCount);
+            distance[side] = new long[cityCount];
+            parent[side] = new int[cityCount];
+            parentConnection[side] = new int[cityCount];
+            reachedStamp[side] = new int[cityCount];
+        }
+    }
+
+    /**
+     * A method to preprocess a graph into a contraction hierarchy
+     * @param graph the graph, which must not be modified during the preprocessing
+     * @return the hierarchy
+     */
+    static ContractionHierarchy build(RouteGraph graph){
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph);
+        new Contraction(graph).run(hierarchy);
+        hierarchy.preprocessingNanos = System.nanoTime() - start;
+        return hierarchy;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     */
+    public int shortestDistance(String cityA, String cityB){
+        int source = graph.cityId(cityA);
+        int destination = graph.cityId(cityB);
+        if (source < 0 || destination < 0 || source >= cityCount || destination >= cityCount){
+            settledCount = 0;
+            meetingCity = -1;
+            return Integer.MAX_VALUE;
+        }
+        return DijkstraSearch.toIntDistance(search(source, destination));
+    }
+
+    /**
+     * A method to find the shortest route between two cities as a list of the original connections
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the connections from cityA to cityB in order, an empty list if the cities are the same, or null if there is no route
+     */
+    public List<AirportSystem.Edges> shortestRoute(String cityA, String cityB){
+        int source = graph.cityId(cityA);
+        int destination = graph.cityId(cityB);
+        if (source < 0 || destination < 0 || source >= cityCount || destination >= cityCount) return null;
+        search(source, destination);
+        if (meetingCity < 0) return null;
+        // Collect the forward part from the meeting city back to the source
+        List<Integer> forward = new ArrayList<>();
+        for (int city = meetingCity; parent[0][city] >= 0; city = parent[0][city]){
+            forward.add(city);
+        }
+        List<AirportSystem.Edges> route = new ArrayList<>();
+        // Unpack the forward part from the source, going up the hierarchy
+        for (int index = forward.size() - 1; index >= 0; index--){
+            int city = forward.get(index);
+            unpack(parent[0][city], parentConnection[0][city], city, route, true);
+        }
+        // Unpack the backward part from the meeting city to the target, going down the hierarchy
+        for (int city = meetingCity; parent[1][city] >= 0; city = parent[1][city]){
+            unpack(parent[1][city], parentConnection[1][city], city, route, false);
+        }
+        return route;
+    }
+
+    /**
+     * Retrieve the number of shortcuts added by the preprocessing
+     * @return the number of shortcuts
+     */
+    public int getShortcutCount(){
+        return shortcutCount;
+    }
+
+    /**
+     * Retrieve the number of upward connections, each original connection and each shortcut being stored once
+     * @return the number of upward connections
+     */
+    int getUpwardConnectionCount(){
+        return upOffsets[upOffsets.length - 1];
+    }
+
+    /**
+     * Retrieve the time the preprocessing took
+     * @return the preprocessing time in nanoseconds
+     */
+    public long getPreprocessingNanos(){
+        return preprocessingNanos;
+    }
+
+    /**
+     * Retrieve the time the last query took
+     * @return the query time in nanoseconds
+     */
+    public long getLastQueryNanos(){
+        return lastQueryNanos;
+    }
+
+    /**
+     * Retrieve the number of cities settled by the last query, counting both searches
+     * @return the number of settled cities
+     */
+    public int getSettledCount(){
+        return settledCount;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities by number with the upward bidirectional search
+     * @param source the source city number
+     * @param destination the destination city number
+     * @return the shortest distance, or DijkstraSearch.UNREACHABLE if there is no route
+     */
+    long search(int source, int destination){
+        long start = System.nanoTime();
+        startQuery();
+        reach(0, source, 0, -1, -1);
+        reach(1, destination, 0, -1, -1);
+        long best = DijkstraSearch.UNREACHABLE;
+        meetingCity = -1;
+        // Unlike a plain bidirectional search, each side runs until its queue cannot improve the best route
+        while (!queues[0].isEmpty() || !queues[1].isEmpty()){
+            int side;
+            if (queues[1].isEmpty()) side = 0;
+            else if (queues[0].isEmpty()) side = 1;
+            else side = queues[0].peekKey() <= queues[1].peekKey() ? 0 : 1;
+            if (queues[side].peekKey() >= best){
+                queues[side].clear();
+                continue;
+            }
+            int city = queues[side].poll();
+            settledCount++;
+            long cityDistance = distance[side][city];
+            // The best route may go up to this city from both ends
+            if (reachedStamp[1 - side][city] == stamp && cityDistance + distance[1 - side][city] < best){
+                best = cityDistance + distance[1 - side][city];
+                meetingCity = city;
+            }
+            // Only follow connections towards more important cities
+            for (int connection = upOffsets[city]; connection < upOffsets[city + 1]; connection++){
+                reach(side, upTargets[connection], cityDistance + upWeights[connection], city, connection);
+            }
+        }
+        lastQueryNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * A helper method to record a new tentative distance of a city in one of the searches
+     * @param side 0 for the forward search, 1 for the backward search
+     * @param city the city number
+     * @param cityDistance the tentative distance
+     * @param from the previous city, or -1 for the start
+     * @param connection the upward connection used, or -1 for the start
+     */
+    private void reach(int side, int city, long cityDistance, int from, int connection){
+        if (reachedStamp[side][city] == stamp && cityDistance >= distance[side][city]) return;
+        reachedStamp[side][city] = stamp;
+        distance[side][city] = cityDistance;
+        parent[side][city] = from;
+        parentConnection[side][city] = connection;
+        queues[side].insertOrDecrease(city, cityDistance);
+    }
+
+    /**
+     * A helper method to reset the per-query state
+     */
+    private void startQuery(){
+        settledCount = 0;
+        queues[0].clear();
+        queues[1].clear();
+        if (++stamp == Integer.MAX_VALUE){
+            Arrays.fill(reachedStamp[0], 0);
+            Arrays.fill(reachedStamp[1], 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * A helper method to expand an upward connection into original connections and append them to a route
+     * @param lower the less important city of the connection
+     * @param connection the upward connection number
+     * @param upper the more important city of the connection
+     * @param route the route being built
+     * @param upward true to append the connections from lower to upper, false from upper to lower
+     */
+    private void unpack(int lower, int connection, int upper, List<AirportSystem.Edges> route, boolean upward){
+        int middle = upMiddles[connection];
+        // An original connection is added as it is
+        if (middle < 0){
+            int weight = (int) upWeights[connection];
+            if (upward) route.add(new AirportSystem.Edges(graph.cityName(lower), graph.cityName(upper), weight));
+            else route.add(new AirportSystem.Edges(graph.cityName(upper), graph.cityName(lower), weight));
+            return;
+        }
+        // A shortcut is split at the skipped city, which is less important than both ends
+        int lowerHalf = findUpConnection(middle, lower);
+        int upperHalf = findUpConnection(middle, upper);
+        if (upward){
+            unpack(middle, lowerHalf, lower, route, false);
+            unpack(middle, upperHalf, upper, route, true);
+        }
+        else {
+            unpack(middle, upperHalf, upper, route, false);
+            unpack(middle, lowerHalf, lower, route, true);
+        }
+    }
+
+    /**
+     * A helper method to find the upward connection between a city and a more important city
+     * @param city the less important city number
+     * @param target the more important city number
+     * @return the upward connection number
+     */
+    private int findUpConnection(int city, int target){
+        for (int connection = upOffsets[city]; connection < upOffsets[city + 1]; connection++){
+            if (upTargets[connection] == target) return connection;
+        }
+        throw new IllegalStateException("Missing connection between " + graph.cityName(city) + " and " + graph.cityName(target));
+    }
+
+    /**
+     * The preprocessing state: a copy of the graph that shrinks as cities are contracted and grows with shortcuts.
+     */
+    private static class Contraction {
+        /** The destinations of the connections of each city, including shortcuts and contracted cities */
+        private int[][] targets;
+        /** The distances of the connections of each city */
+        private long[][] weights;
+        /** The city skipped by each connection, or -1 for an original connection */
+        private int[][] middles;
+        /** The number of connections of each city */
+        private int[] sizes;
+        /** True for the cities that have been contracted */
+        private boolean[] contracted;
+        /** The number of contracted neighbors of each city, which spreads the contraction evenly */
+        private int[] contractedNeighbors;
+        /** The cities waiting in the witness search */
+        private final DistanceHeap witnessQueue;
+        /** The tentative distance of each city in the witness search */
+        private final long[] witnessDistance;
+        /** The witness search number in which each city was last reached */
+        private final int[] witnessStamp;
+        /** The number of the current witness search */
+        private int stamp;
+
+        /**
+         * Initialize the preprocessing state from a graph
+         * @param graph the graph
+         */
+        Contraction(RouteGraph graph){
+            int cityCount = graph.cityCount();
+            targets = new int[cityCount][];
+            weights = new long[cityCount][];
+            middles = new int[cityCount][];
+            sizes = new int[cityCount];
+            contracted = new boolean[cityCount];
+            contractedNeighbors = new int[cityCount];
+            for (int city = 0; city < cityCount; city++){
+                int degree = graph.degree(city);
+                targets[city] = new int[Math.max(degree, 2)];
+                weights[city] = new long[targets[city].length];
+                middles[city] = new int[targets[city].length];
+                for (int connection = 0; connection < degree; connection++){
+                    int neighbor = graph.neighbor(city, connection);
+                    // Self loops are never part of a shortest route
+                    if (neighbor != city) addOrLower(city, neighbor, graph.distance(city, connection), -1);
+                }
+            }
+            witnessQueue = new DistanceHeap(Math.max(cityCount, 1));
+            witnessDistance = new long[Math.max(cityCount, 1)];
+            witnessStamp = new int[Math.max(cityCount, 1)];
+        }
+
+        /**
+         * Contract every city and store the resulting upward graph in the hierarchy
+         * @param hierarchy the hierarchy to fill
+         */
+        void run(ContractionHierarchy hierarchy){
+            int cityCount = sizes.length;
+            // STEP 1: Order the cities by their initial importance
+            DistanceHeap order = new DistanceHeap(Math.max(cityCount, 1));
+            for (int city = 0; city < cityCount; city++){
+                order.insertOrUpdate(city, priority(city));
+            }
+            List<int[]> upTargets = new ArrayList<>(cityCount);
+            List<long[]> upWeights = new ArrayList<>(cityCount);
+            List<int[]> upMiddles = new ArrayList<>(cityCount);
+            for (int city = 0; city < cityCount; city++){
+                upTargets.add(null);
+                upWeights.add(null);
+                upMiddles.add(null);
+            }
+            int upCount = 0;
+            // STEP 2: Contract the least important city, updating priorities lazily
+            for (int nextRank = 0; nextRank < cityCount; nextRank++){
+                int city = order.poll();
+                long updated = priority(city);
+                if (!order.isEmpty() && updated > order.peekKey()){
+                    order.insertOrUpdate(city, updated);
+                    nextRank--;
+                    continue;
+                }
+                hierarchy.rank[city] = nextRank;
+                // The remaining connections of the city all go up in the hierarchy
+                int remaining = 0;
+                for (int connection = 0; connection < sizes[city]; connection++){
+                    if (!contracted[targets[city][connection]]) remaining++;
+                }
+                int[] cityTargets = new int[remaining];
+                long[] cityWeights = new long[remaining];
+                int[] cityMiddles = new int[remaining];
+                remaining = 0;
+                for (int connection = 0; connection < sizes[city]; connection++){
+                    if (contracted[targets[city][connection]]) continue;
+                    cityTargets[remaining] = targets[city][connection];
+                    cityWeights[remaining] = weights[city][connection];
+                    cityMiddles[remaining] = middles[city][connection];
+                    remaining++;
+                }
+                upTargets.set(city, cityTargets);
+                upWeights.set(city, cityWeights);
+                upMiddles.set(city, cityMiddles);
+                upCount += remaining;
+                hierarchy.shortcutCount += contract(city, false);
+                contracted[city] = true;
+                // The neighbors lost a connection, so their importance changes
+                for (int index = 0; index < cityTargets.length; index++){
+                    contractedNeighbors[cityTargets[index]]++;
+                    order.insertOrUpdate(cityTargets[index], priority(cityTargets[index]));
+                }
+                // Free the connections of the contracted city
+                targets[city] = null;
+                weights[city] = null;
+                middles[city] = null;
+            }
+            // STEP 3: Pack the upward connections into arrays
+            hierarchy.upOffsets = new int[cityCount + 1];
+            hierarchy.upTargets = new int[upCount];
+            hierarchy.upWeights = new long[upCount];
+            hierarchy.upMiddles = new int[upCount];
+            int position = 0;
+            for (int city = 0; city < cityCount; city++){
+                hierarchy.upOffsets[city] = position;
+                int[] cityTargets = upTargets.get(city);
+                System.arraycopy(cityTargets, 0, hierarchy.upTargets, position, cityTargets.length);
+                System.arraycopy(upWeights.get(city), 0, hierarchy.upWeights, position, cityTargets.length);
+                System.arraycopy(upMiddles.get(city), 0, hierarchy.upMiddles, position, cityTargets.length);
+                position += cityTargets.length;
+            }
+            hierarchy.upOffsets[cityCount] = position;
+        }
+
+        /**
+         * A helper method to compute the importance of a city: the shortcuts its contraction would add minus the
+         * connections it would remove, plus its contracted neighbors
+         * @param city the city number
+         * @return the priority, lower is contracted first
+         */
+        private long priority(int city){
+            int degree = 0;
+            for (int connection = 0; connection < sizes[city]; connection++){
+                if (!contracted[targets[city][connection]]) degree++;
+            }
+            return contract(city, true) - degree + contractedNeighbors[city];
+        }
+
+        /**
+         * A helper method to add the shortcuts needed to contract a city, or only count them
+         * @param city the city number
+         * @param simulate true to only count the shortcuts
+         * @return the number of shortcuts needed when simulating, otherwise the number of new connections added
+         */
+        private int contract(int city, boolean simulate){
+            int shortcuts = 0;
+            int size = sizes[city];
+            // Find the longest connection, which bounds the witness searches
+            long longest = 0;
+            for (int connection = 0; connection < size; connection++){
+                if (!contracted[targets[city][connection]]) longest = Math.max(longest, weights[city][connection]);
+            }
+            for (int first = 0; first < size; first++){
+                int from = targets[city][first];
+                if (contracted[from]) continue;
+                long toCity = weights[city][first];
+                witnessSearch(from, city, toCity + longest);
+                // Each pair is checked once, from the earlier connection
+                for (int second = first + 1; second < size; second++){
+                    int to = targets[city][second];
+                    if (contracted[to]) continue;
+                    long via = toCity + weights[city][second];
+                    if (witnessStamp[to] == stamp && witnessDistance[to] <= via) continue;
+                    if (simulate){
+                        shortcuts++;
+                        continue;
+                    }
+                    // A pair that is already connected only gets a shorter distance, not a new shortcut
+                    boolean added = addOrLower(from, to, via, city);
+                    addOrLower(to, from, via, city);
+                    if (added) shortcuts++;
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * A helper method to search the remaining graph around a city without going through the city being contracted
+         * @param source the start of the search
+         * @param skipped the city being contracted
+         * @param maxDistance the distance after which the search stops
+         */
+        private void witnessSearch(int source, int skipped, long maxDistance){
+            witnessQueue.clear();
+            stamp++;
+            witnessStamp[source] = stamp;
+            witnessDistance[source] = 0;
+            witnessQueue.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!witnessQueue.isEmpty() && settled < WITNESS_SETTLE_LIMIT){
+                if (witnessQueue.peekKey() > maxDistance) break;
+                int city = witnessQueue.poll();
+                settled++;
+                for (int connection = 0; connection < sizes[city]; connection++){
+                    int neighbor = targets[city][connection];
+                    if (neighbor == skipped || contracted[neighbor]) continue;
+                    long updated = witnessDistance[city] + weights[city][connection];
+                    if (witnessStamp[neighbor] != stamp || updated < witnessDistance[neighbor]){
+                        witnessStamp[neighbor] = stamp;
+                        witnessDistance[neighbor] = updated;
+                        witnessQueue.insertOrDecrease(neighbor, updated);
+                    }
+                }
+            }
+        }
+
+        /**
+         * A helper method to add a connection, or lower the distance of an existing one between the same cities
+         * @param city the start city
+         * @param target the destination city
+         * @param weight the distance
+         * @param middle the skipped city, or -1 for an original connection
+         * @return true if a new connection was added, false if one already joined the cities
+         */
+        private boolean addOrLower(int city, int target, long weight, int middle){
+            for (int connection = 0; connection < sizes[city]; connection++){
+                if (targets[city][connection] == target){
+                    if (weight < weights[city][connection]){
+                        weights[city][connection] = weight;
+                        middles[city][connection] = middle;
+                    }
+                    return false;
+                }
+            }
+            if (sizes[city] == targets[city].length){
+                int newLength = targets[city].length * 2;
+                targets[city] = Arrays.copyOf(targets[city], newLength);
+                weights[city] = Arrays.copyOf(weights[city], newLength);
+                middles[city] = Arrays.copyOf(middles[city], newLength);
+            }
+            targets[city][sizes[city]] = target;
+            weights[city][sizes[city]] = weight;
+            middles[city][sizes[city]] = middle;
+            sizes[city]++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the contraction hierarchy
+ */
+public class ContractionHierarchyTest {
+
+    @org.junit.Test
+    public void matchesDijkstra() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(150, 350, 13);
+        airportSystem.addEdge("x", "y", 2);
+        airportSystem.addEdge("y", "y", 0);
+        ContractionHierarchy hierarchy = airportSystem.contractionHierarchy();
+        assertTrue(hierarchy.getPreprocessingNanos() > 0);
+
+        // Case 1: Every pair gives the same distance as Dijkstra
+        for (int source = 0; source < airportSystem.cityCount(); source++) {
+            for (int target = 0; target < airportSystem.cityCount(); target++) {
+                String cityA = airportSystem.cityName(source);
+                String cityB = airportSystem.cityName(target);
+                assertEquals(airportSystem.shortestDistance(cityA, cityB), hierarchy.shortestDistance(cityA, cityB));
+            }
+        }
+
+        // Case 2: Unknown cities
+        assertEquals(Integer.MAX_VALUE, hierarchy.shortestDistance("x", "z"));
+        assertNull(hierarchy.shortestRoute("x", "0"));
+    }
+
+    @org.junit.Test
+    public void unpacksRoutes() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(100, 150, 17);
+        ContractionHierarchy hierarchy = airportSystem.contractionHierarchy();
+        assertTrue(hierarchy.getShortcutCount() > 0);
+
+        // Case 1: Each unpacked route is a chain of original connections with the shortest total distance
+        for (int target = 0; target < airportSystem.cityCount(); target++) {
+            String cityB = airportSystem.cityName(target);
+            List<AirportSystem.Edges> route = hierarchy.shortestRoute("0", cityB);
+            String current = "0";
+            int total = 0;
+            for (AirportSystem.Edges edge : route) {
+                String[] ends = edge.toString().substring(1, edge.toString().length() - 1).split(", ");
+                assertEquals(current, ends[0]);
+                total += edgeDistance(airportSystem, ends[0], ends[1]);
+                current = ends[1];
+            }
+            assertEquals(cityB, current);
+            assertEquals(airportSystem.shortestDistance("0", cityB), total);
+        }
+
+        // Case 2: The route from a city to itself is empty
+        assertTrue(hierarchy.shortestRoute("5", "5").isEmpty());
+    }
+
+    /**
+     * A helper method to find the distance of an original connection
+     * @param graph the graph
+     * @param cityA the first city
+     * @param cityB the second city
+     * @return the distance of the connection
+     */
+    private static int edgeDistance(RouteGraph graph, String cityA, String cityB) {
+        int city = graph.cityId(cityA);
+        for (int connection = 0; connection < graph.degree(city); connection++) {
+            if (graph.cityName(graph.neighbor(city, connection)).equals(cityB)) return graph.distance(city, connection);
+        }
+        fail("No connection between " + cityA + " and " + cityB);
+        return -1;
+    }
+
+    @org.junit.Test
+    public void countsOnlyNewShortcuts() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(200, 500, 31);
+        ContractionHierarchy hierarchy = airportSystem.contractionHierarchy();
+        // Every pair of cities joined by a route, counted once
+        int pairs = 0;
+        for (int city = 0; city < airportSystem.cityCount(); city++) {
+            for (int connection = 0; connection < airportSystem.degree(city); connection++) {
+                if (airportSystem.neighbor(city, connection) > city) pairs++;
+            }
+        }
+
+        // Case 1: Each upward connection is a route or a shortcut, and shortcuts that lowered a route are not counted
+        assertTrue(hierarchy.getShortcutCount() > 0);
+        assertEquals(pairs + hierarchy.getShortcutCount(), hierarchy.getUpwardConnectionCount());
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.Arrays;
+
+/**
+ * A single-source shortest distance search using Dijkstra's algorithm with a binary heap.
+ * All traversal state lives inside this object, so the cities of the graph are never modified and
+ * one search object can be reused for many queries on the same graph.
+ * @author Quan Tran
+ * @references CSDS 233 Lecture 23 Dijkstra's algorithm pseudocode
+ */
+class DijkstraSearch {
+    /** The distance of a city that cannot be reached from the source */
+    static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /** The graph being searched */
+    private final RouteGraph graph;
+    /** The cities waiting to be settled */
+    private final DistanceHeap queue;
+    /** The tentative distance of each city. Only valid if reachedStamp matches the current query */
+    private long[] distance;
+    /** The query number in which each city was last reached */
+    private int[] reachedStamp;
+    /** The query number in which each city was last settled */
+    private int[] settledStamp;
+    /** The query number in which each city was last a target of runToTargets(), created on its first use */
+    private int[] targetStamp;
+    /** The number of the current query, so nothing has to be cleared between two queries */
+    private int stamp;
+    /** The source of the current query */
+    private int source = -1;
+    /** The number of cities settled by the current query */
+    private int settledCount;
+    /** The number of connections examined by the current query */
+    private long relaxedCount;
+    /** The largest number of cities in the queue during the current query */
+    private int queuePeak;
+
+    /**
+     * Initialize a search on a graph
+     * @param graph the graph to search
+     */
+    DijkstraSearch(RouteGraph graph){
+        this.graph = graph;
+        int cityCount = Math.max(graph.cityCount(), 1);
+        this.queue = new DistanceHeap(cityCount);
+        this.distance = new long[cityCount];
+        this.reachedStamp = new int[cityCount];
+        this.settledStamp = new int[cityCount];
+    }
+
+    /**
+     * Find the shortest distance from a source city. The search stops as soon as the target is settled,
+     * or settles every reachable city if there is no target.
+     * @param source the source city number
+     * @param target the destination city number, or -1 to build the whole distance tree
+     * @return the shortest distance to the target, or UNREACHABLE if there is no route (always UNREACHABLE without a target)
+     */
+    long run(int source, int target){
+        // STEP 1: INITIALIZATION
+        startQuery(source);
+        // STEP 2: Settle the closest city until the target is settled or no city is left
+        while (!queue.isEmpty()){
+            int city = queue.poll();
+            settledStamp[city] = stamp;
+            settledCount++;
+            // Early exit: the distance of a settled city never changes
+            if (city == target) return distance[city];
+            long cityDistance = distance[city];
+            int degree = graph.degree(city);
+            relaxedCount += degree;
+            // Relax the connections of the settled city
+            for (int connection = 0; connection < degree; connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (settledStamp[neighbor] == stamp) continue;
+                long updatedDistance = cityDistance + graph.distance(city, connection);
+                if (reachedStamp[neighbor] != stamp || updatedDistance < distance[neighbor]){
+                    reachedStamp[neighbor] = stamp;
+                    distance[neighbor] = updatedDistance;
+                    queue.insertOrDecrease(neighbor, updatedDistance);
+                }
+            }
+            if (queue.size() > queuePeak) queuePeak = queue.size();
+        }
+        // STEP 3: The target was never settled, so it cannot be reached
+        return UNREACHABLE;
+    }
+
+    /**
+     * Find the shortest distances from a source city to several targets. The search stops as soon as every target
+     * is settled, so the distances of all targets can then be read with distanceTo().
+     * @param source the source city number
+     * @param targets the array holding the target city numbers, which may repeat
+     * @param from the position of the first target inside the array
+     * @param to one past the position of the last target
+     */
+    void runToTargets(int source, int[] targets, int from, int to){
+        startQuery(source);
+        if (targetStamp == null || targetStamp.length < distance.length) targetStamp = new int[distance.length];
+        // Count each target once, the source is settled first so it counts like any other target
+        int remaining = 0;
+        for (int index = from; index < to; index++){
+            if (targetStamp[targets[index]] != stamp){
+                targetStamp[targets[index]] = stamp;
+                remaining++;
+            }
+        }
+        while (!queue.isEmpty()){
+            int city = queue.poll();
+            settledStamp[city] = stamp;
+            settledCount++;
+            // Early exit: the last target is settled
+            if (targetStamp[city] == stamp && --remaining == 0) return;
+            long cityDistance = distance[city];
+            int degree = graph.degree(city);
+            relaxedCount += degree;
+            for (int connection = 0; connection < degree; connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (settledStamp[neighbor] == stamp) continue;
+                long updatedDistance = cityDistance + graph.distance(city, connection);
+                if (reachedStamp[neighbor] != stamp || updatedDistance < distance[neighbor]){
+                    reachedStamp[neighbor] = stamp;
+                    distance[neighbor] = updatedDistance;
+                    queue.insertOrDecrease(neighbor, updatedDistance);
+                }
+            }
+            if (queue.size() > queuePeak) queuePeak = queue.size();
+        }
+    }
+
+    /**
+     * Retrieve the distance of a city found by the last query. Without a target every reachable city is final,
+     * with a target only the settled cities are.
+     * @param city the city number
+     * @return the distance from the source, or UNREACHABLE if the last query did not reach the city
+     */
+    long distanceTo(int city){
+        if (city >= reachedStamp.length || reachedStamp[city] != stamp) return UNREACHABLE;
+        return distance[city];
+    }
+
+    /**
+     * Check if a city was settled by the last query
+     * @param city the city number
+     * @return true if the distance of the city is final
+     */
+    boolean isSettled(int city){
+        return city < settledStamp.length && settledStamp[city] == stamp;
+    }
+
+    /**
+     * Retrieve the source city of the last query
+     * @return the source city number, or -1 if nothing has been searched yet
+     */
+    int source(){
+        return source;
+    }
+
+    /**
+     * Retrieve the number of cities settled by the last query
+     * @return the number of settled cities
+     */
+    int settledCount(){
+        return settledCount;
+    }
+
+    /**
+     * Retrieve the number of connections examined by the last query
+     * @return the number of connections
+     */
+    long relaxedCount(){
+        return relaxedCount;
+    }
+
+    /**
+     * Retrieve the largest number of cities waiting in the queue during the last query
+     * @return the largest queue size
+     */
+    int queuePeak(){
+        return queuePeak;
+    }
+
+    /**
+     * Forget the source and counters of the last query, so a caller can tell whether a new query ran
+     */
+    void clearStatistics(){
+        source = -1;
+        settledCount = 0;
+        relaxedCount = 0;
+        queuePeak = 0;
+    }
+
+    /**
+     * Copy the distances found by the last query into a new array indexed by city number
+     * @return the distance of every city, UNREACHABLE for those that were not reached
+     */
+    long[] distances(){
+        long[] output = new long[graph.cityCount()];
+        for (int city = 0; city < output.length; city++){
+            output[city] = distanceTo(city);
+        }
+        return output;
+    }
+
+    /**
+     * Convert a search distance to the int distance returned by the airport system
+     * @param distance the search distance
+     * @return the distance, or Integer.MAX_VALUE if the city cannot be reached or the distance does not fit an int
+     */
+    static int toIntDistance(long distance){
+        return distance > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) distance;
+    }
+
+    /**
+     * A helper method for run() that resets the per-query state and puts the source into the queue
+     * @param source the source city number
+     */
+    private void startQuery(int source){
+        ensureCapacity(graph.cityCount());
+        queue.clear();
+        settledCount = 0;
+        relaxedCount = 0;
+        queuePeak = 1;
+        this.source = source;
+        // A new query number invalidates every stamp of the previous query
+        if (++stamp == Integer.MAX_VALUE){
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(settledStamp, 0);
+            if (targetStamp != null) Arrays.fill(targetStamp, 0);
+            stamp = 1;
+        }
+        reachedStamp[source] = stamp;
+        distance[source] = 0;
+        queue.insertOrDecrease(source, 0);
+    }
+
+    /**
+     * A helper method to grow the arrays when cities were added to the graph after this search was created
+     * @param cityCount the number of cities in the graph
+     */
+    private void ensureCapacity(int cityCount){
+        if (cityCount <= distance.length) return;
+        int newLength = Math.max(cityCount, distance.length * 2);
+        distance = Arrays.copyOf(distance, newLength);
+        reachedStamp = Arrays.copyOf(reachedStamp, newLength);
+        settledStamp = Arrays.copyOf(settledStamp, newLength);
+        queue.ensureCapacity(newLength);
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the Dijkstra search
+ */
+public class DijkstraSearchTest {
+
+    /**
+     * A helper method to build a random graph with the cities named by their number
+     * @param cityCount the number of cities
+     * @param edgeCount the number of attempted connections
+     * @param seed the random seed
+     * @return the airport system
+     */
+    static AirportSystem randomGraph(int cityCount, int edgeCount, long seed) {
+        AirportSystem airportSystem = new AirportSystem();
+        Random random = new Random(seed);
+        for (int city = 0; city < cityCount; city++) {
+            airportSystem.addEdge(String.valueOf(city), String.valueOf(random.nextInt(city + 1)), 1 + random.nextInt(100));
+        }
+        for (int index = 0; index < edgeCount; index++) {
+            airportSystem.addEdge(String.valueOf(random.nextInt(cityCount)), String.valueOf(random.nextInt(cityCount)), random.nextInt(100));
+        }
+        return airportSystem;
+    }
+
+    /**
+     * A helper method to compute every distance with the Floyd-Warshall algorithm
+     * @param graph the graph
+     * @return the distance matrix, Long.MAX_VALUE for pairs with no route
+     */
+    static long[][] allDistances(RouteGraph graph) {
+        int count = graph.cityCount();
+        long[][] distance = new long[count][count];
+        for (int city = 0; city < count; city++) {
+            java.util.Arrays.fill(distance[city], Long.MAX_VALUE);
+            distance[city][city] = 0;
+            for (int connection = 0; connection < graph.degree(city); connection++) {
+                int neighbor = graph.neighbor(city, connection);
+                distance[city][neighbor] = Math.min(distance[city][neighbor], graph.distance(city, connection));
+            }
+        }
+        for (int middle = 0; middle < count; middle++) {
+            for (int from = 0; from < count; from++) {
+                for (int to = 0; to < count; to++) {
+                    if (distance[from][middle] != Long.MAX_VALUE && distance[middle][to] != Long.MAX_VALUE) {
+                        distance[from][to] = Math.min(distance[from][to], distance[from][middle] + distance[middle][to]);
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    @org.junit.Test
+    public void matchesFloydWarshall() {
+        AirportSystem airportSystem = randomGraph(60, 150, 7);
+        long[][] expected = allDistances(airportSystem);
+        DijkstraSearch search = new DijkstraSearch(airportSystem);
+
+        // Case 1: Point-to-point queries with early exit, reusing the same search
+        for (int source = 0; source < airportSystem.cityCount(); source++) {
+            for (int target = 0; target < airportSystem.cityCount(); target++) {
+                long distance = search.run(source, target);
+                assertEquals(expected[source][target], distance == DijkstraSearch.UNREACHABLE ? Long.MAX_VALUE : distance);
+            }
+        }
+
+        // Case 2: A whole distance tree
+        search.run(3, -1);
+        long[] tree = search.distances();
+        for (int target = 0; target < airportSystem.cityCount(); target++) {
+            assertEquals(expected[3][target], tree[target]);
+        }
+    }
+
+    @org.junit.Test
+    public void growingGraph() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "2", 4);
+        DijkstraSearch search = new DijkstraSearch(airportSystem);
+        assertEquals(4, search.run(0, 1));
+
+        // Case 1: Cities added after the search was created are found
+        airportSystem.addEdge("2", "3", 5);
+        airportSystem.addEdge("3", "4", 6);
+        assertEquals(15, search.run(0, airportSystem.cityId("4")));
+        assertEquals(4, search.settledCount());
+
+        // Case 2: Distances that do not fit an int are reported as unreachable by the airport system
+        airportSystem.addEdge("4", "5", Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, airportSystem.shortestDistance("1", "5"));
+        assertEquals(15L + Integer.MAX_VALUE, search.run(0, airportSystem.cityId("5")));
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of shortest distances for the airport system.
+ * It keeps single (cityA, cityB) answers and, if memory allows, whole distance trees of recently queried
+ * source cities so that any destination from those cities is a hit. Since every flight is added in both
+ * directions, the distance from A to B is the distance from B to A and both orders share an entry.
+ * The cache remembers the graph version it was filled from and empties itself when the graph changes.
+ * @author Quan Tran
+ */
+public class DistanceCache {
+    /** The value returned by get() when the distance is not cached */
+    static final int MISS = -1;
+    /** The approximate memory used by a cached distance tree besides its distances */
+    private static final long TREE_OVERHEAD_BYTES = 64;
+
+    /** The maximum number of cached city pairs */
+    private final int maxPairs;
+    /** The maximum memory used by the cached distance trees */
+    private final long maxTreeBytes;
+    /** The cached city pairs, keyed by both city numbers, in access order */
+    private final LinkedHashMap<Long, Integer> pairs;
+    /** The cached distance trees, keyed by source city number, in access order */
+    private final LinkedHashMap<Integer, int[]> trees;
+    /** The memory used by the cached distance trees */
+    private long treeBytes;
+    /** The graph version the cached distances were computed from */
+    private long version;
+
+    /** The number of queries answered from the cache */
+    private long hitCount;
+    /** The number of queries that had to search the graph */
+    private long missCount;
+    /** The number of entries removed to respect the size and memory limits */
+    private long evictionCount;
+    /** The number of times the whole cache was emptied because the graph changed */
+    private long invalidationCount;
+
+    /**
+     * Initialize an empty cache
+     * @param maxPairs the maximum number of cached city pairs
+     * @param maxTreeBytes the maximum memory for whole distance trees, or 0 to only cache city pairs
+     */
+    DistanceCache(int maxPairs, long maxTreeBytes){
+        if (maxPairs < 0 || maxTreeBytes < 0) throw new IllegalArgumentException("Cache limits must not be negative");
+        this.maxPairs = maxPairs;
+        this.maxTreeBytes = maxTreeBytes;
+        this.pairs = new LinkedHashMap<Long, Integer>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest){
+                // Drop the least recently used pair once the cache is full
+                if (size() > DistanceCache.this.maxPairs){
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.trees = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retrieve a cached distance
+     * @param cityA the source city number
+     * @param cityB the destination city number
+     * @param graphVersion the current version of the graph
+     * @return the cached distance, or MISS if it has to be computed
+     */
+    int get(int cityA, int cityB, long graphVersion){
+        checkVersion(graphVersion);
+        // Look for the pair first, then for a tree from either city
+        Integer distance = pairs.get(pairKey(cityA, cityB));
+        if (distance != null){
+            hitCount++;
+            return distance;
+        }
+        int[] tree = trees.get(cityA);
+        if (tree != null) return hit(tree[cityB]);
+        tree = trees.get(cityB);
+        if (tree != null) return hit(tree[cityA]);
+        missCount++;
+        return MISS;
+    }
+
+    /**
+     * Check if the cache keeps whole distance trees
+     * @param cityCount the number of cities in the tree
+     * @return true if a tree of the given size fits in the memory limit
+     */
+    boolean cachesTrees(int cityCount){
+        return treeSize(cityCount) <= maxTreeBytes;
+    }
+
+    /**
+     * Add the distance between two cities
+     * @param cityA the source city number
+     * @param cityB the destination city number
+     * @param distance the shortest distance
+     */
+    void putPair(int cityA, int cityB, int distance){
+        if (maxPairs > 0) pairs.put(pairKey(cityA, cityB), distance);
+    }
+
+    /**
+     * Add the whole distance tree of a source city, evicting the least recently used trees to make room
+     * @param source the source city number
+     * @param tree the distance of every city from the source
+     */
+    void putTree(int source, int[] tree){
+        long size = treeSize(tree.length);
+        if (size > maxTreeBytes) return;
+        int[] previous = trees.put(source, tree);
+        if (previous != null) treeBytes -= treeSize(previous.length);
+        treeBytes += size;
+        // Evict from the least recently used end until the trees fit again
+        Iterator<int[]> iterator = trees.values().iterator();
+        while (treeBytes > maxTreeBytes && iterator.hasNext()){
+            int[] eldest = iterator.next();
+            if (eldest == tree) continue;
+            treeBytes -= treeSize(eldest.length);
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Remove every entry of the cache if the graph has changed since they were computed
+     * @param graphVersion the current version of the graph
+     */
+    private void checkVersion(long graphVersion){
+        if (graphVersion == version) return;
+        if (!pairs.isEmpty() || !trees.isEmpty()) invalidationCount++;
+        pairs.clear();
+        trees.clear();
+        treeBytes = 0;
+        version = graphVersion;
+    }
+
+    /**
+     * A helper method for get() to count a hit
+     * @param distance the cached distance
+     * @return the cached distance
+     */
+    private int hit(int distance){
+        hitCount++;
+        return distance;
+    }
+
+    /**
+     * A helper method to build the key of a pair so that (A, B) and (B, A) share it
+     * @param cityA the first city number
+     * @param cityB the second city number
+     * @return the key of the pair
+     */
+    private static long pairKey(int cityA, int cityB){
+        return ((long) Math.min(cityA, cityB) << 32) | Math.max(cityA, cityB);
+    }
+
+    /**
+     * A helper method to estimate the memory of a distance tree
+     * @param cityCount the number of cities in the tree
+     * @return the approximate number of bytes
+     */
+    private static long treeSize(int cityCount){
+        return TREE_OVERHEAD_BYTES + 4L * cityCount;
+    }
+
+    /**
+     * Retrieve the number of queries answered from the cache
+     * @return the number of hits
+     */
+    public long getHitCount(){
+        return hitCount;
+    }
+
+    /**
+     * Retrieve the number of queries that had to search the graph
+     * @return the number of misses
+     */
+    public long getMissCount(){
+        return missCount;
+    }
+
+    /**
+     * Retrieve the number of entries removed to respect the size and memory limits
+     * @return the number of evictions
+     */
+    public long getEvictionCount(){
+        return evictionCount;
+    }
+
+    /**
+     * Retrieve the number of times the cache was emptied because a route changed
+     * @return the number of invalidations
+     */
+    public long getInvalidationCount(){
+        return invalidationCount;
+    }
+
+    /**
+     * Retrieve the number of cached city pairs
+     * @return the number of cached pairs
+     */
+    public int getPairCount(){
+        return pairs.size();
+    }
+
+    /**
+     * Retrieve the number of cached distance trees
+     * @return the number of cached trees
+     */
+    public int getTreeCount(){
+        return trees.size();
+    }
+
+    /**
+     * Retrieve the memory used by the cached distance trees
+     * @return the approximate number of bytes
+     */
+    public long getTreeBytes(){
+        return treeBytes;
+    }
+}
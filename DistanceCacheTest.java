@@ -0,0 +1,75 @@
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the shortest distance cache
+ */
+public class DistanceCacheTest {
+
+    /**
+     * A helper method to build the graph used by the airport system tests
+     * @return the airport system
+     */
+    private static AirportSystem sampleGraph() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("4", "5", 9);
+        airportSystem.addEdge("2", "4", 3);
+        airportSystem.addEdge("2", "3", 3);
+        airportSystem.addEdge("2", "6", 7);
+        airportSystem.addEdge("3", "4", 5);
+        airportSystem.addEdge("3", "6", 8);
+        return airportSystem;
+    }
+
+    @org.junit.Test
+    public void pairCache() {
+        AirportSystem airportSystem = sampleGraph();
+        airportSystem.enableDistanceCache(2, 0);
+        DistanceCache cache = airportSystem.getDistanceCache();
+
+        // Case 1: The second query and the reversed query are hits
+        assertEquals(13, airportSystem.shortestDistance("6", "5"));
+        assertEquals(13, airportSystem.shortestDistance("6", "5"));
+        assertEquals(13, airportSystem.shortestDistance("5", "6"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        // Case 2: The least recently used pair is evicted
+        assertEquals(9, airportSystem.shortestDistance("3", "5"));
+        assertEquals(6, airportSystem.shortestDistance("2", "5"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getPairCount());
+
+        // Case 3: Adding a route invalidates the cached distances
+        airportSystem.addEdge("6", "5", 1);
+        assertEquals(1, airportSystem.shortestDistance("6", "5"));
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @org.junit.Test
+    public void treeCache() {
+        AirportSystem airportSystem = sampleGraph();
+        // Room for two trees of six cities
+        airportSystem.enableDistanceCache(0, 200);
+        DistanceCache cache = airportSystem.getDistanceCache();
+
+        // Case 1: Every destination from a queried city is a hit, in both directions
+        assertEquals(9, airportSystem.shortestDistance("3", "5"));
+        assertEquals(5, airportSystem.shortestDistance("3", "1"));
+        assertEquals(8, airportSystem.shortestDistance("6", "3"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        // Case 2: The third tree evicts the least recently used one
+        assertEquals(1, airportSystem.shortestDistance("1", "4"));
+        assertEquals(6, airportSystem.shortestDistance("2", "5"));
+        assertEquals(2, cache.getTreeCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getTreeBytes() <= 200);
+        assertEquals(9, airportSystem.shortestDistance("5", "3"));
+        assertEquals(4, cache.getMissCount());
+    }
+}
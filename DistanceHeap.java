@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+/**
+ * An indexed binary min-heap of cities keyed by their tentative distance.
+ * A city is stored at most once, so lowering its distance moves it up the heap instead of adding a copy.
+ * @author Quan Tran
+ */
+class DistanceHeap {
+    /** The city stored at each heap position */
+    private int[] heap;
+    /** The key of each city, indexed by city number */
+    private long[] keys;
+    /** The heap position of each city, or -1 if the city is not in the heap */
+    private int[] position;
+    /** The number of cities inside the heap */
+    private int size;
+
+    /**
+     * Initialize an empty heap
+     * @param capacity the number of cities the heap can hold
+     */
+    DistanceHeap(int capacity){
+        heap = new int[Math.max(capacity, 1)];
+        keys = new long[heap.length];
+        position = new int[heap.length];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Grow the heap so it can hold cities numbered up to capacity - 1
+     * @param capacity the number of cities the heap must hold
+     */
+    void ensureCapacity(int capacity){
+        if (capacity <= position.length) return;
+        int oldLength = position.length;
+        int newLength = Math.max(capacity, oldLength * 2);
+        heap = Arrays.copyOf(heap, newLength);
+        keys = Arrays.copyOf(keys, newLength);
+        position = Arrays.copyOf(position, newLength);
+        Arrays.fill(position, oldLength, newLength, -1);
+    }
+
+    /**
+     * Check if the heap is empty
+     * @return true if there is no city inside the heap
+     */
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Retrieve the number of cities inside the heap
+     * @return the number of cities inside the heap
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * Check if a city is waiting inside the heap
+     * @param city the city number
+     * @return true if the city is inside the heap
+     */
+    boolean contains(int city){
+        return position[city] >= 0;
+    }
+
+    /**
+     * Add a city to the heap, or lower its key if it is already inside
+     * @param city the city number
+     * @param key the new key of the city
+     */
+    void insertOrDecrease(int city, long key){
+        int index = position[city];
+        // A new city goes to the bottom of the heap
+        if (index < 0){
+            index = size++;
+            heap[index] = city;
+            position[city] = index;
+        }
+        // A city already inside only moves if its key gets smaller
+        else if (key >= keys[city]) return;
+        keys[city] = key;
+        siftUp(index);
+    }
+
+    /**
+     * Add a city to the heap, or change its key in either direction if it is already inside
+     * @param city the city number
+     * @param key the new key of the city
+     */
+    void insertOrUpdate(int city, long key){
+        int index = position[city];
+        if (index < 0 || key < keys[city]){
+            insertOrDecrease(city, key);
+            return;
+        }
+        // A larger key pushes the city down
+        keys[city] = key;
+        siftDown(index);
+    }
+
+    /**
+     * Retrieve the smallest key without removing its city
+     * @return the smallest key inside the heap
+     */
+    long peekKey(){
+        return keys[heap[0]];
+    }
+
+    /**
+     * Retrieve the key of a city
+     * @param city the city number, which must be inside the heap
+     * @return the key of the city
+     */
+    long key(int city){
+        return keys[city];
+    }
+
+    /**
+     * Remove the city that has the smallest key
+     * @return the removed city number
+     */
+    int poll(){
+        int city = heap[0];
+        position[city] = -1;
+        size--;
+        // Move the last city to the top and push it down to its place
+        if (size > 0){
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return city;
+    }
+
+    /**
+     * Remove every city from the heap. Only the cities still inside are touched.
+     */
+    void clear(){
+        for (int index = 0; index < size; index++){
+            position[heap[index]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * A helper method to move a city up until its parent has a smaller key
+     * @param index the heap position of the city
+     */
+    private void siftUp(int index){
+        int city = heap[index];
+        long key = keys[city];
+        while (index > 0){
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (keys[parent] <= key) break;
+            heap[index] = parent;
+            position[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = city;
+        position[city] = index;
+    }
+
+    /**
+     * A helper method to move a city down until both of its children have a larger key
+     * @param index the heap position of the city
+     */
+    private void siftDown(int index){
+        int city = heap[index];
+        long key = keys[city];
+        int half = size >>> 1;
+        while (index < half){
+            int childIndex = 2 * index + 1;
+            int child = heap[childIndex];
+            // Pick the smaller of the two children
+            if (childIndex + 1 < size && keys[heap[childIndex + 1]] < keys[child]){
+                childIndex++;
+                child = heap[childIndex];
+            }
+            if (key <= keys[child]) break;
+            heap[index] = child;
+            position[child] = index;
+            index = childIndex;
+        }
+        heap[index] = city;
+        position[city] = index;
+    }
+}
@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A table of the shortest distance between every pair of cities, computed by one Dijkstra search per source city.
+ * The searches run in parallel on a fork-join pool and write their rows into int buffers, which are stored
+ * off-heap for large graphs. Each lookup is a single array read.
+ * The table describes the graph at the time it was computed and is not updated when routes are added.
+ * @author Quan Tran
+ */
+public class DistanceMatrix {
+    /** Tables larger than this number of bytes are stored off-heap */
+    static final long OFF_HEAP_THRESHOLD = 64L << 20;
+    /** The largest number of bytes in one buffer */
+    private static final int MAX_BLOCK_BYTES = 1 << 30;
+
+    /** The number of each city by name */
+    private final Map<String, Integer> cityIds;
+    /** The number of cities */
+    private final int cityCount;
+    /** The number of rows stored in each buffer */
+    private final int rowsPerBlock;
+    /** The rows of the table, split into buffers that each stay below the buffer size limit */
+    private final IntBuffer[] blocks;
+    /** True if the rows are stored outside the Java heap */
+    private final boolean offHeap;
+
+    /**
+     * Initialize an empty table
+     * @param graph the graph whose cities are the rows and columns
+     * @param offHeap true to store the rows outside the Java heap
+     */
+    private DistanceMatrix(RouteGraph graph, boolean offHeap){
+        this.cityCount = graph.cityCount();
+        this.offHeap = offHeap;
+        this.cityIds = new HashMap<>();
+        for (int city = 0; city < cityCount; city++){
+            cityIds.put(graph.cityName(city), city);
+        }
+        // Split the rows into buffers so a buffer never exceeds its int-sized capacity
+        long rowBytes = 4L * Math.max(cityCount, 1);
+        if (rowBytes > MAX_BLOCK_BYTES) throw new IllegalArgumentException("Too many cities for a distance table: " + cityCount);
+        this.rowsPerBlock = (int) Math.max(1, MAX_BLOCK_BYTES / rowBytes);
+        int blockCount = (cityCount + rowsPerBlock - 1) / rowsPerBlock;
+        this.blocks = new IntBuffer[blockCount];
+        for (int block = 0; block < blockCount; block++){
+            int rows = Math.min(rowsPerBlock, cityCount - block * rowsPerBlock);
+            int size = rows * cityCount;
+            blocks[block] = offHeap ? ByteBuffer.allocateDirect(4 * size).order(ByteOrder.nativeOrder()).asIntBuffer()
+                                    : IntBuffer.allocate(size);
+        }
+    }
+
+    /**
+     * A method to compute the distance between every pair of cities
+     * @param graph the graph, which must not be modified during the computation
+     * @param parallelism the number of worker threads
+     * @return the table of distances
+     */
+    static DistanceMatrix compute(RouteGraph graph, int parallelism){
+        long bytes = 4L * graph.cityCount() * graph.cityCount();
+        return compute(graph, parallelism, bytes > OFF_HEAP_THRESHOLD);
+    }
+
+    /**
+     * A method to compute the distance between every pair of cities
+     * @param graph the graph, which must not be modified during the computation
+     * @param parallelism the number of worker threads
+     * @param offHeap true to store the table outside the Java heap
+     * @return the table of distances
+     */
+    static DistanceMatrix compute(RouteGraph graph, int parallelism, boolean offHeap){
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        DistanceMatrix matrix = new DistanceMatrix(graph, offHeap);
+        int cityCount = matrix.cityCount;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // One task per group of sources, each with its own search state
+            ParallelRange.forEach(pool, 0, cityCount, ParallelRange.grainFor(pool, cityCount), (from, to) -> {
+                DijkstraSearch search = new DijkstraSearch(graph);
+                for (int source = from; source < to; source++){
+                    search.run(source, -1);
+                    IntBuffer block = matrix.blocks[source / matrix.rowsPerBlock];
+                    int rowStart = (source % matrix.rowsPerBlock) * cityCount;
+                    for (int city = 0; city < cityCount; city++){
+                        block.put(rowStart + city, DijkstraSearch.toIntDistance(search.distanceTo(city)));
+                    }
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return matrix;
+    }
+
+    /**
+     * Retrieve the shortest distance between two cities
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route or a city is unknown
+     */
+    public int distance(String cityA, String cityB){
+        Integer source = cityIds.get(cityA);
+        Integer destination = cityIds.get(cityB);
+        if (source == null || destination == null) return Integer.MAX_VALUE;
+        return distance(source.intValue(), destination.intValue());
+    }
+
+    /**
+     * Retrieve the shortest distance between two cities by number
+     * @param cityA the source city number
+     * @param cityB the destination city number
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route
+     */
+    public int distance(int cityA, int cityB){
+        return blocks[cityA / rowsPerBlock].get((cityA % rowsPerBlock) * cityCount + cityB);
+    }
+
+    /**
+     * Retrieve the number of cities in the table
+     * @return the number of rows and columns
+     */
+    public int getCityCount(){
+        return cityCount;
+    }
+
+    /**
+     * Check where the table is stored
+     * @return true if the rows are stored outside the Java heap
+     */
+    public boolean isOffHeap(){
+        return offHeap;
+    }
+}
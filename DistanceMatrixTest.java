@@ -0,0 +1,35 @@
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the all-pairs distance table
+ */
+public class DistanceMatrixTest {
+
+    @org.junit.Test
+    public void matchesShortestDistance() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(80, 200, 11);
+        // Add a disconnected pair of cities
+        airportSystem.addEdge("x", "y", 3);
+
+        // Case 1: The parallel table matches single queries on and off the heap
+        DistanceMatrix onHeap = airportSystem.allPairsDistances(4);
+        DistanceMatrix offHeap = DistanceMatrix.compute(airportSystem, 3, true);
+        assertFalse(onHeap.isOffHeap());
+        assertTrue(offHeap.isOffHeap());
+        assertEquals(airportSystem.cityCount(), onHeap.getCityCount());
+        for (int source = 0; source < airportSystem.cityCount(); source++) {
+            for (int target = 0; target < airportSystem.cityCount(); target++) {
+                String cityA = airportSystem.cityName(source);
+                String cityB = airportSystem.cityName(target);
+                int expected = airportSystem.shortestDistance(cityA, cityB);
+                assertEquals(expected, onHeap.distance(cityA, cityB));
+                assertEquals(expected, offHeap.distance(source, target));
+            }
+        }
+
+        // Case 2: Unknown and unreachable cities
+        assertEquals(3, onHeap.distance("x", "y"));
+        assertEquals(Integer.MAX_VALUE, onHeap.distance("x", "0"));
+        assertEquals(Integer.MAX_VALUE, onHeap.distance("x", "z"));
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.Arrays;
+
+/**
+ * Shortest distance trees of chosen hub cities that stay correct while routes are added to and removed from the
+ * airport system. A tree is computed once with Dijkstra's algorithm when its hub is added. After that, a new route
+ * or a shorter distance only lowers distances, so the repair starts from the end of the route that got closer to
+ * the hub and spreads only to the cities whose distance actually drops. An update costs time proportional to the
+ * changed part of the trees and their connections instead of the whole graph.
+ * A removed route only matters to the hubs whose shortest routes used it, and only their trees are computed again.
+ * Like the airport system itself, this class is not thread-safe.
+ * @author Quan Tran
+ * @references Ramalingam and Reps, On the computational complexity of dynamic graph problems
+ */
+public class DynamicShortestPaths implements RouteListener {
+    /** The distance of a city that cannot be reached from a hub */
+    private static final long UNREACHABLE = DijkstraSearch.UNREACHABLE;
+
+    /** The airport system whose routes are followed */
+    private final AirportSystem airportSystem;
+    /** The city number of each hub */
+    private int[] hubs = new int[4];
+    /** The distance from each hub to every city, in the order of hubs */
+    private long[][] trees = new long[4][];
+    /** The number of hubs */
+    private int hubCount;
+    /** The cities whose distance dropped and whose connections still have to be checked */
+    private final DistanceHeap queue;
+    /** The number of city distances changed by the last update */
+    private int lastRepairCount;
+    /** The number of city distances changed since this object was created */
+    private long totalRepairCount;
+    /** The search that computes a tree again after a removed route, created on the first removal that needs it */
+    private DijkstraSearch search;
+
+    /**
+     * Initialize the structure without hubs and start following the routes of an airport system
+     * @param airportSystem the airport system
+     */
+    public DynamicShortestPaths(AirportSystem airportSystem){
+        this.airportSystem = airportSystem;
+        this.queue = new DistanceHeap(Math.max(airportSystem.cityCount(), 1));
+        airportSystem.addRouteListener(this);
+    }
+
+    /**
+     * A method to keep the distance tree of a hub city, computing it once now
+     * @param city the hub city
+     * @return true if the hub was added, false if the city is not in the graph or is already a hub
+     */
+    public boolean addHub(String city){
+        int hub = airportSystem.cityId(city);
+        if (hub < 0 || slot(hub) >= 0) return false;
+        if (hubCount == hubs.length){
+            hubs = Arrays.copyOf(hubs, hubCount * 2);
+            trees = Arrays.copyOf(trees, hubCount * 2);
+        }
+        DijkstraSearch search = new DijkstraSearch(airportSystem);
+        search.run(hub, -1);
+        hubs[hubCount] = hub;
+        trees[hubCount] = search.distances();
+        hubCount++;
+        return true;
+    }
+
+    /**
+     * A method to stop keeping the distance tree of a hub city
+     * @param city the hub city
+     * @return true if the city was a hub
+     */
+    public boolean removeHub(String city){
+        int index = slot(airportSystem.cityId(city));
+        if (index < 0) return false;
+        // Move the last hub into the free slot
+        hubCount--;
+        hubs[index] = hubs[hubCount];
+        trees[index] = trees[hubCount];
+        trees[hubCount] = null;
+        return true;
+    }
+
+    /**
+     * Retrieve the number of hubs
+     * @return the number of hubs
+     */
+    public int getHubCount(){
+        return hubCount;
+    }
+
+    /**
+     * A method to find the shortest distance from a hub to any city, without searching the graph
+     * @param hub the hub city
+     * @param city the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route or the city is not in the graph
+     * @throws IllegalArgumentException if the hub city is not a hub
+     */
+    public int shortestDistance(String hub, String city){
+        int index = slot(airportSystem.cityId(hub));
+        if (index < 0) throw new IllegalArgumentException(hub + " is not a hub");
+        int destination = airportSystem.cityId(city);
+        // Cities added after the tree was last grown have not been reached from the hub
+        if (destination < 0 || destination >= trees[index].length) return Integer.MAX_VALUE;
+        return DijkstraSearch.toIntDistance(trees[index][destination]);
+    }
+
+    /**
+     * Retrieve the number of city distances changed by the last route change, over all hubs
+     * @return the number of repaired distances
+     */
+    public int getLastRepairCount(){
+        return lastRepairCount;
+    }
+
+    /**
+     * Retrieve the number of city distances changed since this object was created, over all hubs
+     * @return the number of repaired distances
+     */
+    public long getTotalRepairCount(){
+        return totalRepairCount;
+    }
+
+    /**
+     * A method to stop following the routes of the airport system. The trees keep their last distances.
+     */
+    public void close(){
+        airportSystem.removeRouteListener(this);
+    }
+
+    @Override
+    public void routeShortened(int cityA, int cityB, int distance){
+        lastRepairCount = 0;
+        queue.ensureCapacity(airportSystem.cityCount());
+        for (int index = 0; index < hubCount; index++){
+            long[] tree = grow(index);
+            // Only the end of the route that gets closer to the hub can start a repair
+            lower(tree, cityB, tree[cityA], distance);
+            lower(tree, cityA, tree[cityB], distance);
+            repair(tree);
+        }
+        totalRepairCount += lastRepairCount;
+    }
+
+    @Override
+    public void routeRemoved(int cityA, int cityB, int distance){
+        lastRepairCount = 0;
+        for (int index = 0; index < hubCount; index++){
+            long[] tree = grow(index);
+            // Distances only grow, and only if a shortest route of the hub went through the removed route
+            if (!tight(tree, cityA, cityB, distance) && !tight(tree, cityB, cityA, distance)) continue;
+            if (search == null) search = new DijkstraSearch(airportSystem);
+            search.run(hubs[index], -1);
+            long[] distances = search.distances();
+            for (int city = 0; city < airportSystem.cityCount(); city++){
+                if (distances[city] != tree[city]) lastRepairCount++;
+            }
+            trees[index] = distances;
+        }
+        totalRepairCount += lastRepairCount;
+    }
+
+    /**
+     * A helper method for routeRemoved() to check if a route lies on a shortest route from the hub
+     * @param tree the distances from the hub
+     * @param from the end of the route closer to the hub
+     * @param to the other end of the route
+     * @param distance the distance of the route
+     * @return true if the distance of the far end is reached through the route
+     */
+    private static boolean tight(long[] tree, int from, int to, int distance){
+        return tree[from] != UNREACHABLE && tree[from] + distance == tree[to];
+    }
+
+    /**
+     * A helper method for routeShortened() that spreads the lowered distances in Dijkstra order. A city leaves the
+     * queue with its final distance, so each changed city checks its connections once.
+     * @param tree the distances from the hub
+     */
+    private void repair(long[] tree){
+        while (!queue.isEmpty()){
+            int city = queue.poll();
+            long cityDistance = tree[city];
+            for (int connection = 0; connection < airportSystem.degree(city); connection++){
+                lower(tree, airportSystem.neighbor(city, connection), cityDistance, airportSystem.distance(city, connection));
+            }
+        }
+    }
+
+    /**
+     * A helper method to lower the distance of a city if a connection gives a shorter route to it
+     * @param tree the distances from the hub
+     * @param city the city at the end of the connection
+     * @param fromDistance the distance of the city at the start of the connection
+     * @param distance the distance of the connection
+     */
+    private void lower(long[] tree, int city, long fromDistance, int distance){
+        if (fromDistance == UNREACHABLE) return;
+        long updatedDistance = fromDistance + distance;
+        if (updatedDistance >= tree[city]) return;
+        tree[city] = updatedDistance;
+        queue.insertOrDecrease(city, updatedDistance);
+        lastRepairCount++;
+    }
+
+    /**
+     * A helper method to extend a tree to the cities added since it was computed, which start unreachable
+     * @param index the slot of the hub
+     * @return the tree, covering every city of the graph
+     */
+    private long[] grow(int index){
+        int cityCount = airportSystem.cityCount();
+        long[] tree = trees[index];
+        if (tree.length >= cityCount) return tree;
+        int oldLength = tree.length;
+        tree = Arrays.copyOf(tree, Math.max(cityCount, oldLength * 2));
+        Arrays.fill(tree, oldLength, tree.length, UNREACHABLE);
+        trees[index] = tree;
+        return tree;
+    }
+
+    /**
+     * A helper method to find the slot of a hub
+     * @param hub the city number of the hub
+     * @return the slot, or -1 if the city is not a hub
+     */
+    private int slot(int hub){
+        if (hub < 0) return -1;
+        for (int index = 0; index < hubCount; index++){
+            if (hubs[index] == hub) return index;
+        }
+        return -1;
+    }
+}
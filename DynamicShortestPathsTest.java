@@ -0,0 +1,117 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * A JUnit class to test the shortest distance trees kept up to date while routes are added
+ */
+public class DynamicShortestPathsTest {
+
+    @org.junit.Test
+    public void smallRepairs() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("A", "B", 10);
+        airportSystem.addEdge("B", "C", 10);
+        airportSystem.addEdge("C", "D", 10);
+        airportSystem.addEdge("X", "Y", 1);
+        DynamicShortestPaths paths = new DynamicShortestPaths(airportSystem);
+
+        // Case 1: Unknown cities and repeated hubs are refused
+        assertTrue(paths.addHub("A"));
+        assertFalse(paths.addHub("A"));
+        assertFalse(paths.addHub("Z"));
+        assertEquals(30, paths.shortestDistance("A", "D"));
+        assertEquals(Integer.MAX_VALUE, paths.shortestDistance("A", "Y"));
+
+        // Case 2: A route that does not shorten anything repairs nothing
+        assertTrue(airportSystem.addEdge("B", "D", 25));
+        assertEquals(0, paths.getLastRepairCount());
+
+        // Case 3: A shortcut only repairs the cities behind it
+        assertTrue(airportSystem.addEdge("A", "C", 5));
+        assertEquals(2, paths.getLastRepairCount());
+        assertEquals(5, paths.shortestDistance("A", "C"));
+        assertEquals(15, paths.shortestDistance("A", "D"));
+        assertEquals(10, paths.shortestDistance("A", "B"));
+
+        // Case 4: A new route reaches a new city and a whole part of the graph
+        assertTrue(airportSystem.addEdge("D", "X", 2));
+        assertEquals(17, paths.shortestDistance("A", "X"));
+        assertEquals(18, paths.shortestDistance("A", "Y"));
+
+        // Case 5: Lowering the distance of a route repairs like a new route
+        assertFalse(airportSystem.decreaseDistance("A", "B", 12));
+        assertFalse(airportSystem.decreaseDistance("A", "D", 1));
+        assertTrue(airportSystem.decreaseDistance("C", "A", 1));
+        assertEquals(1, airportSystem.shortestDistance("A", "C"));
+        assertEquals(11, paths.shortestDistance("A", "D"));
+        assertEquals(14, paths.shortestDistance("A", "Y"));
+
+        // Case 6: After close() the trees no longer follow the graph
+        paths.close();
+        airportSystem.addEdge("A", "Y", 1);
+        assertEquals(14, paths.shortestDistance("A", "Y"));
+        assertTrue(paths.removeHub("A"));
+        assertEquals(0, paths.getHubCount());
+    }
+
+    @org.junit.Test
+    public void matchesFullRecomputation() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(150, 200, 21);
+        DynamicShortestPaths paths = new DynamicShortestPaths(airportSystem);
+        for (int hub = 0; hub < 150; hub += 30) {
+            paths.addHub(String.valueOf(hub));
+        }
+        Random random = new Random(5);
+        for (int change = 0; change < 300; change++) {
+            String cityA = String.valueOf(random.nextInt(170));
+            String cityB = String.valueOf(random.nextInt(170));
+            if (change % 3 == 0) airportSystem.decreaseDistance(cityA, cityB, random.nextInt(20));
+            else if (change % 3 == 1) airportSystem.addEdge(cityA, cityB, random.nextInt(100));
+            else {
+                RouteBatch batch = new RouteBatch();
+                batch.add(cityA, cityB, random.nextInt(100));
+                batch.add(cityB, String.valueOf(random.nextInt(170)), random.nextInt(100));
+                airportSystem.addEdges(batch);
+            }
+        }
+
+        // Case 1: Every kept distance equals a fresh search on the final graph
+        long[][] expected = DijkstraSearchTest.allDistances(airportSystem);
+        for (int hub = 0; hub < 150; hub += 30) {
+            for (int city = 0; city < airportSystem.cityCount(); city++) {
+                assertEquals(DijkstraSearch.toIntDistance(expected[hub][city]),
+                        paths.shortestDistance(String.valueOf(hub), airportSystem.cityName(city)));
+            }
+        }
+        assertTrue(paths.getTotalRepairCount() > 0);
+    }
+
+    @org.junit.Test
+    public void removedRoutes() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(120, 200, 8);
+        DynamicShortestPaths paths = new DynamicShortestPaths(airportSystem);
+        for (int hub = 0; hub < 120; hub += 40) {
+            paths.addHub(String.valueOf(hub));
+        }
+        Random random = new Random(6);
+        for (int change = 0; change < 200; change++) {
+            int city = random.nextInt(airportSystem.cityCount());
+            if (change % 2 == 0 && airportSystem.degree(city) > 0) {
+                int neighbor = airportSystem.neighbor(city, random.nextInt(airportSystem.degree(city)));
+                assertTrue(airportSystem.removeEdge(city, neighbor));
+            } else {
+                airportSystem.addEdge(city, random.nextInt(airportSystem.cityCount()), random.nextInt(100));
+            }
+        }
+
+        // Case 1: Distances that grew after a removal equal a fresh search on the final graph
+        long[][] expected = DijkstraSearchTest.allDistances(airportSystem);
+        for (int hub = 0; hub < 120; hub += 40) {
+            for (int city = 0; city < airportSystem.cityCount(); city++) {
+                assertEquals(DijkstraSearch.toIntDistance(expected[hub][city]),
+                        paths.shortestDistance(String.valueOf(hub), airportSystem.cityName(city)));
+            }
+        }
+    }
+}
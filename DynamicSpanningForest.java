@@ -0,0 +1,512 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A minimum spanning forest of the airport system that stays correct while routes are added, shortened and removed.
+ * The forest is kept in a link-cut tree where every forest route is a node between its two cities, so the longest
+ * route on the forest path between two cities is found in logarithmic amortized time.
+ * A new or shorter route joins two trees, or replaces the longest route of the cycle it closes if it is shorter.
+ * A removed forest route splits its tree in two. Both halves are explored through forest routes one connection at a
+ * time each until the smaller one is complete, and the shortest route leaving the smaller half joins them again. A
+ * removal costs time proportional to the connections of the smaller half instead of the whole graph, even when the
+ * larger half holds a city with many connections.
+ * Like the airport system itself, this class is not thread-safe.
+ * @author Quan Tran
+ * @references Sleator and Tarjan, A data structure for dynamic trees
+ */
+public class DynamicSpanningForest implements RouteListener {
+    /** The airport system whose routes are followed */
+    private final AirportSystem airportSystem;
+    /** The forest slot of each forest route, by the pair of its city numbers */
+    private final LongIntHashMap slots;
+    /** The number of cities and forest slots the arrays below can hold */
+    private int capacity;
+
+    // The link-cut tree: city c is node 2c and the forest route in slot s is node 2s + 1, -1 means no node
+    /** The left child of each node inside its splay tree */
+    private int[] left;
+    /** The right child of each node inside its splay tree */
+    private int[] right;
+    /** The splay tree parent of each node, or the path parent for the root of a splay tree */
+    private int[] parent;
+    /** Whether the children of each node still have to be swapped */
+    private boolean[] flipped;
+    /** The distance of each route node, -1 for city nodes */
+    private int[] weight;
+    /** The route node with the longest distance inside the splay subtree of each node */
+    private int[] heaviest;
+    /** The nodes from a splay tree root down to the node being splayed */
+    private int[] stack;
+
+    /** The city at one end of the route in each slot, or -1 for a free slot */
+    private int[] sourceCity;
+    /** The city at the other end of the route in each slot */
+    private int[] destinationCity;
+    /** The free slots below nextSlot */
+    private int[] freeSlots;
+    /** The number of free slots */
+    private int freeCount;
+    /** The first slot never used */
+    private int nextSlot;
+
+    /** The half of the split tree each city was last reached from, compared with the stamps of a search */
+    private int[] side;
+    /** The exploration from the first end of a removed route */
+    private final Half halfA = new Half();
+    /** The exploration from the second end of a removed route */
+    private final Half halfB = new Half();
+    /** The number of the current replacement search, so the sides never have to be cleared */
+    private int stamp;
+
+    /** The number of routes in the forest */
+    private int edgeCount;
+    /** The total distance of the routes in the forest */
+    private long totalDistance;
+    /** The number of connections examined by the last removal of a forest route */
+    private long lastExaminedCount;
+
+    /**
+     * Compute the minimum spanning forest once and start following the routes of an airport system
+     * @param airportSystem the airport system
+     */
+    public DynamicSpanningForest(AirportSystem airportSystem){
+        this.airportSystem = airportSystem;
+        this.slots = new LongIntHashMap(airportSystem.cityCount());
+        ensureCapacity(Math.max(airportSystem.cityCount(), 1));
+        int[] forest = SpanningForest.computeIds(airportSystem, null);
+        for (int index = 0; index < forest.length; index += 3){
+            addForestRoute(forest[index], forest[index + 1], forest[index + 2]);
+        }
+        airportSystem.addRouteListener(this);
+    }
+
+    /**
+     * Retrieve the number of routes in the forest
+     * @return the number of routes
+     */
+    public int getEdgeCount(){
+        return edgeCount;
+    }
+
+    /**
+     * Retrieve the total distance of the routes in the forest
+     * @return the total distance
+     */
+    public long getTotalDistance(){
+        return totalDistance;
+    }
+
+    /**
+     * Retrieve the number of connections examined to find a replacement by the last removal of a forest route
+     * @return the number of examined connections
+     */
+    public long getLastExaminedCount(){
+        return lastExaminedCount;
+    }
+
+    /**
+     * A method to check if two cities are in the same tree of the forest, that is if a route joins them
+     * @param cityA one city
+     * @param cityB the other city
+     * @return true if both cities are in the graph and connected
+     */
+    public boolean connected(String cityA, String cityB){
+        int source = airportSystem.cityId(cityA);
+        int destination = airportSystem.cityId(cityB);
+        if (source < 0 || destination < 0) return false;
+        ensureCapacity(airportSystem.cityCount());
+        return source == destination || findRoot(2 * source) == findRoot(2 * destination);
+    }
+
+    /**
+     * A method to list the routes of the forest
+     * @return the routes of the forest, in no particular order
+     */
+    public List<AirportSystem.Edges> minimumSpanningTree(){
+        List<AirportSystem.Edges> output = new ArrayList<>(edgeCount);
+        for (int slot = 0; slot < nextSlot; slot++){
+            if (sourceCity[slot] < 0) continue;
+            output.add(new AirportSystem.Edges(airportSystem.cityName(sourceCity[slot]), airportSystem.cityName(destinationCity[slot]),
+                                               weight[2 * slot + 1]));
+        }
+        return output;
+    }
+
+    /**
+     * A method to stop following the routes of the airport system. The forest keeps its last routes.
+     */
+    public void close(){
+        airportSystem.removeRouteListener(this);
+    }
+
+    @Override
+    public void routeShortened(int cityA, int cityB, int distance){
+        if (cityA == cityB) return;
+        ensureCapacity(airportSystem.cityCount());
+        int slot = slots.get(key(cityA, cityB));
+        // A shorter forest route keeps the forest minimal, only its distance changes
+        if (slot != LongIntHashMap.MISSING){
+            int node = 2 * slot + 1;
+            access(node);
+            totalDistance += distance - weight[node];
+            weight[node] = distance;
+            update(node);
+            return;
+        }
+        // A route between two trees joins them
+        if (findRoot(2 * cityA) != findRoot(2 * cityB)){
+            addForestRoute(cityA, cityB, distance);
+            return;
+        }
+        // Otherwise it closes a cycle, and the longest route of the cycle leaves the forest
+        makeRoot(2 * cityA);
+        access(2 * cityB);
+        int longest = heaviest[2 * cityB];
+        if (weight[longest] <= distance) return;
+        removeForestRoute((longest - 1) / 2);
+        addForestRoute(cityA, cityB, distance);
+    }
+
+    @Override
+    public void routeRemoved(int cityA, int cityB, int distance){
+        if (cityA == cityB) return;
+        ensureCapacity(airportSystem.cityCount());
+        int slot = slots.get(key(cityA, cityB));
+        // A route outside the forest was not needed by it
+        if (slot == LongIntHashMap.MISSING) return;
+        removeForestRoute(slot);
+        reconnect(cityA, cityB);
+    }
+
+    /**
+     * A helper method for routeRemoved() that finds the shortest route between the two halves of a split tree.
+     * By the cut property this route belongs to the minimum spanning forest of the graph without the removed route.
+     * @param cityA a city of one half
+     * @param cityB a city of the other half
+     */
+    private void reconnect(int cityA, int cityB){
+        if (++stamp >= Integer.MAX_VALUE / 2){
+            Arrays.fill(side, 0);
+            stamp = 1;
+        }
+        // STEP 1: Explore both halves through forest routes, one connection at a time each, until one half is complete
+        halfA.start(cityA, 2 * stamp);
+        halfB.start(cityB, 2 * stamp + 1);
+        side[cityA] = halfA.mark;
+        side[cityB] = halfB.mark;
+        Half smaller;
+        while (true){
+            if (!step(halfA)){
+                smaller = halfA;
+                break;
+            }
+            if (!step(halfB)){
+                smaller = halfB;
+                break;
+            }
+        }
+        long examined = halfA.examined + halfB.examined;
+        // STEP 2: Every route leaving the smaller half goes to the other half, keep the shortest
+        int bestCity = -1;
+        int bestNeighbor = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int index = 0; index < smaller.tail; index++){
+            int city = smaller.queue[index];
+            int degree = airportSystem.degree(city);
+            examined += degree;
+            for (int connection = 0; connection < degree; connection++){
+                int neighbor = airportSystem.neighbor(city, connection);
+                int distance = airportSystem.distance(city, connection);
+                if (side[neighbor] != smaller.mark && (bestCity < 0 || distance < bestDistance)){
+                    bestCity = city;
+                    bestNeighbor = neighbor;
+                    bestDistance = distance;
+                }
+            }
+        }
+        lastExaminedCount = examined;
+        if (bestCity >= 0) addForestRoute(bestCity, bestNeighbor, bestDistance);
+    }
+
+    /**
+     * A helper method for reconnect() that examines the next connection of one half, adding the city at its end to
+     * the half if a forest route leads there
+     * @param half the half
+     * @return false if the half is complete, every connection of its cities having been examined
+     */
+    private boolean step(Half half){
+        // Skip the cities whose connections have all been examined
+        while (half.head < half.tail && half.next == airportSystem.degree(half.queue[half.head])){
+            half.head++;
+            half.next = 0;
+        }
+        if (half.head == half.tail) return false;
+        int city = half.queue[half.head];
+        int neighbor = airportSystem.neighbor(city, half.next++);
+        half.examined++;
+        if (side[neighbor] != half.mark && slots.get(key(city, neighbor)) != LongIntHashMap.MISSING){
+            side[neighbor] = half.mark;
+            half.queue[half.tail++] = neighbor;
+        }
+        return true;
+    }
+
+    /** The breadth-first exploration of one half of a split tree through forest routes */
+    private static class Half {
+        /** The cities reached, in the order they were reached */
+        private int[] queue;
+        /** The position of the city whose connections are being examined */
+        private int head;
+        /** The number of cities reached */
+        private int tail;
+        /** The next connection to examine of the city at head */
+        private int next;
+        /** The number of connections examined */
+        private long examined;
+        /** The value marking the cities of this half in side */
+        private int mark;
+
+        /**
+         * A method to start a new exploration from one city
+         * @param city the first city of the half
+         * @param mark the value marking the cities of this half
+         */
+        private void start(int city, int mark){
+            this.head = 0;
+            this.tail = 0;
+            this.next = 0;
+            this.examined = 0;
+            this.mark = mark;
+            queue[tail++] = city;
+        }
+    }
+
+    /**
+     * A helper method to put a route into the forest between two cities of different trees
+     * @param cityA one end of the route
+     * @param cityB the other end of the route
+     * @param distance the distance of the route
+     */
+    private void addForestRoute(int cityA, int cityB, int distance){
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot++;
+        int node = 2 * slot + 1;
+        left[node] = -1;
+        right[node] = -1;
+        parent[node] = -1;
+        flipped[node] = false;
+        weight[node] = distance;
+        heaviest[node] = node;
+        sourceCity[slot] = cityA;
+        destinationCity[slot] = cityB;
+        // The route node hangs below the first city, then the second city's tree hangs below the route node
+        parent[node] = 2 * cityA;
+        makeRoot(2 * cityB);
+        parent[2 * cityB] = node;
+        slots.put(key(cityA, cityB), slot);
+        edgeCount++;
+        totalDistance += distance;
+    }
+
+    /**
+     * A helper method to take a route out of the forest, which splits its tree in two
+     * @param slot the slot of the route
+     */
+    private void removeForestRoute(int slot){
+        int node = 2 * slot + 1;
+        cut(node, 2 * sourceCity[slot]);
+        cut(node, 2 * destinationCity[slot]);
+        slots.remove(key(sourceCity[slot], destinationCity[slot]));
+        sourceCity[slot] = -1;
+        freeSlots[freeCount++] = slot;
+        edgeCount--;
+        totalDistance -= weight[node];
+    }
+
+    /**
+     * A helper method to check if a node is the root of its splay tree
+     * @param node the node
+     * @return true if the node has no splay tree parent
+     */
+    private boolean isRoot(int node){
+        int up = parent[node];
+        return up < 0 || (left[up] != node && right[up] != node);
+    }
+
+    /**
+     * A helper method to swap the children of a node if it is flipped, passing the flip down to them
+     * @param node the node
+     */
+    private void push(int node){
+        if (!flipped[node]) return;
+        int child = left[node];
+        left[node] = right[node];
+        right[node] = child;
+        if (left[node] >= 0) flipped[left[node]] ^= true;
+        if (right[node] >= 0) flipped[right[node]] ^= true;
+        flipped[node] = false;
+    }
+
+    /**
+     * A helper method to recompute the longest route of a splay subtree from its children
+     * @param node the node
+     */
+    private void update(int node){
+        int longest = node;
+        if (left[node] >= 0 && weight[heaviest[left[node]]] > weight[longest]) longest = heaviest[left[node]];
+        if (right[node] >= 0 && weight[heaviest[right[node]]] > weight[longest]) longest = heaviest[right[node]];
+        heaviest[node] = longest;
+    }
+
+    /**
+     * A helper method to move a node one level up inside its splay tree
+     * @param node the node
+     */
+    private void rotate(int node){
+        int up = parent[node];
+        int grand = parent[up];
+        boolean upIsRoot = isRoot(up);
+        if (left[up] == node){
+            left[up] = right[node];
+            if (right[node] >= 0) parent[right[node]] = up;
+            right[node] = up;
+        } else {
+            right[up] = left[node];
+            if (left[node] >= 0) parent[left[node]] = up;
+            left[node] = up;
+        }
+        parent[up] = node;
+        parent[node] = grand;
+        // The grandparent keeps a child pointer only if it is in the same splay tree
+        if (!upIsRoot){
+            if (left[grand] == up) left[grand] = node;
+            else right[grand] = node;
+        }
+        update(up);
+        update(node);
+    }
+
+    /**
+     * A helper method to move a node to the root of its splay tree
+     * @param node the node
+     */
+    private void splay(int node){
+        // Apply the pending flips from the root down before changing the shape
+        int top = 0;
+        stack[top++] = node;
+        for (int current = node; !isRoot(current); current = parent[current]){
+            stack[top++] = parent[current];
+        }
+        while (top > 0) push(stack[--top]);
+        while (!isRoot(node)){
+            int up = parent[node];
+            if (!isRoot(up)) rotate((left[parent[up]] == up) == (left[up] == node) ? up : node);
+            rotate(node);
+        }
+    }
+
+    /**
+     * A helper method to make the path from the root of a node's tree down to the node one splay tree, rooted at the node
+     * @param node the node
+     */
+    private void access(int node){
+        int last = -1;
+        for (int current = node; current >= 0; current = parent[current]){
+            splay(current);
+            right[current] = last;
+            update(current);
+            last = current;
+        }
+        splay(node);
+    }
+
+    /**
+     * A helper method to make a node the root of its tree
+     * @param node the node
+     */
+    private void makeRoot(int node){
+        access(node);
+        flipped[node] ^= true;
+    }
+
+    /**
+     * A helper method to find the root of a node's tree
+     * @param node the node
+     * @return the root node
+     */
+    private int findRoot(int node){
+        access(node);
+        int current = node;
+        while (true){
+            push(current);
+            if (left[current] < 0) break;
+            current = left[current];
+        }
+        splay(current);
+        return current;
+    }
+
+    /**
+     * A helper method to remove the forest link between two neighboring nodes
+     * @param nodeA one node
+     * @param nodeB the other node
+     */
+    private void cut(int nodeA, int nodeB){
+        makeRoot(nodeA);
+        access(nodeB);
+        // The path is nodeA then nodeB, so nodeA is the whole left subtree of nodeB
+        left[nodeB] = -1;
+        parent[nodeA] = -1;
+        update(nodeB);
+    }
+
+    /**
+     * A helper method to grow the arrays when cities were added to the graph
+     * @param cityCount the number of cities in the graph
+     */
+    private void ensureCapacity(int cityCount){
+        if (cityCount <= capacity) return;
+        int oldCapacity = capacity;
+        capacity = Math.max(cityCount, capacity * 2);
+        int nodes = 2 * capacity;
+        left = grow(left, nodes, 2 * oldCapacity);
+        right = grow(right, nodes, 2 * oldCapacity);
+        parent = grow(parent, nodes, 2 * oldCapacity);
+        weight = grow(weight, nodes, 2 * oldCapacity);
+        flipped = flipped == null ? new boolean[nodes] : Arrays.copyOf(flipped, nodes);
+        heaviest = heaviest == null ? new int[nodes] : Arrays.copyOf(heaviest, nodes);
+        for (int node = 2 * oldCapacity; node < nodes; node++){
+            heaviest[node] = node;
+        }
+        stack = new int[nodes];
+        sourceCity = grow(sourceCity, capacity, oldCapacity);
+        destinationCity = destinationCity == null ? new int[capacity] : Arrays.copyOf(destinationCity, capacity);
+        freeSlots = freeSlots == null ? new int[capacity] : Arrays.copyOf(freeSlots, capacity);
+        side = side == null ? new int[capacity] : Arrays.copyOf(side, capacity);
+        halfA.queue = new int[capacity];
+        halfB.queue = new int[capacity];
+    }
+
+    /**
+     * A helper method for ensureCapacity() to grow an array and fill the new part with -1
+     * @param array the array, or null
+     * @param length the new length
+     * @param oldLength the length in use
+     * @return the grown array
+     */
+    private static int[] grow(int[] array, int length, int oldLength){
+        int[] output = array == null ? new int[length] : Arrays.copyOf(array, length);
+        Arrays.fill(output, oldLength, length, -1);
+        return output;
+    }
+
+    /**
+     * A helper method to pack the pair of cities of a route into one key, the same for both directions
+     * @param cityA one city number
+     * @param cityB the other city number
+     * @return the key
+     */
+    private static long key(int cityA, int cityB){
+        return ((long) Math.min(cityA, cityB) << 32) | Math.max(cityA, cityB);
+    }
+}
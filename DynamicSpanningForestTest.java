@@ -0,0 +1,130 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * A JUnit class to test the minimum spanning forest kept up to date while routes change
+ */
+public class DynamicSpanningForestTest {
+
+    /**
+     * A helper method to compute the total distance of a minimum spanning forest from scratch
+     * @param airportSystem the airport system
+     * @return the total distance
+     */
+    private static long recomputedDistance(AirportSystem airportSystem) {
+        int[] forest = airportSystem.minimumSpanningTreeIds();
+        long total = 0;
+        for (int index = 2; index < forest.length; index += 3) {
+            total += forest[index];
+        }
+        return total;
+    }
+
+    @org.junit.Test
+    public void routeChanges() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("4", "5", 9);
+        airportSystem.addEdge("2", "4", 3);
+        DynamicSpanningForest forest = new DynamicSpanningForest(airportSystem);
+
+        // Case 1: The forest starts as the one computed from scratch
+        assertEquals(3, forest.getEdgeCount());
+        assertEquals(7, forest.getTotalDistance());
+
+        // Case 2: Removing a forest route brings in the shortest replacement
+        assertTrue(airportSystem.removeEdge("1", "5"));
+        assertEquals(12, forest.getTotalDistance());
+        assertEquals(3, forest.minimumSpanningTree().size());
+        assertTrue(forest.minimumSpanningTree().toString().contains("[5, 4]"));
+
+        // Case 3: A new route replaces the longest route of the cycle it closes, a longer one changes nothing
+        airportSystem.addEdge("2", "5", 3);
+        assertEquals(6, forest.getTotalDistance());
+        airportSystem.addEdge("1", "5", 50);
+        assertEquals(6, forest.getTotalDistance());
+
+        // Case 4: A shorter forest route only changes the total, a shorter other route may replace one
+        airportSystem.decreaseDistance("1", "2", 1);
+        assertEquals(5, forest.getTotalDistance());
+        airportSystem.decreaseDistance("5", "1", 0);
+        assertEquals(2, forest.getTotalDistance());
+        assertEquals(recomputedDistance(airportSystem), forest.getTotalDistance());
+
+        // Case 5: Removing a bridge splits the tree, and a new city joins it
+        airportSystem.addEdge("5", "6", 8);
+        assertTrue(forest.connected("1", "6"));
+        assertTrue(airportSystem.removeEdge("6", "5"));
+        assertFalse(forest.connected("1", "6"));
+        assertEquals(3, forest.getEdgeCount());
+        assertFalse(forest.connected("1", "X"));
+
+        // Case 6: After close() the forest no longer follows the graph
+        forest.close();
+        airportSystem.addEdge("6", "1", 1);
+        assertFalse(forest.connected("1", "6"));
+    }
+
+    @org.junit.Test
+    public void matchesFullRecomputation() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(200, 300, 17);
+        DynamicSpanningForest forest = new DynamicSpanningForest(airportSystem);
+        Random random = new Random(3);
+        for (int change = 0; change < 1500; change++) {
+            int city = random.nextInt(airportSystem.cityCount());
+            int kind = random.nextInt(5);
+            if (kind < 2 && airportSystem.degree(city) > 0) {
+                int neighbor = airportSystem.neighbor(city, random.nextInt(airportSystem.degree(city)));
+                assertTrue(airportSystem.removeEdge(city, neighbor));
+            } else if (kind == 2 && airportSystem.degree(city) > 0) {
+                int neighbor = airportSystem.neighbor(city, random.nextInt(airportSystem.degree(city)));
+                airportSystem.decreaseDistance(airportSystem.cityName(city), airportSystem.cityName(neighbor), random.nextInt(50));
+            } else {
+                airportSystem.addEdge(String.valueOf(random.nextInt(220)), String.valueOf(random.nextInt(220)), random.nextInt(100));
+            }
+
+            // Case 1: After every change the forest has the size and total distance of a fresh computation
+            int[] expected = airportSystem.minimumSpanningTreeIds();
+            assertEquals(expected.length / 3, forest.getEdgeCount());
+            assertEquals(recomputedDistance(airportSystem), forest.getTotalDistance());
+        }
+    }
+
+    @org.junit.Test
+    public void removalCostsTheSmallerHalf() {
+        // A long chain of cities with a city hanging from its middle by two routes
+        AirportSystem airportSystem = new AirportSystem();
+        for (int city = 1; city < 20000; city++) {
+            airportSystem.addEdge(String.valueOf(city - 1), String.valueOf(city), 1);
+        }
+        airportSystem.addEdge("10000", "X", 1);
+        airportSystem.addEdge("10001", "X", 5);
+        DynamicSpanningForest forest = new DynamicSpanningForest(airportSystem);
+
+        // Case 1: Removing the forest route of the hanging city only explores that city
+        assertTrue(airportSystem.removeEdge("10000", "X"));
+        assertEquals(20000, forest.getEdgeCount());
+        assertEquals(20004, forest.getTotalDistance());
+        assertTrue(forest.getLastExaminedCount() < 10);
+    }
+
+    @org.junit.Test
+    public void removalNextToHub() {
+        // A hub with many spokes, two of which are also joined to each other
+        AirportSystem airportSystem = new AirportSystem();
+        for (int spoke = 0; spoke < 5000; spoke++) {
+            airportSystem.addEdge("hub", String.valueOf(spoke), 1);
+        }
+        airportSystem.addEdge("0", "1", 5);
+        DynamicSpanningForest forest = new DynamicSpanningForest(airportSystem);
+
+        // Case 1: Removing the route of a spoke does not examine every connection of the hub
+        assertTrue(airportSystem.removeEdge("hub", "0"));
+        assertEquals(5000, forest.getEdgeCount());
+        assertEquals(5004, forest.getTotalDistance());
+        assertTrue(forest.getLastExaminedCount() < 10);
+    }
+}
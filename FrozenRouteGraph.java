@@ -0,0 +1,224 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A read-only route graph that lives inside a buffer in the RouteGraphFile format, for example a memory-mapped file.
+ * Nothing is copied into Java objects: connections are read from int views of the buffer and a city name becomes
+ * a String only when it is asked for. The graph never changes, so any number of threads can query it.
+ * @author Quan Tran
+ */
+public class FrozenRouteGraph implements RouteGraph {
+    /** The whole encoded graph */
+    private final ByteBuffer buffer;
+    /** The number of cities */
+    private final int cityCount;
+    /** The start of each city name inside the name bytes */
+    private final IntBuffer nameOffsets;
+    /** The start of the connections of each city */
+    private final IntBuffer offsets;
+    /** The destination of each connection */
+    private final IntBuffer targets;
+    /** The distance of each connection */
+    private final IntBuffer weights;
+    /** The name table, city number + 1 in each used slot */
+    private final IntBuffer hashTable;
+    /** The position of the name bytes inside the buffer */
+    private final int namesStart;
+
+    /**
+     * Initialize a graph over a validated buffer
+     * @param buffer the encoded graph in little-endian order
+     */
+    FrozenRouteGraph(ByteBuffer buffer){
+        this.buffer = buffer;
+        this.cityCount = buffer.getInt(8);
+        int connectionCount = buffer.getInt(12);
+        int hashSlots = buffer.getInt(20);
+        int position = RouteGraphFile.HEADER_BYTES;
+        nameOffsets = slice(position, cityCount + 1);
+        position += 4 * (cityCount + 1);
+        offsets = slice(position, cityCount + 1);
+        position += 4 * (cityCount + 1);
+        targets = slice(position, connectionCount);
+        position += 4 * connectionCount;
+        weights = slice(position, connectionCount);
+        position += 4 * connectionCount;
+        hashTable = slice(position, hashSlots);
+        namesStart = position + 4 * hashSlots;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     */
+    public int shortestDistance(String cityA, String cityB){
+        int source = cityId(cityA);
+        int destination = cityId(cityB);
+        if (source < 0 || destination < 0) return Integer.MAX_VALUE;
+        return DijkstraSearch.toIntDistance(new DijkstraSearch(this).run(source, destination));
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style
+     * @param start the original start city
+     * @return the BFS traversal starting from the input city, or an empty list if the city is not in the graph
+     */
+    public List<String> breadthFirstSearch(String start){
+        return BreadthFirstSearch.traverse(this, start);
+    }
+
+    /**
+     * A method to create a minimum spanning forest, one minimum spanning tree for every connected part of the graph
+     * @return a list that contains the edges of the forest, in the order Prim's algorithm would add them
+     */
+    public List<AirportSystem.Edges> minimumSpanningTree(){
+        return SpanningForest.compute(this);
+    }
+
+    /**
+     * A method that lazily traverses the cities within a number of connections of a city, in BFS order
+     * @param start the original start city
+     * @param maxHops the largest number of connections between the start city and a returned city
+     * @param limit the largest number of returned cities
+     * @return the cities in BFS order starting with the start city, or nothing if the city is not in the graph
+     */
+    public Iterator<String> breadthFirstIterator(String start, int maxHops, int limit){
+        return new BreadthFirstSearch(this).iterate(cityId(start), maxHops, limit);
+    }
+
+    /**
+     * A method that traverses the whole reachable part of the graph in parallel, one BFS level at a time
+     * @param start the original start city
+     * @param parallelism the number of worker threads
+     * @return the level and parent of every reached city
+     */
+    public ParallelBreadthFirstSearch parallelBreadthFirstSearch(String start, int parallelism){
+        return ParallelBreadthFirstSearch.search(this, cityId(start), parallelism);
+    }
+
+    /**
+     * A method to compute the shortest distance between every pair of cities in parallel
+     * @param parallelism the number of worker threads
+     * @return the table of distances
+     */
+    public DistanceMatrix allPairsDistances(int parallelism){
+        return DistanceMatrix.compute(this, parallelism);
+    }
+
+    /**
+     * A method to create a bidirectional point-to-point search, optionally guided by landmarks
+     * @param landmarkCount the number of landmark cities to precompute, or 0 for a plain bidirectional search
+     * @return the search
+     */
+    public PointToPointSearch pointToPointSearch(int landmarkCount){
+        return new PointToPointSearch(this, landmarkCount > 0 ? Landmarks.select(this, landmarkCount) : null);
+    }
+
+    /**
+     * A method to preprocess the graph into a contraction hierarchy
+     * @return the hierarchy
+     */
+    public ContractionHierarchy contractionHierarchy(){
+        return ContractionHierarchy.build(this);
+    }
+
+    /**
+     * Retrieve the size of the encoded graph
+     * @return the number of bytes of the buffer holding the graph
+     */
+    public long getByteSize(){
+        return buffer.capacity();
+    }
+
+    /**
+     * Retrieve the number of connections in the graph, counting both directions of every route
+     * @return the number of connections
+     */
+    public int getConnectionCount(){
+        return targets.capacity();
+    }
+
+    /**
+     * Check where the graph is stored
+     * @return true if the graph is outside the Java heap, in a mapped file or direct memory
+     */
+    public boolean isOffHeap(){
+        return buffer.isDirect();
+    }
+
+    @Override
+    public int cityCount(){
+        return cityCount;
+    }
+
+    @Override
+    public int cityId(String city){
+        byte[] name = city.getBytes(StandardCharsets.UTF_8);
+        int mask = hashTable.capacity() - 1;
+        int slot = RouteGraphFile.hash(name, 0, name.length) & mask;
+        // Probe until an empty slot, comparing the bytes of each candidate
+        while (hashTable.get(slot) != 0){
+            int candidate = hashTable.get(slot) - 1;
+            if (sameName(candidate, name)) return candidate;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public String cityName(int city){
+        int start = nameOffsets.get(city);
+        byte[] name = new byte[nameOffsets.get(city + 1) - start];
+        for (int index = 0; index < name.length; index++){
+            name[index] = buffer.get(namesStart + start + index);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int degree(int city){
+        return offsets.get(city + 1) - offsets.get(city);
+    }
+
+    @Override
+    public int neighbor(int city, int connection){
+        return targets.get(offsets.get(city) + connection);
+    }
+
+    @Override
+    public int distance(int city, int connection){
+        return weights.get(offsets.get(city) + connection);
+    }
+
+    /**
+     * A helper method to compare the stored name of a city with some bytes
+     * @param city the city number
+     * @param name the UTF-8 name
+     * @return true if the city has this name
+     */
+    private boolean sameName(int city, byte[] name){
+        int start = nameOffsets.get(city);
+        if (nameOffsets.get(city + 1) - start != name.length) return false;
+        for (int index = 0; index < name.length; index++){
+            if (buffer.get(namesStart + start + index) != name[index]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * A helper method to view a part of the buffer as ints
+     * @param position the first byte
+     * @param length the number of ints
+     * @return the int view
+     */
+    private IntBuffer slice(int position, int length){
+        ByteBuffer part = buffer.duplicate().order(buffer.order());
+        part.position(position).limit(position + 4 * length);
+        return part.slice().order(buffer.order()).asIntBuffer();
+    }
+}
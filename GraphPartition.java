@@ -0,0 +1,279 @@
+import java.util.Arrays;
+
+/**
+ * A split of the cities of a route graph into regions of about the same size with few routes between them, so each
+ * region can be kept in its own shard. Regions are first grown one at a time in BFS order up to their share of the
+ * cities, so a region stays connected unless its part of the graph runs out first and it continues from another
+ * free city. They are then improved by moving cities to the region most of their routes lead to while every region
+ * stays within its allowed sizes.
+ * The partition keeps only a few ints per city and the routes between regions, not the routes inside them.
+ * @author Quan Tran
+ * @references Karypis and Kumar, A fast and high quality multilevel scheme for partitioning irregular graphs
+ */
+public class GraphPartition {
+    /** How much larger or smaller than an even share a region may become while it is improved */
+    static final double IMBALANCE = 0.05;
+    /** The largest number of improvement passes over every city */
+    static final int REFINEMENT_PASSES = 8;
+
+    /** The names and numbers of every city, the same as in the partitioned graph */
+    private final CityDictionary dictionary = new CityDictionary();
+    /** The region of each city */
+    private final int[] region;
+    /** The number of each city inside its region, in the order of the partitioned graph */
+    private final int[] localId;
+    /** The number of cities of each region */
+    private final int[] regionSize;
+    /** The cities of each region with a route to another region, in city number order */
+    private final int[][] boundaryCities;
+    /** Three ints per route between two regions: the smaller city number, the other one and the distance */
+    private final int[] crossRoutes;
+
+    /**
+     * Initialize a partition from the region of every city
+     * @param graph the partitioned graph
+     * @param region the region of each city
+     * @param regionCount the number of regions
+     */
+    private GraphPartition(RouteGraph graph, int[] region, int regionCount){
+        int cityCount = graph.cityCount();
+        this.region = region;
+        this.localId = new int[cityCount];
+        this.regionSize = new int[regionCount];
+        // STEP 1: Number the cities inside their region and find the boundary cities and the routes between regions
+        int[] boundaryCount = new int[regionCount];
+        boolean[] boundary = new boolean[cityCount];
+        int crossCount = 0;
+        for (int city = 0; city < cityCount; city++){
+            dictionary.add(graph.cityName(city));
+            localId[city] = regionSize[region[city]]++;
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (region[neighbor] == region[city]) continue;
+                boundary[city] = true;
+                if (city < neighbor) crossCount++;
+            }
+            if (boundary[city]) boundaryCount[region[city]]++;
+        }
+        // STEP 2: Fill the arrays
+        boundaryCities = new int[regionCount][];
+        for (int part = 0; part < regionCount; part++){
+            boundaryCities[part] = new int[boundaryCount[part]];
+        }
+        Arrays.fill(boundaryCount, 0);
+        crossRoutes = new int[3 * crossCount];
+        int position = 0;
+        for (int city = 0; city < cityCount; city++){
+            if (boundary[city]) boundaryCities[region[city]][boundaryCount[region[city]]++] = city;
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (region[neighbor] == region[city] || city > neighbor) continue;
+                crossRoutes[position++] = city;
+                crossRoutes[position++] = neighbor;
+                crossRoutes[position++] = graph.distance(city, connection);
+            }
+        }
+    }
+
+    /**
+     * A method to split a graph into regions of about the same number of cities with few routes between them
+     * @param graph the graph, which must not be modified while it is being split
+     * @param regionCount the number of regions
+     * @return the partition
+     */
+    public static GraphPartition split(RouteGraph graph, int regionCount){
+        if (regionCount < 1) throw new IllegalArgumentException("There must be at least one region");
+        int cityCount = graph.cityCount();
+        int[] region = new int[cityCount];
+        int[] size = new int[regionCount];
+        grow(graph, region, size);
+        // The grown regions differ by at most one city, so the bounds below never start out broken
+        double share = (double) cityCount / regionCount;
+        int maxSize = Math.max((cityCount + regionCount - 1) / regionCount, (int) Math.ceil(share * (1 + IMBALANCE)));
+        int minSize = Math.max(Math.min(cityCount / regionCount, (int) Math.floor(share * (1 - IMBALANCE))), 1);
+        for (int pass = 0; pass < REFINEMENT_PASSES; pass++){
+            if (refine(graph, region, size, minSize, maxSize) == 0) break;
+        }
+        return new GraphPartition(graph, region, regionCount);
+    }
+
+    /**
+     * A helper method for split() that grows the regions one at a time in BFS order up to an even share each.
+     * The shares of two regions differ by at most one city, so the last regions are never left short.
+     * @param graph the graph
+     * @param region receives the region of each city
+     * @param size receives the number of cities of each region
+     */
+    private static void grow(RouteGraph graph, int[] region, int[] size){
+        int cityCount = graph.cityCount();
+        Arrays.fill(region, -1);
+        int[] queue = new int[cityCount];
+        // The lowest city number that may still be free, where a region starts when its BFS runs out of cities.
+        // Every neighbor of a region is taken once its BFS runs out, so no free city next to it is missed.
+        int next = 0;
+        for (int part = 0; part < size.length; part++){
+            int share = (int) ((long) cityCount * (part + 1) / size.length - (long) cityCount * part / size.length);
+            int head = 0;
+            int tail = 0;
+            while (size[part] < share){
+                if (head == tail){
+                    while (next < cityCount && region[next] >= 0) next++;
+                    if (next == cityCount) return;
+                    region[next] = part;
+                    size[part]++;
+                    queue[tail++] = next;
+                    continue;
+                }
+                int city = queue[head++];
+                for (int connection = 0; connection < graph.degree(city) && size[part] < share; connection++){
+                    int neighbor = graph.neighbor(city, connection);
+                    if (region[neighbor] >= 0) continue;
+                    region[neighbor] = part;
+                    size[part]++;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * A helper method for split() that moves every city whose routes mostly lead to another region into that
+     * region, if it has room and its own region can spare it. Each move lowers the number of routes between regions.
+     * @param graph the graph
+     * @param region the region of each city
+     * @param size the number of cities of each region
+     * @param minSize the smallest number of cities of a region, at least one
+     * @param maxSize the largest number of cities of a region
+     * @return the number of moved cities
+     */
+    private static int refine(RouteGraph graph, int[] region, int[] size, int minSize, int maxSize){
+        // The routes from the current city to each region, and the regions touched by them
+        int[] links = new int[size.length];
+        int[] touched = new int[size.length];
+        int moved = 0;
+        for (int city = 0; city < region.length; city++){
+            int own = region[city];
+            int touchedCount = 0;
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (neighbor == city) continue;
+                if (links[region[neighbor]]++ == 0) touched[touchedCount++] = region[neighbor];
+            }
+            int best = own;
+            for (int index = 0; index < touchedCount; index++){
+                int part = touched[index];
+                if (links[part] > links[best] && size[part] < maxSize) best = part;
+            }
+            for (int index = 0; index < touchedCount; index++){
+                links[touched[index]] = 0;
+            }
+            // A region never shrinks below its smallest size, so it is never emptied
+            if (best == own || size[own] <= minSize) continue;
+            region[city] = best;
+            size[own]--;
+            size[best]++;
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * A method to copy the cities of one region and the routes between them into a new airport system, which can
+     * be served as a shard. The cities are numbered in the order of the partitioned graph, as getLocalId() gives.
+     * @param graph the partitioned graph
+     * @param part the region
+     * @return the graph of the region
+     */
+    public AirportSystem regionGraph(RouteGraph graph, int part){
+        AirportSystem output = new AirportSystem();
+        for (int city = 0; city < region.length; city++){
+            if (region[city] == part) output.addCity(graph.cityName(city));
+        }
+        for (int city = 0; city < region.length; city++){
+            if (region[city] != part) continue;
+            // Each route is listed from both of its cities, the second copy is refused as a repeated route
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (region[neighbor] == part) output.addEdge(localId[city], localId[neighbor], graph.distance(city, connection));
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Retrieve the number of regions
+     * @return the number of regions
+     */
+    public int getRegionCount(){
+        return regionSize.length;
+    }
+
+    /**
+     * Retrieve the number of cities of the partitioned graph
+     * @return the number of cities
+     */
+    public int getCityCount(){
+        return region.length;
+    }
+
+    /**
+     * Retrieve the number of a city of the partitioned graph
+     * @param city the city name
+     * @return the city number, or -1 if the city is not in the graph
+     */
+    public int cityId(String city){
+        return dictionary.id(city);
+    }
+
+    /**
+     * Retrieve the region of a city
+     * @param city the city number
+     * @return the region
+     */
+    public int getRegion(int city){
+        return region[city];
+    }
+
+    /**
+     * Retrieve the number of a city inside its region
+     * @param city the city number
+     * @return the number of the city in the graph of its region
+     */
+    public int getLocalId(int city){
+        return localId[city];
+    }
+
+    /**
+     * Retrieve the number of cities of a region
+     * @param part the region
+     * @return the number of cities
+     */
+    public int getRegionSize(int part){
+        return regionSize[part];
+    }
+
+    /**
+     * Retrieve the cities of a region with a route to another region
+     * @param part the region
+     * @return the city numbers, in increasing order
+     */
+    public int[] getBoundaryCities(int part){
+        return boundaryCities[part].clone();
+    }
+
+    /**
+     * Retrieve the number of routes between two different regions
+     * @return the number of cut routes
+     */
+    public int getCutCount(){
+        return crossRoutes.length / 3;
+    }
+
+    /**
+     * Retrieve the routes between two different regions
+     * @return three ints per route: the smaller city number, the other one and the distance
+     */
+    int[] crossRoutes(){
+        return crossRoutes;
+    }
+}
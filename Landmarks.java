@@ -0,0 +1,110 @@
+/**
+ * Precomputed distances from a few landmark cities, used as a lower bound on the distance between any two cities.
+ * By the triangle inequality, |d(L, v) - d(L, t)| is never more than d(v, t), so the largest of these values over all
+ * landmarks is an admissible and consistent A* heuristic (the ALT technique).
+ * The bounds describe the graph at the time the landmarks were chosen and must be recomputed after routes are added.
+ * @author Quan Tran
+ */
+class Landmarks {
+    /** The landmark city numbers */
+    private final int[] cities;
+    /** The distance from each landmark to every city, DijkstraSearch.UNREACHABLE if there is no route */
+    private final long[][] distances;
+
+    /**
+     * Initialize the landmarks from their distance trees
+     * @param cities the landmark city numbers
+     * @param distances the distance tree of each landmark
+     */
+    private Landmarks(int[] cities, long[][] distances){
+        this.cities = cities;
+        this.distances = distances;
+    }
+
+    /**
+     * A method to choose landmarks with the farthest-point heuristic: each new landmark is the city that is farthest
+     * from the landmarks chosen so far, and cities that no landmark reaches come first so every part of a
+     * disconnected graph gets one.
+     * @param graph the graph
+     * @param count the number of landmarks
+     * @return the landmarks and their distance trees
+     */
+    static Landmarks select(RouteGraph graph, int count){
+        int cityCount = graph.cityCount();
+        count = Math.min(count, cityCount);
+        int[] cities = new int[count];
+        long[][] distances = new long[count][];
+        // The closest landmark distance of each city so far
+        long[] closest = new long[cityCount];
+        java.util.Arrays.fill(closest, DijkstraSearch.UNREACHABLE);
+        DijkstraSearch search = new DijkstraSearch(graph);
+        int next = 0;
+        for (int landmark = 0; landmark < count; landmark++){
+            cities[landmark] = next;
+            search.run(next, -1);
+            distances[landmark] = search.distances();
+            // Pick the city that is farthest from every landmark chosen so far
+            long farthest = -1;
+            for (int city = 0; city < cityCount; city++){
+                closest[city] = Math.min(closest[city], distances[landmark][city]);
+                if (closest[city] > farthest){
+                    farthest = closest[city];
+                    next = city;
+                }
+            }
+        }
+        return new Landmarks(cities, distances);
+    }
+
+    /**
+     * Retrieve a lower bound on the distance between two cities
+     * @param city the first city number
+     * @param target the second city number
+     * @return the largest landmark bound, or 0 if no landmark knows about the cities
+     */
+    long lowerBound(int city, int target){
+        long bound = 0;
+        for (int landmark = 0; landmark < distances.length; landmark++){
+            long[] tree = distances[landmark];
+            // Cities added after the landmarks were chosen, or away from the landmark, give no information
+            if (city >= tree.length || target >= tree.length) continue;
+            long fromCity = tree[city];
+            long fromTarget = tree[target];
+            if (fromCity == DijkstraSearch.UNREACHABLE || fromTarget == DijkstraSearch.UNREACHABLE) continue;
+            bound = Math.max(bound, Math.abs(fromCity - fromTarget));
+        }
+        return bound;
+    }
+
+    /**
+     * Check if the landmarks prove that two cities are in different parts of the graph
+     * @param cityA the first city number
+     * @param cityB the second city number
+     * @return true if some landmark reaches exactly one of the two cities
+     */
+    boolean separated(int cityA, int cityB){
+        for (int landmark = 0; landmark < distances.length; landmark++){
+            long[] tree = distances[landmark];
+            if (cityA >= tree.length || cityB >= tree.length) continue;
+            if ((tree[cityA] == DijkstraSearch.UNREACHABLE) != (tree[cityB] == DijkstraSearch.UNREACHABLE)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieve the number of landmarks
+     * @return the number of landmarks
+     */
+    int count(){
+        return cities.length;
+    }
+
+    /**
+     * Retrieve a landmark city
+     * @param landmark the landmark position
+     * @return the city number of the landmark
+     */
+    int city(int landmark){
+        return cities[landmark];
+    }
+}
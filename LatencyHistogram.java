@@ -0,0 +1,120 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size latency histogram in the style of HdrHistogram. Values are counted in buckets whose width grows
+ * with the value, so every recorded value is kept with a relative error below 1% from 1 nanosecond up to about
+ * 18 minutes while using a fixed 35 KB of memory. Recording never allocates and is safe from many threads.
+ * @author Quan Tran
+ */
+public class LatencyHistogram {
+    /** The number of bits kept below the highest bit of a value, so each power of two has 128 buckets */
+    private static final int SUB_BUCKET_BITS = 7;
+    /** The number of buckets of each power of two */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The largest value that can be recorded, larger values are counted as this value */
+    static final long HIGHEST_TRACKABLE_VALUE = (1L << 40) - 1;
+    /** The number of buckets */
+    private static final int BUCKET_COUNT = index(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    /** The number of values recorded in each bucket */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    /** The number of recorded values */
+    private final AtomicLong totalCount = new AtomicLong();
+    /** The sum of the recorded values */
+    private final AtomicLong totalValue = new AtomicLong();
+    /** The largest recorded value */
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record one value
+     * @param value the value, for example a latency in nanoseconds. Negative values are counted as 0
+     */
+    public void record(long value){
+        value = Math.max(0, Math.min(value, HIGHEST_TRACKABLE_VALUE));
+        counts.incrementAndGet(index(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)){
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Retrieve the number of recorded values
+     * @return the number of values
+     */
+    public long getCount(){
+        return totalCount.get();
+    }
+
+    /**
+     * Retrieve the largest recorded value
+     * @return the largest value, or 0 if nothing was recorded
+     */
+    public long getMax(){
+        return maxValue.get();
+    }
+
+    /**
+     * Retrieve the average of the recorded values
+     * @return the average, or 0 if nothing was recorded
+     */
+    public double getMean(){
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalValue.get() / count;
+    }
+
+    /**
+     * Retrieve the value below which a percentage of the recorded values fall
+     * @param percentile the percentage, between 0 and 100
+     * @return the largest value of the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile){
+        long count = totalCount.get();
+        if (count == 0) return 0;
+        // The rank of the wanted value among the recorded values, counting from 1
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++){
+            seen += counts.get(bucket);
+            if (seen >= rank) return Math.min(highestValue(bucket), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Forget every recorded value. Values recorded at the same time by other threads may be partly kept.
+     */
+    public void reset(){
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++){
+            counts.set(bucket, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * A helper method to find the bucket of a value. Values below 256 have their own bucket, larger values share a
+     * bucket with the values that have the same 8 highest bits.
+     * @param value the value, between 0 and HIGHEST_TRACKABLE_VALUE
+     * @return the bucket number
+     */
+    private static int index(long value){
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value | (2 * SUB_BUCKET_COUNT - 1)) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * A helper method to find the largest value counted in a bucket
+     * @param bucket the bucket number
+     * @return the largest value of the bucket
+     */
+    private static long highestValue(int bucket){
+        int shift = bucket < 2 * SUB_BUCKET_COUNT ? 0 : (bucket >> SUB_BUCKET_BITS) - 1;
+        long subBucket = bucket - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
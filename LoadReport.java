@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a bulk load of routes: how many were added and why the others were rejected.
+ * Only the first MAX_REJECTIONS rejected rows are described, the counts cover all of them.
+ * @author Quan Tran
+ */
+public class LoadReport {
+    /** The number of rejected rows that are described */
+    static final int MAX_REJECTIONS = 1000;
+
+    /** The number of routes added to the graph */
+    private long addedCount;
+    /** The number of rows rejected because of a negative distance */
+    private long negativeCount;
+    /** The number of rows rejected because the two cities are already connected */
+    private long duplicateCount;
+    /** The number of rows that could not be parsed */
+    private long malformedCount;
+    /** The input line of the first rejected rows */
+    private final List<Long> rejectionLines = new ArrayList<>();
+    /** Why each of the first rejected rows was rejected */
+    private final List<String> rejectionReasons = new ArrayList<>();
+
+    /**
+     * Count an added route
+     */
+    void added(){
+        addedCount++;
+    }
+
+    /**
+     * Count a row with a negative distance
+     * @param line the input line, or 0 if the route was not read from a file
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the distance
+     */
+    void negative(long line, String source, String destination, int weight){
+        negativeCount++;
+        describe(line, "negative distance " + weight + " between " + source + " and " + destination);
+    }
+
+    /**
+     * Count a row whose cities are already connected
+     * @param line the input line, or 0 if the route was not read from a file
+     * @param source the starting city
+     * @param destination the final city
+     */
+    void duplicate(long line, String source, String destination){
+        duplicateCount++;
+        describe(line, "duplicate route between " + source + " and " + destination);
+    }
+
+    /**
+     * Count a row that could not be parsed
+     * @param line the input line
+     * @param reason why the row could not be parsed
+     */
+    void malformed(long line, String reason){
+        malformedCount++;
+        describe(line, reason);
+    }
+
+    /**
+     * Add the malformed rows of a part of the input that was parsed separately
+     * @param other the report of that part
+     * @param lineOffset the number added to its line numbers
+     */
+    void mergeMalformed(LoadReport other, long lineOffset){
+        malformedCount += other.malformedCount;
+        for (int index = 0; index < other.rejectionLines.size(); index++){
+            describe(other.rejectionLines.get(index) + lineOffset, other.rejectionReasons.get(index));
+        }
+    }
+
+    /**
+     * A helper method to describe a rejected row while there is room
+     * @param line the input line, or 0 if the route was not read from a file
+     * @param reason why the row was rejected
+     */
+    private void describe(long line, String reason){
+        if (rejectionLines.size() == MAX_REJECTIONS) return;
+        rejectionLines.add(line);
+        rejectionReasons.add(reason);
+    }
+
+    /**
+     * Retrieve the number of routes added to the graph
+     * @return the number of added routes
+     */
+    public long getAddedCount(){
+        return addedCount;
+    }
+
+    /**
+     * Retrieve the number of rows rejected because of a negative distance
+     * @return the number of negative rows
+     */
+    public long getNegativeCount(){
+        return negativeCount;
+    }
+
+    /**
+     * Retrieve the number of rows rejected because the two cities are already connected
+     * @return the number of duplicate rows
+     */
+    public long getDuplicateCount(){
+        return duplicateCount;
+    }
+
+    /**
+     * Retrieve the number of rows that could not be parsed
+     * @return the number of malformed rows
+     */
+    public long getMalformedCount(){
+        return malformedCount;
+    }
+
+    /**
+     * Retrieve a description of the first rejected rows, such as "line 12: negative distance -5 between A and B"
+     * @return the descriptions, at most MAX_REJECTIONS of them
+     */
+    public List<String> getRejections(){
+        List<String> output = new ArrayList<>();
+        for (int index = 0; index < rejectionLines.size(); index++){
+            output.add("line " + rejectionLines.get(index) + ": " + rejectionReasons.get(index));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * A region shard kept in the same process as the partitioned airport system
+ * @author Quan Tran
+ */
+class LocalRegionShard implements RegionShard {
+    /** The search over the routes of the region, reused by every call */
+    private final DijkstraSearch search;
+
+    /**
+     * Initialize a shard over the graph of a region
+     * @param graph the graph of the region, which must not be modified while the shard is used
+     */
+    LocalRegionShard(RouteGraph graph){
+        this.search = new DijkstraSearch(graph);
+    }
+
+    @Override
+    public synchronized int[] distances(int source, int[] targets){
+        int[] output = new int[targets.length];
+        if (targets.length == 0) return output;
+        // One search settles every target
+        search.runToTargets(source, targets, 0, targets.length);
+        for (int index = 0; index < targets.length; index++){
+            output[index] = DijkstraSearch.toIntDistance(search.distanceTo(targets[index]));
+        }
+        return output;
+    }
+}
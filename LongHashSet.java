@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+/**
+ * A set of long values stored in an open-addressing table, so adding a value never allocates an object.
+ * It is used to detect repeated city pairs without boxing them.
+ * @author Quan Tran
+ */
+class LongHashSet {
+    /** The value that marks an empty slot, which therefore cannot be stored */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** The slots of the table */
+    private long[] slots;
+    /** The number of values inside the set */
+    private int size;
+
+    /**
+     * Initialize an empty set
+     * @param expectedSize the number of values the set should hold without growing
+     */
+    LongHashSet(int expectedSize){
+        slots = new long[tableSize(expectedSize)];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Add a value to the set
+     * @param value the value, which must not be Long.MIN_VALUE
+     * @return true if the value was not in the set before
+     */
+    boolean add(long value){
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        while (slots[index] != EMPTY){
+            if (slots[index] == value) return false;
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        // Keep the table at most half full so probes stay short
+        if (++size * 2 > slots.length) grow();
+        return true;
+    }
+
+    /**
+     * Check if a value is in the set
+     * @param value the value
+     * @return true if the value is in the set
+     */
+    boolean contains(long value){
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        while (slots[index] != EMPTY){
+            if (slots[index] == value) return true;
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieve the number of values inside the set
+     * @return the number of values
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * A helper method to double the table and add every value again
+     */
+    private void grow(){
+        long[] oldSlots = slots;
+        slots = new long[oldSlots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+        for (long value : oldSlots){
+            if (value != EMPTY) add(value);
+        }
+    }
+
+    /**
+     * A helper method to spread the bits of a value over the table
+     * @param value the value
+     * @return the hash of the value
+     */
+    private static int hash(long value){
+        long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * A helper method to find a power of two table size for an expected number of values
+     * @param expectedSize the number of values
+     * @return the table size
+     */
+    private static int tableSize(int expectedSize){
+        int size = 4;
+        while (size < expectedSize * 2L && size < (1 << 30)) size <<= 1;
+        return size;
+    }
+}
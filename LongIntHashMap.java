@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/**
+ * A map from long keys to int values stored in an open-addressing table, so no key or value is ever boxed.
+ * It is used to find the forest route between a pair of cities while scanning connections.
+ * @author Quan Tran
+ */
+class LongIntHashMap {
+    /** The key that marks an empty slot, which therefore cannot be stored */
+    private static final long EMPTY = Long.MIN_VALUE;
+    /** The value returned for a key that is not in the map */
+    static final int MISSING = -1;
+
+    /** The keys of the table */
+    private long[] keys;
+    /** The value of the key in the same slot */
+    private int[] values;
+    /** The number of keys inside the map */
+    private int size;
+
+    /**
+     * Initialize an empty map
+     * @param expectedSize the number of keys the map should hold without growing
+     */
+    LongIntHashMap(int expectedSize){
+        int tableSize = 4;
+        while (tableSize < expectedSize * 2L && tableSize < (1 << 30)) tableSize <<= 1;
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Retrieve the value of a key
+     * @param key the key
+     * @return the value, or MISSING if the key is not in the map
+     */
+    int get(long key){
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY){
+            if (keys[index] == key) return values[index];
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Set the value of a key, adding the key if it is not in the map
+     * @param key the key, which must not be Long.MIN_VALUE
+     * @param value the value
+     */
+    void put(long key, int value){
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY){
+            if (keys[index] == key){
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        // Keep the table at most half full so probes stay short
+        if (++size * 2 > keys.length) grow();
+    }
+
+    /**
+     * Remove a key and its value
+     * @param key the key
+     * @return the removed value, or MISSING if the key was not in the map
+     */
+    int remove(long key){
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != key){
+            if (keys[index] == EMPTY) return MISSING;
+            index = (index + 1) & mask;
+        }
+        int removed = values[index];
+        size--;
+        // Move back every later key of the same run that would no longer be found past the emptied slot
+        int hole = index;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask){
+            int home = hash(keys[next]) & mask;
+            // The key stays if its home slot lies cyclically after the hole and up to its own slot
+            if (((next - home) & mask) < ((next - hole) & mask)) continue;
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+        }
+        keys[hole] = EMPTY;
+        return removed;
+    }
+
+    /**
+     * Retrieve the number of keys inside the map
+     * @return the number of keys
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * A helper method to double the table and add every key again
+     */
+    private void grow(){
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int index = 0; index < oldKeys.length; index++){
+            if (oldKeys[index] != EMPTY) put(oldKeys[index], oldValues[index]);
+        }
+    }
+
+    /**
+     * A helper method to spread the bits of a key over the table
+     * @param key the key
+     * @return the hash of the key
+     */
+    private static int hash(long key){
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of one airport system operation: a latency histogram and the amount of work done by the recorded calls
+ * @author Quan Tran
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+    /** The number of nanoseconds in a microsecond */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /** The name of the operation, for example "shortestDistance" */
+    private final String name;
+    /** The latency of the recorded calls in nanoseconds */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /** The number of cities settled or visited */
+    private final AtomicLong verticesSettled = new AtomicLong();
+    /** The number of connections examined */
+    private final AtomicLong edgesRelaxed = new AtomicLong();
+    /** The largest queue size of a single call */
+    private final AtomicLong queuePeak = new AtomicLong();
+
+    /**
+     * Initialize the metrics of an operation
+     * @param name the name of the operation
+     */
+    OperationMetrics(String name){
+        this.name = name;
+    }
+
+    /**
+     * A method to record one call
+     * @param latencyNanos the duration of the call in nanoseconds
+     * @param settled the number of cities settled or visited
+     * @param relaxed the number of connections examined
+     * @param peak the largest number of cities waiting in the queue
+     */
+    void record(long latencyNanos, int settled, long relaxed, int peak){
+        latency.record(latencyNanos);
+        if (settled > 0) verticesSettled.addAndGet(settled);
+        if (relaxed > 0) edgesRelaxed.addAndGet(relaxed);
+        long current = queuePeak.get();
+        while (peak > current && !queuePeak.compareAndSet(current, peak)){
+            current = queuePeak.get();
+        }
+    }
+
+    /**
+     * Retrieve the name of the operation
+     * @return the name, for example "shortestDistance"
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Retrieve the latency histogram, in nanoseconds
+     * @return the histogram
+     */
+    public LatencyHistogram getLatencyHistogram(){
+        return latency;
+    }
+
+    @Override
+    public long getCount(){
+        return latency.getCount();
+    }
+
+    @Override
+    public double getMeanMicros(){
+        return latency.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP50Micros(){
+        return latency.getValueAtPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP90Micros(){
+        return latency.getValueAtPercentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP99Micros(){
+        return latency.getValueAtPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getP999Micros(){
+        return latency.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxMicros(){
+        return latency.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getVerticesSettled(){
+        return verticesSettled.get();
+    }
+
+    @Override
+    public long getEdgesRelaxed(){
+        return edgesRelaxed.get();
+    }
+
+    @Override
+    public long getQueuePeak(){
+        return queuePeak.get();
+    }
+
+    @Override
+    public void reset(){
+        latency.reset();
+        verticesSettled.set(0);
+        edgesRelaxed.set(0);
+        queuePeak.set(0);
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%s: count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus settled=%d relaxed=%d queuePeak=%d",
+                name, getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getMaxMicros(),
+                getVerticesSettled(), getEdgesRelaxed(), getQueuePeak());
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * The management interface of the metrics of one airport system operation, as shown by JConsole or any JMX client
+ * @author Quan Tran
+ */
+public interface OperationMetricsMBean {
+    /**
+     * Retrieve the number of recorded calls
+     * @return the number of calls
+     */
+    long getCount();
+
+    /**
+     * Retrieve the average latency
+     * @return the average latency in microseconds
+     */
+    double getMeanMicros();
+
+    /**
+     * Retrieve the median latency
+     * @return the median latency in microseconds
+     */
+    double getP50Micros();
+
+    /**
+     * Retrieve the 90th percentile latency
+     * @return the 90th percentile latency in microseconds
+     */
+    double getP90Micros();
+
+    /**
+     * Retrieve the 99th percentile latency
+     * @return the 99th percentile latency in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Retrieve the 99.9th percentile latency
+     * @return the 99.9th percentile latency in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Retrieve the largest latency
+     * @return the largest latency in microseconds
+     */
+    double getMaxMicros();
+
+    /**
+     * Retrieve the number of cities settled or visited by all recorded calls
+     * @return the number of cities
+     */
+    long getVerticesSettled();
+
+    /**
+     * Retrieve the number of connections examined by all recorded calls
+     * @return the number of connections
+     */
+    long getEdgesRelaxed();
+
+    /**
+     * Retrieve the largest number of cities waiting in the queue of a single call
+     * @return the largest queue size
+     */
+    long getQueuePeak();
+
+    /**
+     * Forget every recorded call
+     */
+    void reset();
+}
@@ -0,0 +1,300 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A parallel breadth-first traversal for very large graphs. The cities are visited one level at a time, each level
+ * split across a fork-join pool. While the frontier is small every frontier city claims its unvisited neighbors
+ * in an atomic visited bitmap (top-down). Once the connections of the frontier outweigh those of the unvisited
+ * cities, every unvisited city looks for a neighbor in the frontier instead (bottom-up), which skips most of the
+ * connections on the large middle levels of low-diameter graphs.
+ * The result has the same cities and levels as the sequential traversal. A city reached from several cities of
+ * the previous level may record any of them as its parent.
+ * @author Quan Tran
+ * @references Beamer, Asanovic and Patterson, Direction-optimizing breadth-first search
+ */
+public class ParallelBreadthFirstSearch {
+    /** The level of a city that was not reached */
+    public static final int UNREACHED = -1;
+    /** Go bottom-up once the frontier has more than 1/ALPHA of the connections left to check */
+    private static final int ALPHA = 14;
+    /** Go back top-down once the frontier has fewer than 1/BETA of the cities */
+    private static final int BETA = 24;
+
+    /** The traversed graph */
+    private final RouteGraph graph;
+    /** The number of connections between the start city and each city, or UNREACHED */
+    private final int[] level;
+    /** The city each city was reached from, or -1 for the start city and unreached cities */
+    private final int[] parent;
+    /** The number of reached cities */
+    private int reachedCount;
+    /** The number of levels, the start city being level 0 */
+    private int levelCount;
+    /** The number of levels traversed bottom-up */
+    private int bottomUpLevels;
+
+    /**
+     * Initialize an empty result
+     * @param graph the graph
+     */
+    private ParallelBreadthFirstSearch(RouteGraph graph){
+        this.graph = graph;
+        this.level = new int[graph.cityCount()];
+        this.parent = new int[graph.cityCount()];
+        Arrays.fill(level, UNREACHED);
+        Arrays.fill(parent, -1);
+    }
+
+    /**
+     * A method to traverse a graph from a start city in parallel
+     * @param graph the graph, which must not be modified during the traversal
+     * @param start the start city number, or -1 for an empty result
+     * @param parallelism the number of worker threads
+     * @return the level and parent of every city
+     */
+    static ParallelBreadthFirstSearch search(RouteGraph graph, int start, int parallelism){
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        ParallelBreadthFirstSearch result = new ParallelBreadthFirstSearch(graph);
+        if (start < 0) return result;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            result.traverse(pool, start);
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * A helper method for search() that visits the graph level by level
+     * @param pool the pool that runs the levels
+     * @param start the start city number
+     */
+    private void traverse(ForkJoinPool pool, int start){
+        int cityCount = graph.cityCount();
+        AtomicLongArray visited = new AtomicLongArray((cityCount + 63) >>> 6);
+        // The connections still to be checked by a top-down level, which decide the direction
+        long unvisitedConnections = 0;
+        for (int city = 0; city < cityCount; city++){
+            unvisitedConnections += graph.degree(city);
+        }
+        int chunkCount = pool.getParallelism() * 8;
+        int[][] found = new int[chunkCount][];
+        for (int chunk = 0; chunk < chunkCount; chunk++){
+            found[chunk] = new int[16];
+        }
+        int[] foundCount = new int[chunkCount];
+        long[] foundConnections = new long[chunkCount];
+        int[] frontier = {start};
+        int frontierSize = 1;
+        long frontierConnections = graph.degree(start);
+        claim(visited, start);
+        level[start] = 0;
+        reachedCount = 1;
+        unvisitedConnections -= frontierConnections;
+        boolean bottomUp = false;
+        for (int depth = 0; frontierSize > 0; depth++){
+            levelCount = depth + 1;
+            // STEP 1: Choose the direction from the size of the frontier and of the unvisited part
+            if (!bottomUp && frontierConnections > unvisitedConnections / ALPHA) bottomUp = true;
+            else if (bottomUp && frontierSize < cityCount / BETA) bottomUp = false;
+            // STEP 2: Find the next level, each chunk collecting its own cities
+            Arrays.fill(foundCount, 0);
+            Arrays.fill(foundConnections, 0);
+            final int[] current = frontier;
+            final int currentSize = frontierSize;
+            final int currentDepth = depth;
+            if (bottomUp){
+                bottomUpLevels++;
+                ParallelRange.forEach(pool, 0, chunkCount, 1, (from, to) -> {
+                    for (int chunk = from; chunk < to; chunk++){
+                        bottomUpStep(visited, currentDepth, chunk, chunkCount, found, foundCount, foundConnections);
+                    }
+                });
+            } else {
+                ParallelRange.forEach(pool, 0, chunkCount, 1, (from, to) -> {
+                    for (int chunk = from; chunk < to; chunk++){
+                        topDownStep(visited, current, currentSize, chunk, chunkCount, found, foundCount, foundConnections);
+                    }
+                });
+            }
+            // STEP 3: Join the chunks into the next frontier
+            frontierSize = 0;
+            frontierConnections = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++){
+                frontierSize += foundCount[chunk];
+                frontierConnections += foundConnections[chunk];
+            }
+            if (frontier.length < frontierSize) frontier = new int[Math.max(frontierSize, frontier.length * 2)];
+            int size = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++){
+                System.arraycopy(found[chunk], 0, frontier, size, foundCount[chunk]);
+                size += foundCount[chunk];
+            }
+            reachedCount += frontierSize;
+            unvisitedConnections -= frontierConnections;
+        }
+    }
+
+    /**
+     * A helper method for traverse() where one chunk of the frontier claims the unvisited neighbors of its cities
+     * @param visited the visited bitmap
+     * @param frontier the cities of the current level
+     * @param frontierSize the number of cities of the current level
+     * @param chunk the chunk number
+     * @param chunkCount the number of chunks
+     * @param found the cities found by each chunk
+     * @param foundCount the number of cities found by each chunk
+     * @param foundConnections the number of connections of the cities found by each chunk
+     */
+    private void topDownStep(AtomicLongArray visited, int[] frontier, int frontierSize, int chunk, int chunkCount,
+                             int[][] found, int[] foundCount, long[] foundConnections){
+        int from = (int) ((long) frontierSize * chunk / chunkCount);
+        int to = (int) ((long) frontierSize * (chunk + 1) / chunkCount);
+        int[] output = found[chunk];
+        int count = 0;
+        long connections = 0;
+        for (int index = from; index < to; index++){
+            int city = frontier[index];
+            int nextLevel = level[city] + 1;
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                // Only the thread that sets the bit records the neighbor
+                if (!claim(visited, neighbor)) continue;
+                level[neighbor] = nextLevel;
+                parent[neighbor] = city;
+                if (count == output.length) output = Arrays.copyOf(output, count * 2);
+                output[count++] = neighbor;
+                connections += graph.degree(neighbor);
+            }
+        }
+        found[chunk] = output;
+        foundCount[chunk] = count;
+        foundConnections[chunk] = connections;
+    }
+
+    /**
+     * A helper method for traverse() where the unvisited cities of one chunk of the graph look for a neighbor in the
+     * current level. Each city is only written by its own chunk, so no city needs to be claimed.
+     * @param visited the visited bitmap
+     * @param depth the level of the current frontier
+     * @param chunk the chunk number
+     * @param chunkCount the number of chunks
+     * @param found the cities found by each chunk
+     * @param foundCount the number of cities found by each chunk
+     * @param foundConnections the number of connections of the cities found by each chunk
+     */
+    private void bottomUpStep(AtomicLongArray visited, int depth, int chunk, int chunkCount,
+                              int[][] found, int[] foundCount, long[] foundConnections){
+        int cityCount = level.length;
+        // Chunks end on multiples of 64 so each word of the bitmap is read by one chunk only
+        int words = (cityCount + 63) >>> 6;
+        int from = Math.min(cityCount, (int) ((long) words * chunk / chunkCount) << 6);
+        int to = Math.min(cityCount, (int) ((long) words * (chunk + 1) / chunkCount) << 6);
+        int[] output = found[chunk];
+        int count = 0;
+        long connections = 0;
+        for (int city = from; city < to; city++){
+            if (level[city] != UNREACHED) continue;
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (level[neighbor] != depth) continue;
+                // The first neighbor in the frontier is enough, the other connections are skipped
+                claim(visited, city);
+                level[city] = depth + 1;
+                parent[city] = neighbor;
+                if (count == output.length) output = Arrays.copyOf(output, count * 2);
+                output[count++] = city;
+                connections += graph.degree(city);
+                break;
+            }
+        }
+        found[chunk] = output;
+        foundCount[chunk] = count;
+        foundConnections[chunk] = connections;
+    }
+
+    /**
+     * A helper method to set the visited bit of a city
+     * @param visited the visited bitmap
+     * @param city the city number
+     * @return true if this call set the bit, false if the city was already visited
+     */
+    private static boolean claim(AtomicLongArray visited, int city){
+        int word = city >>> 6;
+        long mask = 1L << city;
+        long current = visited.get(word);
+        while ((current & mask) == 0){
+            if (visited.compareAndSet(word, current, current | mask)) return true;
+            current = visited.get(word);
+        }
+        return false;
+    }
+
+    /**
+     * Retrieve the number of connections between the start city and a city
+     * @param city the city
+     * @return the level of the city, or UNREACHED if it was not reached or is not in the graph
+     */
+    public int getLevel(String city){
+        int id = graph.cityId(city);
+        return id < 0 || id >= level.length ? UNREACHED : level[id];
+    }
+
+    /**
+     * Retrieve the city a city was reached from, which is one level closer to the start city
+     * @param city the city
+     * @return the parent city, or null for the start city and cities that were not reached
+     */
+    public String getParent(String city){
+        int id = graph.cityId(city);
+        return id < 0 || id >= parent.length || parent[id] < 0 ? null : graph.cityName(parent[id]);
+    }
+
+    /**
+     * Retrieve the reached cities level by level, each level in city number order
+     * @return the reached cities
+     */
+    public List<String> getReachedCities(){
+        // Count the cities of each level, then place them in level order
+        int[] offsets = new int[levelCount + 1];
+        for (int city = 0; city < level.length; city++){
+            if (level[city] != UNREACHED) offsets[level[city] + 1]++;
+        }
+        for (int depth = 0; depth < levelCount; depth++){
+            offsets[depth + 1] += offsets[depth];
+        }
+        String[] output = new String[reachedCount];
+        for (int city = 0; city < level.length; city++){
+            if (level[city] != UNREACHED) output[offsets[level[city]]++] = graph.cityName(city);
+        }
+        return new ArrayList<>(Arrays.asList(output));
+    }
+
+    /**
+     * Retrieve the number of reached cities, including the start city
+     * @return the number of reached cities
+     */
+    public int getReachedCount(){
+        return reachedCount;
+    }
+
+    /**
+     * Retrieve the number of levels, the start city alone being the first level
+     * @return the number of levels, or 0 if the start city is not in the graph
+     */
+    public int getLevelCount(){
+        return levelCount;
+    }
+
+    /**
+     * Retrieve the number of levels that were traversed bottom-up
+     * @return the number of bottom-up levels
+     */
+    public int getBottomUpLevels(){
+        return bottomUpLevels;
+    }
+}
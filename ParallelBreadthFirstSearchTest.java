@@ -0,0 +1,79 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A JUnit class to test the parallel direction-optimizing breadth-first traversal
+ */
+public class ParallelBreadthFirstSearchTest {
+
+    /**
+     * A helper method to check a parallel traversal against the sequential one
+     * @param airportSystem the airport system
+     * @param start the start city
+     * @param parallelism the number of worker threads
+     * @return the parallel traversal
+     */
+    private static ParallelBreadthFirstSearch checkAgainstSequential(AirportSystem airportSystem, String start, int parallelism) {
+        ParallelBreadthFirstSearch parallel = airportSystem.parallelBreadthFirstSearch(start, parallelism);
+        List<String> sequential = airportSystem.breadthFirstSearch(start);
+        assertEquals(new HashSet<>(sequential), new HashSet<>(parallel.getReachedCities()));
+        assertEquals(sequential.size(), parallel.getReachedCount());
+        // The levels never decrease along the sequential order and every parent is one level closer
+        int previousLevel = 0;
+        for (String city : sequential) {
+            int level = parallel.getLevel(city);
+            assertTrue(level == previousLevel || level == previousLevel + 1);
+            previousLevel = level;
+            if (level > 0) assertEquals(level - 1, parallel.getLevel(parallel.getParent(city)));
+        }
+        assertEquals(previousLevel + 1, parallel.getLevelCount());
+        return parallel;
+    }
+
+    @org.junit.Test
+    public void smallGraph() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("A", "B", 1);
+        airportSystem.addEdge("A", "C", 1);
+        airportSystem.addEdge("B", "D", 1);
+        airportSystem.addEdge("C", "D", 1);
+        airportSystem.addEdge("D", "E", 1);
+        airportSystem.addEdge("X", "Y", 1);
+        ParallelBreadthFirstSearch search = checkAgainstSequential(airportSystem, "A", 2);
+
+        // Case 1: Levels, parents and unreached cities
+        assertEquals(Arrays.asList("A", "B", "C", "D", "E"), search.getReachedCities());
+        assertEquals(2, search.getLevel("D"));
+        assertNull(search.getParent("A"));
+        assertEquals("D", search.getParent("E"));
+        assertEquals(ParallelBreadthFirstSearch.UNREACHED, search.getLevel("X"));
+        assertNull(search.getParent("X"));
+
+        // Case 2: An unknown start city reaches nothing
+        search = airportSystem.parallelBreadthFirstSearch("Z", 2);
+        assertEquals(0, search.getReachedCount());
+        assertEquals(0, search.getLevelCount());
+        assertTrue(search.getReachedCities().isEmpty());
+    }
+
+    @org.junit.Test
+    public void largeGraphs() {
+        // Case 1: A random low-diameter graph goes bottom-up on its middle levels
+        AirportSystem dense = DijkstraSearchTest.randomGraph(20000, 100000, 3);
+        ParallelBreadthFirstSearch search = checkAgainstSequential(dense, "0", 4);
+        assertTrue(search.getBottomUpLevels() > 0);
+        checkAgainstSequential(dense, "19999", 1);
+
+        // Case 2: A long path of small levels
+        AirportSystem path = new AirportSystem();
+        for (int city = 0; city < 5000; city++) {
+            path.addEdge(String.valueOf(city), String.valueOf(city + 1), 1);
+        }
+        search = checkAgainstSequential(path, "2500", 3);
+        assertEquals(2501, search.getLevelCount());
+        assertEquals(2500, search.getLevel("0"));
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A fork-join helper that splits a range of numbers (cities, edges, file chunks...) into tasks.
+ * Each leaf task receives a whole sub-range so it can create its own per-thread state once.
+ * @author Quan Tran
+ */
+class ParallelRange {
+    /** The work done on a sub-range of numbers */
+    interface Body {
+        /**
+         * Process the numbers from "from" (inclusive) to "to" (exclusive)
+         * @param from the first number
+         * @param to one past the last number
+         */
+        void run(int from, int to);
+    }
+
+    /** Prevent instantiation, this class only has static methods */
+    private ParallelRange(){
+    }
+
+    /**
+     * Run a body over a range of numbers on a fork-join pool and wait for all of it to finish
+     * @param pool the pool that runs the tasks
+     * @param from the first number
+     * @param to one past the last number
+     * @param grain the largest sub-range that is not split any further
+     * @param body the work done on each sub-range
+     */
+    static void forEach(ForkJoinPool pool, int from, int to, int grain, Body body){
+        if (from >= to) return;
+        pool.invoke(new RangeTask(from, to, Math.max(grain, 1), body));
+    }
+
+    /**
+     * Choose a grain that gives each worker of the pool several tasks to balance uneven work
+     * @param pool the pool that runs the tasks
+     * @param size the number of items in the range
+     * @return the grain for forEach()
+     */
+    static int grainFor(ForkJoinPool pool, int size){
+        return Math.max(1, size / (pool.getParallelism() * 8));
+    }
+
+    /** A task that splits its range in half until it is small enough to run */
+    private static class RangeTask extends RecursiveAction {
+        /** The version of the serialized form, which RecursiveAction requires even though tasks are never serialized */
+        private static final long serialVersionUID = 1L;
+        /** The first number of the range */
+        private final int from;
+        /** One past the last number of the range */
+        private final int to;
+        /** The largest range that is not split */
+        private final int grain;
+        /** The work done on the range */
+        private final Body body;
+
+        /**
+         * Initialize a task over a range
+         * @param from the first number
+         * @param to one past the last number
+         * @param grain the largest range that is not split
+         * @param body the work done on the range
+         */
+        RangeTask(int from, int to, int grain, Body body){
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from <= grain){
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, body), new RangeTask(middle, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An airport system split into region shards for graphs that do not fit in one process. The shards hold the
+ * routes inside their region, while this object only holds the partition and an overlay graph of the boundary
+ * cities: inside each region every pair of its boundary cities is joined by their distance within the region, and
+ * the routes between regions are kept as they are.
+ * A query asks the shard of each city for its distances to the boundary of its region, then searches the overlay
+ * from one boundary to the other. Any route that leaves the region of the source city enters the overlay at its
+ * first boundary city and leaves it at the last one, so the result equals the distance in the whole graph.
+ * Like the airport system itself, this class is not thread-safe.
+ * @author Quan Tran
+ * @references Sanders and Schultes, Engineering fast route planning algorithms (partition-based overlays)
+ */
+public class PartitionedAirportSystem {
+    /** The distance of an overlay city that has not been reached */
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /** The partition of the cities into regions */
+    private final GraphPartition partition;
+    /** The shard of each region */
+    private final RegionShard[] shards;
+    /** The number inside its region of each boundary city of each region */
+    private final int[][] boundaryLocal;
+    /** The overlay number of each boundary city of each region */
+    private final int[][] boundaryNodes;
+    /** The overlay number of each city, or -1 for cities that are not on a boundary */
+    private final int[] overlayNode;
+    /** Where the overlay connections of each overlay city start, with one extra entry for the end */
+    private final int[] offsets;
+    /** The overlay city at the end of each overlay connection */
+    private final int[] targets;
+    /** The distance of each overlay connection */
+    private final int[] weights;
+
+    /** The tentative distance of each overlay city in the current query */
+    private final long[] distance;
+    /** The query number in which each overlay city was last reached */
+    private final int[] reachedStamp;
+    /** The query number in which each overlay city was last found on the boundary of the destination region */
+    private final int[] targetStamp;
+    /** The distance from each boundary city of the destination region to the destination */
+    private final long[] targetDistance;
+    /** The overlay cities whose distance may still drop */
+    private final DistanceHeap queue;
+    /** The number of the current query, so the arrays above never have to be cleared */
+    private int stamp;
+    /** The number of overlay cities settled by the last query */
+    private int lastSettledCount;
+
+    /**
+     * Build the overlay of a partitioned graph from its shards. Each shard is asked once per boundary city for the
+     * distances to the other boundary cities of its region.
+     * @param partition the partition of the graph
+     * @param shards the shard of each region, in region order
+     * @throws IOException if a remote shard cannot be reached
+     */
+    public PartitionedAirportSystem(GraphPartition partition, List<? extends RegionShard> shards) throws IOException {
+        if (shards.size() != partition.getRegionCount()) throw new IllegalArgumentException("There must be one shard per region");
+        this.partition = partition;
+        this.shards = shards.toArray(new RegionShard[0]);
+        int regionCount = partition.getRegionCount();
+        // STEP 1: Number the boundary cities in the overlay
+        overlayNode = new int[partition.getCityCount()];
+        Arrays.fill(overlayNode, -1);
+        boundaryLocal = new int[regionCount][];
+        boundaryNodes = new int[regionCount][];
+        int nodeCount = 0;
+        for (int part = 0; part < regionCount; part++){
+            int[] boundary = partition.getBoundaryCities(part);
+            boundaryLocal[part] = new int[boundary.length];
+            boundaryNodes[part] = new int[boundary.length];
+            for (int index = 0; index < boundary.length; index++){
+                boundaryLocal[part][index] = partition.getLocalId(boundary[index]);
+                boundaryNodes[part][index] = nodeCount;
+                overlayNode[boundary[index]] = nodeCount++;
+            }
+        }
+        // STEP 2: Collect the overlay connections, both directions of each
+        int[] crossRoutes = partition.crossRoutes();
+        int capacity = crossRoutes.length / 3 * 2;
+        for (int part = 0; part < regionCount; part++){
+            capacity += boundaryNodes[part].length * (boundaryNodes[part].length - 1);
+        }
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        int[] length = new int[capacity];
+        int count = 0;
+        for (int part = 0; part < regionCount; part++){
+            int[] nodes = boundaryNodes[part];
+            for (int index = 0; index < nodes.length; index++){
+                int[] distances = this.shards[part].distances(boundaryLocal[part][index], boundaryLocal[part]);
+                for (int other = 0; other < nodes.length; other++){
+                    if (other == index || distances[other] == Integer.MAX_VALUE) continue;
+                    from[count] = nodes[index];
+                    to[count] = nodes[other];
+                    length[count++] = distances[other];
+                }
+            }
+        }
+        for (int index = 0; index < crossRoutes.length; index += 3){
+            int nodeA = overlayNode[crossRoutes[index]];
+            int nodeB = overlayNode[crossRoutes[index + 1]];
+            from[count] = nodeA;
+            to[count] = nodeB;
+            length[count++] = crossRoutes[index + 2];
+            from[count] = nodeB;
+            to[count] = nodeA;
+            length[count++] = crossRoutes[index + 2];
+        }
+        // STEP 3: Store them as compressed sparse rows
+        offsets = new int[nodeCount + 1];
+        for (int index = 0; index < count; index++){
+            offsets[from[index] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++){
+            offsets[node + 1] += offsets[node];
+        }
+        targets = new int[count];
+        weights = new int[count];
+        int[] position = Arrays.copyOf(offsets, nodeCount);
+        for (int index = 0; index < count; index++){
+            targets[position[from[index]]] = to[index];
+            weights[position[from[index]]++] = length[index];
+        }
+        distance = new long[nodeCount];
+        reachedStamp = new int[nodeCount];
+        targetStamp = new int[nodeCount];
+        targetDistance = new long[nodeCount];
+        queue = new DistanceHeap(Math.max(nodeCount, 1));
+    }
+
+    /**
+     * A method to split an airport system into regions kept in shards of this process, which is mostly useful to
+     * test the partitioned queries against the whole graph
+     * @param graph the graph, which must not be modified while it is being split
+     * @param regionCount the number of regions
+     * @return the partitioned airport system
+     */
+    public static PartitionedAirportSystem local(RouteGraph graph, int regionCount){
+        GraphPartition partition = GraphPartition.split(graph, regionCount);
+        RegionShard[] shards = new RegionShard[regionCount];
+        for (int part = 0; part < regionCount; part++){
+            shards[part] = new LocalRegionShard(partition.regionGraph(graph, part).snapshot());
+        }
+        try {
+            return new PartitionedAirportSystem(partition, Arrays.asList(shards));
+        } catch (IOException e){
+            // Local shards never fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A method to find the shortest distance between two cities in the whole graph
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     * @throws IOException if a remote shard cannot be reached
+     */
+    public int shortestDistance(String cityA, String cityB) throws IOException {
+        int source = partition.cityId(cityA);
+        int destination = partition.cityId(cityB);
+        lastSettledCount = 0;
+        if (source < 0 || destination < 0) return Integer.MAX_VALUE;
+        if (source == destination) return 0;
+        int sourceRegion = partition.getRegion(source);
+        int destinationRegion = partition.getRegion(destination);
+        long best = UNREACHABLE;
+        // STEP 1: Ask the shards for the distances between each city and the boundary of its region
+        int[] sourceBoundary = boundaryLocal[sourceRegion];
+        int[] fromSource;
+        if (sourceRegion == destinationRegion){
+            // The same search also gives the route that never leaves the region
+            int[] targetsOfSource = Arrays.copyOf(sourceBoundary, sourceBoundary.length + 1);
+            targetsOfSource[sourceBoundary.length] = partition.getLocalId(destination);
+            fromSource = shards[sourceRegion].distances(partition.getLocalId(source), targetsOfSource);
+            if (fromSource[sourceBoundary.length] != Integer.MAX_VALUE) best = fromSource[sourceBoundary.length];
+        } else {
+            fromSource = shards[sourceRegion].distances(partition.getLocalId(source), sourceBoundary);
+        }
+        int[] toDestination = shards[destinationRegion].distances(partition.getLocalId(destination), boundaryLocal[destinationRegion]);
+        // STEP 2: Search the overlay from the boundary of the source region
+        if (++stamp == Integer.MAX_VALUE){
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(targetStamp, 0);
+            stamp = 1;
+        }
+        for (int index = 0; index < sourceBoundary.length; index++){
+            if (fromSource[index] != Integer.MAX_VALUE) relax(boundaryNodes[sourceRegion][index], fromSource[index]);
+        }
+        int[] destinationNodes = boundaryNodes[destinationRegion];
+        for (int index = 0; index < destinationNodes.length; index++){
+            if (toDestination[index] == Integer.MAX_VALUE) continue;
+            targetStamp[destinationNodes[index]] = stamp;
+            targetDistance[destinationNodes[index]] = toDestination[index];
+        }
+        // Stop once no overlay city is closer than the best route found
+        while (!queue.isEmpty() && queue.peekKey() < best){
+            int node = queue.poll();
+            lastSettledCount++;
+            long nodeDistance = distance[node];
+            if (targetStamp[node] == stamp) best = Math.min(best, nodeDistance + targetDistance[node]);
+            for (int connection = offsets[node]; connection < offsets[node + 1]; connection++){
+                relax(targets[connection], nodeDistance + weights[connection]);
+            }
+        }
+        queue.clear();
+        return DijkstraSearch.toIntDistance(best);
+    }
+
+    /**
+     * A helper method for shortestDistance() to lower the distance of an overlay city
+     * @param node the overlay city
+     * @param updatedDistance the distance of a route to it
+     */
+    private void relax(int node, long updatedDistance){
+        if (reachedStamp[node] == stamp && updatedDistance >= distance[node]) return;
+        reachedStamp[node] = stamp;
+        distance[node] = updatedDistance;
+        queue.insertOrDecrease(node, updatedDistance);
+    }
+
+    /**
+     * Retrieve the partition of the cities into regions
+     * @return the partition
+     */
+    public GraphPartition getPartition(){
+        return partition;
+    }
+
+    /**
+     * Retrieve the number of cities of the overlay, which are the boundary cities of every region
+     * @return the number of overlay cities
+     */
+    public int getOverlayCityCount(){
+        return distance.length;
+    }
+
+    /**
+     * Retrieve the number of connections of the overlay, counting each direction
+     * @return the number of overlay connections
+     */
+    public int getOverlayConnectionCount(){
+        return targets.length;
+    }
+
+    /**
+     * Retrieve the number of overlay cities settled by the last query
+     * @return the number of settled overlay cities
+     */
+    public int getLastSettledCount(){
+        return lastSettledCount;
+    }
+}
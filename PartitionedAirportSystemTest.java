@@ -0,0 +1,148 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A JUnit class to test the graph partition and the partitioned airport system
+ */
+public class PartitionedAirportSystemTest {
+
+    /**
+     * A helper method to build a grid of cities with random distances
+     * @param side the number of cities along each side
+     * @param seed the seed of the distances
+     * @return the airport system
+     */
+    private static AirportSystem grid(int side, long seed) {
+        AirportSystem airportSystem = new AirportSystem();
+        Random random = new Random(seed);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                String city = row + "-" + column;
+                if (column + 1 < side) airportSystem.addEdge(city, row + "-" + (column + 1), 1 + random.nextInt(50));
+                if (row + 1 < side) airportSystem.addEdge(city, (row + 1) + "-" + column, 1 + random.nextInt(50));
+            }
+        }
+        return airportSystem;
+    }
+
+    @org.junit.Test
+    public void balancedPartition() {
+        AirportSystem airportSystem = grid(30, 1);
+        GraphPartition partition = GraphPartition.split(airportSystem, 4);
+
+        // Case 1: Every city is in a region and no region is much larger or smaller than an even share
+        int total = 0;
+        for (int part = 0; part < 4; part++) {
+            assertTrue(partition.getRegionSize(part) <= Math.ceil(900 / 4.0 * (1 + GraphPartition.IMBALANCE)));
+            assertTrue(partition.getRegionSize(part) >= Math.floor(900 / 4.0 * (1 - GraphPartition.IMBALANCE)));
+            total += partition.getRegionSize(part);
+        }
+        assertEquals(900, total);
+
+        // Case 2: Few of the 1740 routes are cut, and the region graphs hold all the others
+        assertTrue(partition.getCutCount() < 150);
+        int connections = 0;
+        for (int part = 0; part < 4; part++) {
+            AirportSystem region = partition.regionGraph(airportSystem, part);
+            assertEquals(partition.getRegionSize(part), region.cityCount());
+            for (int city = 0; city < region.cityCount(); city++) {
+                connections += region.degree(city);
+            }
+        }
+        // Each route inside a region is a connection from both of its cities
+        assertEquals(1740, connections / 2 + partition.getCutCount());
+
+        // Case 3: Boundary cities have a route to another region, and local numbers match the region graphs
+        for (int part = 0; part < 4; part++) {
+            AirportSystem region = partition.regionGraph(airportSystem, part);
+            for (int city : partition.getBoundaryCities(part)) {
+                assertEquals(part, partition.getRegion(city));
+                assertEquals(airportSystem.cityName(city), region.cityName(partition.getLocalId(city)));
+                assertTrue(region.degree(partition.getLocalId(city)) < airportSystem.degree(city));
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void noStarvedRegions() {
+        // Case 1: A chain that does not divide evenly gives every region its share
+        AirportSystem chain = new AirportSystem();
+        for (int city = 1; city < 9; city++) {
+            chain.addEdge(String.valueOf(city - 1), String.valueOf(city), 1);
+        }
+        GraphPartition partition = GraphPartition.split(chain, 4);
+        for (int part = 0; part < 4; part++) {
+            assertTrue(partition.getRegionSize(part) >= 2);
+            assertTrue(partition.getRegionSize(part) <= 3);
+        }
+
+        // Case 2: Many regions of a random graph stay within the allowed sizes
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(10001, 15000, 6);
+        partition = GraphPartition.split(airportSystem, 100);
+        for (int part = 0; part < 100; part++) {
+            assertTrue(partition.getRegionSize(part) >= Math.floor(100.01 * (1 - GraphPartition.IMBALANCE)));
+            assertTrue(partition.getRegionSize(part) <= Math.ceil(100.01 * (1 + GraphPartition.IMBALANCE)));
+        }
+    }
+
+    @org.junit.Test
+    public void matchesWholeGraph() throws IOException {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(400, 600, 4);
+        airportSystem.addEdge("X", "Y", 3);
+        airportSystem.addCity("Z");
+        PartitionedAirportSystem partitioned = PartitionedAirportSystem.local(airportSystem, 6);
+        assertTrue(partitioned.getOverlayCityCount() < airportSystem.cityCount());
+
+        // Case 1: Every distance equals the one in the whole graph, within and across regions
+        Random random = new Random(9);
+        for (int query = 0; query < 1000; query++) {
+            String cityA = airportSystem.cityName(random.nextInt(airportSystem.cityCount()));
+            String cityB = airportSystem.cityName(random.nextInt(airportSystem.cityCount()));
+            assertEquals(airportSystem.shortestDistance(cityA, cityB), partitioned.shortestDistance(cityA, cityB));
+        }
+
+        // Case 2: Unknown cities, the same city and cities with no route between them
+        assertEquals(Integer.MAX_VALUE, partitioned.shortestDistance("1", "W"));
+        assertEquals(0, partitioned.shortestDistance("7", "7"));
+        assertEquals(3, partitioned.shortestDistance("Y", "X"));
+        assertEquals(Integer.MAX_VALUE, partitioned.shortestDistance("1", "Z"));
+    }
+
+    @org.junit.Test
+    public void remoteShards() throws IOException {
+        AirportSystem airportSystem = grid(20, 2);
+        GraphPartition partition = GraphPartition.split(airportSystem, 3);
+        List<RouteServer> servers = new ArrayList<>();
+        List<RemoteRegionShard> shards = new ArrayList<>();
+        try {
+            // Each region is served by its own server, as it would be from a saved region file in another process
+            for (int part = 0; part < 3; part++) {
+                AirportSystem region = partition.regionGraph(airportSystem, part);
+                ConcurrentAirportSystem served = new ConcurrentAirportSystem();
+                served.update(graph -> RouteServer.copy(region, graph));
+                servers.add(new RouteServer(served, 0));
+                shards.add(new RemoteRegionShard(servers.get(part).getPort()));
+            }
+            PartitionedAirportSystem partitioned = new PartitionedAirportSystem(partition, shards);
+
+            // Case 1: The shards answer through the binary protocol and the distances match the whole graph
+            Random random = new Random(4);
+            for (int query = 0; query < 200; query++) {
+                String cityA = airportSystem.cityName(random.nextInt(400));
+                String cityB = airportSystem.cityName(random.nextInt(400));
+                assertEquals(airportSystem.shortestDistance(cityA, cityB), partitioned.shortestDistance(cityA, cityB));
+            }
+        } finally {
+            for (RemoteRegionShard shard : shards) {
+                shard.close();
+            }
+            for (RouteServer server : servers) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.Arrays;
+
+/**
+ * A point-to-point shortest distance search that grows one Dijkstra search from each city until they meet.
+ * Since every flight is added in both directions, the backward search uses the same connections as the forward one.
+ * With landmarks, both searches are guided towards each other by the ALT lower bounds, using the average of the
+ * forward and backward potentials so the two searches stay consistent with each other.
+ * The search returns the same distances as DijkstraSearch and reports how many cities it settled.
+ * @author Quan Tran
+ * @references Goldberg and Harrelson, Computing the Shortest Path: A* Search Meets Graph Theory
+ */
+public class PointToPointSearch {
+    /** The graph being searched */
+    private final RouteGraph graph;
+    /** The landmarks used as a heuristic, or null for a plain bidirectional search */
+    private final Landmarks landmarks;
+    /** The cities waiting in the forward and backward searches, keyed by twice their distance plus the potential */
+    private final DistanceHeap[] queues = new DistanceHeap[2];
+    /** The tentative distance of each city from the source (0) and from the target (1) */
+    private long[][] distance = new long[2][];
+    /** The query number in which each city was last reached by each search */
+    private int[][] reachedStamp = new int[2][];
+    /** The query number in which each city was last settled by each search */
+    private int[][] settledStamp = new int[2][];
+    /** The potential difference of each city, only valid if potentialStamp matches the current query */
+    private long[] potential;
+    /** The query number in which the potential of each city was computed */
+    private int[] potentialStamp;
+    /** The number of the current query */
+    private int stamp;
+    /** The source and target of the current query */
+    private int source, target;
+    /** The number of cities settled by the last query, counting both searches */
+    private int settledCount;
+
+    /**
+     * Initialize a search on a graph
+     * @param graph the graph to search
+     * @param landmarks the landmarks to guide the search, or null for a plain bidirectional search
+     */
+    PointToPointSearch(RouteGraph graph, Landmarks landmarks){
+        this.graph = graph;
+        this.landmarks = landmarks;
+        int cityCount = Math.max(graph.cityCount(), 1);
+        for (int side = 0; side < 2; side++){
+            queues[side] = new DistanceHeap(cityCount);
+            distance[side] = new long[cityCount];
+            reachedStamp[side] = new int[cityCount];
+            settledStamp[side] = new int[cityCount];
+        }
+        potential = new long[cityCount];
+        potentialStamp = new int[cityCount];
+    }
+
+    /**
+     * A method to find the shortest distance between two cities
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     */
+    public int shortestDistance(String cityA, String cityB){
+        int source = graph.cityId(cityA);
+        int destination = graph.cityId(cityB);
+        if (source < 0 || destination < 0){
+            settledCount = 0;
+            return Integer.MAX_VALUE;
+        }
+        return DijkstraSearch.toIntDistance(search(source, destination));
+    }
+
+    /**
+     * Retrieve the number of cities settled by the last query, counting both searches
+     * @return the number of settled cities
+     */
+    public int getSettledCount(){
+        return settledCount;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities by number
+     * @param source the source city number
+     * @param destination the destination city number
+     * @return the shortest distance, or DijkstraSearch.UNREACHABLE if there is no route
+     */
+    long search(int source, int destination){
+        startQuery(source, destination);
+        if (source == destination) return 0;
+        // The landmarks can prove there is no route without searching
+        if (landmarks != null && landmarks.separated(source, destination)) return DijkstraSearch.UNREACHABLE;
+        reach(0, source, 0);
+        reach(1, destination, 0);
+        // The best distance of a route found through a city reached by both searches
+        long best = DijkstraSearch.UNREACHABLE;
+        while (!queues[0].isEmpty() && !queues[1].isEmpty()){
+            // Stop once no route through an unsettled city can beat the best one (keys are doubled)
+            long forwardKey = queues[0].peekKey();
+            long backwardKey = queues[1].peekKey();
+            if (best != DijkstraSearch.UNREACHABLE && forwardKey + backwardKey >= 2 * best) break;
+            // Advance the search whose next city is closer
+            int side = forwardKey <= backwardKey ? 0 : 1;
+            int city = queues[side].poll();
+            settledStamp[side][city] = stamp;
+            settledCount++;
+            long cityDistance = distance[side][city];
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                long updatedDistance = cityDistance + graph.distance(city, connection);
+                // A city reached by the other search closes a route between the source and the target
+                if (reachedStamp[1 - side][neighbor] == stamp){
+                    best = Math.min(best, updatedDistance + distance[1 - side][neighbor]);
+                }
+                if (settledStamp[side][neighbor] != stamp) reach(side, neighbor, updatedDistance);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A helper method to record a new tentative distance and queue the city with its guided key
+     * @param side 0 for the forward search, 1 for the backward search
+     * @param city the city number
+     * @param cityDistance the tentative distance from the side's start
+     */
+    private void reach(int side, int city, long cityDistance){
+        if (reachedStamp[side][city] == stamp && cityDistance >= distance[side][city]) return;
+        reachedStamp[side][city] = stamp;
+        distance[side][city] = cityDistance;
+        long cityPotential = potentialOf(city);
+        queues[side].insertOrDecrease(city, 2 * cityDistance + (side == 0 ? cityPotential : -cityPotential));
+    }
+
+    /**
+     * A helper method to compute, once per query, the potential difference bound(city, target) - bound(city, source).
+     * Half of it is the forward potential and minus half of it the backward potential.
+     * @param city the city number
+     * @return the potential difference, or 0 without landmarks
+     */
+    private long potentialOf(int city){
+        if (landmarks == null) return 0;
+        if (potentialStamp[city] != stamp){
+            potentialStamp[city] = stamp;
+            potential[city] = landmarks.lowerBound(city, target) - landmarks.lowerBound(city, source);
+        }
+        return potential[city];
+    }
+
+    /**
+     * A helper method to reset the per-query state
+     * @param source the source city number
+     * @param destination the destination city number
+     */
+    private void startQuery(int source, int destination){
+        ensureCapacity(graph.cityCount());
+        this.source = source;
+        this.target = destination;
+        settledCount = 0;
+        queues[0].clear();
+        queues[1].clear();
+        // A new query number invalidates every stamp of the previous query
+        if (++stamp == Integer.MAX_VALUE){
+            for (int side = 0; side < 2; side++){
+                Arrays.fill(reachedStamp[side], 0);
+                Arrays.fill(settledStamp[side], 0);
+            }
+            Arrays.fill(potentialStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * A helper method to grow the arrays when cities were added to the graph after this search was created
+     * @param cityCount the number of cities in the graph
+     */
+    private void ensureCapacity(int cityCount){
+        if (cityCount <= potential.length) return;
+        int newLength = Math.max(cityCount, potential.length * 2);
+        for (int side = 0; side < 2; side++){
+            queues[side].ensureCapacity(newLength);
+            distance[side] = Arrays.copyOf(distance[side], newLength);
+            reachedStamp[side] = Arrays.copyOf(reachedStamp[side], newLength);
+            settledStamp[side] = Arrays.copyOf(settledStamp[side], newLength);
+        }
+        potential = Arrays.copyOf(potential, newLength);
+        potentialStamp = Arrays.copyOf(potentialStamp, newLength);
+    }
+}
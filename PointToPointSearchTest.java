@@ -0,0 +1,66 @@
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the bidirectional and landmark searches
+ */
+public class PointToPointSearchTest {
+
+    /**
+     * A helper method to build a grid of cities, which is where the guided search settles far fewer cities
+     * @param size the number of cities on each side
+     * @return the airport system
+     */
+    private static AirportSystem grid(int size) {
+        AirportSystem airportSystem = new AirportSystem();
+        java.util.Random random = new java.util.Random(5);
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                String city = row + ":" + column;
+                if (column + 1 < size) airportSystem.addEdge(city, row + ":" + (column + 1), 10 + random.nextInt(5));
+                if (row + 1 < size) airportSystem.addEdge(city, (row + 1) + ":" + column, 10 + random.nextInt(5));
+            }
+        }
+        return airportSystem;
+    }
+
+    @org.junit.Test
+    public void matchesDijkstra() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(120, 300, 3);
+        airportSystem.addEdge("x", "y", 0);
+        PointToPointSearch bidirectional = airportSystem.pointToPointSearch(0);
+        PointToPointSearch guided = airportSystem.pointToPointSearch(4);
+
+        // Case 1: Every pair, including the disconnected cities, gives the same distance as Dijkstra
+        for (int source = 0; source < airportSystem.cityCount(); source++) {
+            for (int target = 0; target < airportSystem.cityCount(); target++) {
+                String cityA = airportSystem.cityName(source);
+                String cityB = airportSystem.cityName(target);
+                int expected = airportSystem.shortestDistance(cityA, cityB);
+                assertEquals(expected, bidirectional.shortestDistance(cityA, cityB));
+                assertEquals(expected, guided.shortestDistance(cityA, cityB));
+            }
+        }
+
+        // Case 2: Unknown cities
+        assertEquals(Integer.MAX_VALUE, guided.shortestDistance("x", "z"));
+        assertEquals(0, guided.getSettledCount());
+    }
+
+    @org.junit.Test
+    public void settlesFewerCities() {
+        AirportSystem airportSystem = grid(40);
+        PointToPointSearch bidirectional = airportSystem.pointToPointSearch(0);
+        PointToPointSearch guided = airportSystem.pointToPointSearch(8);
+
+        // Case 1: Neighbouring cities only settle a few cities
+        assertEquals(airportSystem.shortestDistance("20:20", "20:21"), bidirectional.shortestDistance("20:20", "20:21"));
+        assertTrue(bidirectional.getSettledCount() < 20);
+
+        // Case 2: The landmarks cut the settled cities of a long query
+        int expected = airportSystem.shortestDistance("0:0", "39:39");
+        assertEquals(expected, bidirectional.shortestDistance("0:0", "39:39"));
+        int plainSettled = bidirectional.getSettledCount();
+        assertEquals(expected, guided.shortestDistance("0:0", "39:39"));
+        assertTrue(guided.getSettledCount() * 4 < plainSettled);
+    }
+}
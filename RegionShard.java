@@ -0,0 +1,19 @@
+import java.io.IOException;
+
+/**
+ * One region of a partitioned airport system, holding only the cities of the region and the routes between them.
+ * A shard may live in the same process or behind a route server in another process. Cities are given by their
+ * number inside the region.
+ * @author Quan Tran
+ */
+public interface RegionShard {
+    /**
+     * A method to find the shortest distances from a city of the region to several cities of the region, using
+     * only the routes of the region
+     * @param source the number of the source city inside the region
+     * @param targets the numbers of the target cities inside the region
+     * @return the distance of each target, Integer.MAX_VALUE if the region has no route to it
+     * @throws IOException if a remote shard cannot be reached
+     */
+    int[] distances(int source, int[] targets) throws IOException;
+}
@@ -0,0 +1,61 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * A region shard served by a route server on localhost, usually in another process started with the saved graph
+ * of the region. Requests use the binary protocol of the server over one connection.
+ * @author Quan Tran
+ */
+public class RemoteRegionShard implements RegionShard, Closeable {
+    /** The connection to the server */
+    private final Socket socket;
+    /** The buffered output of the connection */
+    private final DataOutputStream out;
+    /** The buffered input of the connection */
+    private final DataInputStream in;
+
+    /**
+     * Connect to the route server of a region
+     * @param port the localhost port of the server
+     * @throws IOException if the server cannot be reached
+     */
+    public RemoteRegionShard(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out.write(RouteServer.BINARY_MAGIC);
+    }
+
+    @Override
+    public synchronized int[] distances(int source, int[] targets) throws IOException {
+        out.write(RouteServer.OP_DISTANCES);
+        out.writeInt(source);
+        out.writeInt(targets.length);
+        for (int target : targets){
+            out.writeInt(target);
+        }
+        out.flush();
+        int[] output = new int[targets.length];
+        for (int index = 0; index < output.length; index++){
+            int distance = in.readInt();
+            output[index] = distance < 0 ? Integer.MAX_VALUE : distance;
+        }
+        return output;
+    }
+
+    /**
+     * A method to close the connection to the server
+     * @throws IOException if the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+/**
+ * A batch of routes waiting to be added to the airport system with AirportSystem.addEdges().
+ * The batch numbers its own cities, so a route is stored as three ints instead of two strings and an int.
+ * @author Quan Tran
+ */
+public class RouteBatch {
+    /** The batch number of each city by name */
+    private final CityDictionary cities = new CityDictionary();
+    /** The starting city of each route */
+    private int[] sources = new int[16];
+    /** The final city of each route */
+    private int[] destinations = new int[16];
+    /** The distance of each route */
+    private int[] weights = new int[16];
+    /** The line of the input each route was read from, or 0 if it was not read from a file */
+    private long[] lines = new long[16];
+    /** The number of routes in the batch */
+    private int size;
+
+    /**
+     * A method to add a route to the batch
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the distance between two city
+     */
+    public void add(String source, String destination, int weight){
+        add(city(source), city(destination), weight, 0);
+    }
+
+    /**
+     * Retrieve the number of routes in the batch
+     * @return the number of routes
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Retrieve the batch number of a city, numbering it if it is new
+     * @param name the city name
+     * @return the batch number of the city
+     */
+    int city(String name){
+        return cities.add(name);
+    }
+
+    /**
+     * A method to add a route between cities that are already numbered by this batch
+     * @param source the batch number of the starting city
+     * @param destination the batch number of the final city
+     * @param weight the distance
+     * @param line the line of the input the route was read from, or 0
+     */
+    void add(int source, int destination, int weight, long line){
+        if (size == sources.length){
+            int newLength = size * 2;
+            sources = Arrays.copyOf(sources, newLength);
+            destinations = Arrays.copyOf(destinations, newLength);
+            weights = Arrays.copyOf(weights, newLength);
+            lines = Arrays.copyOf(lines, newLength);
+        }
+        sources[size] = source;
+        destinations[size] = destination;
+        weights[size] = weight;
+        lines[size] = line;
+        size++;
+    }
+
+    /**
+     * A method to append every route of another batch, renumbering its cities into this batch
+     * @param other the batch to append
+     * @param lineOffset the number added to the line numbers of the other batch
+     */
+    void append(RouteBatch other, long lineOffset){
+        int[] renumber = new int[other.cities.size()];
+        for (int index = 0; index < renumber.length; index++){
+            renumber[index] = city(other.cities.name(index));
+        }
+        for (int route = 0; route < other.size; route++){
+            add(renumber[other.sources[route]], renumber[other.destinations[route]], other.weights[route], other.lines[route] + lineOffset);
+        }
+    }
+
+    /**
+     * Retrieve the name of a city of the batch
+     * @param city the batch number of the city
+     * @return the city name
+     */
+    String cityName(int city){
+        return cities.name(city);
+    }
+
+    /**
+     * Retrieve the number of cities named by the batch
+     * @return the number of cities
+     */
+    int cityCount(){
+        return cities.size();
+    }
+
+    /**
+     * Retrieve the starting city of a route
+     * @param route the route number
+     * @return the batch number of the starting city
+     */
+    int source(int route){
+        return sources[route];
+    }
+
+    /**
+     * Retrieve the final city of a route
+     * @param route the route number
+     * @return the batch number of the final city
+     */
+    int destination(int route){
+        return destinations[route];
+    }
+
+    /**
+     * Retrieve the distance of a route
+     * @param route the route number
+     * @return the distance
+     */
+    int weight(int route){
+        return weights[route];
+    }
+
+    /**
+     * Retrieve the input line of a route
+     * @param route the route number
+     * @return the line number, or 0 if the route was not read from a file
+     */
+    long line(int route){
+        return lines[route];
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * A read-only view of the airport system in which every city is numbered from 0 to cityCount() - 1.
+ * The search engines run against this view so they can work on plain int arrays instead of city names.
+ * @author Quan Tran
+ */
+interface RouteGraph {
+    /**
+     * Retrieve the number of cities in the graph
+     * @return the number of cities
+     */
+    int cityCount();
+
+    /**
+     * Retrieve the number of a city from its name
+     * @param city the city name
+     * @return the city number, or -1 if the city is not in the graph
+     */
+    int cityId(String city);
+
+    /**
+     * Retrieve the name of a city from its number
+     * @param city the city number
+     * @return the city name
+     */
+    String cityName(int city);
+
+    /**
+     * Retrieve the number of connections of a city
+     * @param city the city number
+     * @return the number of connections starting from the city
+     */
+    int degree(int city);
+
+    /**
+     * Retrieve the destination of a connection
+     * @param city the city number
+     * @param connection the position of the connection, from 0 to degree(city) - 1
+     * @return the number of the destination city
+     */
+    int neighbor(int city, int connection);
+
+    /**
+     * Retrieve the distance of a connection
+     * @param city the city number
+     * @param connection the position of the connection, from 0 to degree(city) - 1
+     * @return the distance between the city and the destination of the connection
+     */
+    int distance(int city, int connection);
+}
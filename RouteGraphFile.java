@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The versioned binary format of a route graph, used to save the airport system and to load it back quickly.
+ * All numbers are little-endian. The file is laid out so it can be memory-mapped and queried directly:
+ * <pre>
+ * header (32 bytes): magic "ARPT", format version, city count, connection count, name bytes, hash slots, CRC32 of the rest
+ * int[cityCount + 1]   start of each city name inside the name bytes
+ * int[cityCount + 1]   start of each city's connections (compressed sparse rows)
+ * int[connections]     destination of each connection
+ * int[connections]     distance of each connection
+ * int[hashSlots]       open-addressing table from the FNV-1a hash of a name to city number + 1, 0 if empty
+ * byte[nameBytes]      the UTF-8 city names
+ * </pre>
+ * @author Quan Tran
+ */
+class RouteGraphFile {
+    /** The first four bytes of every file, "ARPT" */
+    static final int MAGIC = 0x54505241;
+    /** The current format version */
+    static final int FORMAT_VERSION = 1;
+    /** The size of the header in bytes */
+    static final int HEADER_BYTES = 32;
+
+    /** Prevent instantiation, this class only has static methods */
+    private RouteGraphFile(){
+    }
+
+    /**
+     * A method to encode a graph into the binary format
+     * @param graph the graph, which must not be modified while it is being encoded
+     * @param direct true to put the result outside the Java heap
+     * @return the encoded graph, positioned at 0
+     */
+    static ByteBuffer encode(RouteGraph graph, boolean direct){
+        int cityCount = graph.cityCount();
+        // STEP 1: Encode the names and count the connections
+        byte[][] names = new byte[cityCount][];
+        long nameBytes = 0;
+        long connectionCount = 0;
+        for (int city = 0; city < cityCount; city++){
+            names[city] = graph.cityName(city).getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[city].length;
+            connectionCount += graph.degree(city);
+        }
+        int hashSlots = hashSlots(cityCount);
+        long size = HEADER_BYTES + 4L * (2L * (cityCount + 1) + 2 * connectionCount + hashSlots) + nameBytes;
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Graph too large for one buffer: " + size + " bytes");
+        ByteBuffer buffer = (direct ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size)).order(ByteOrder.LITTLE_ENDIAN);
+        // STEP 2: Write the header, the checksum is filled in at the end
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(cityCount).putInt((int) connectionCount)
+              .putInt((int) nameBytes).putInt(hashSlots).putLong(0);
+        // STEP 3: Write the arrays
+        int position = 0;
+        for (int city = 0; city < cityCount; city++){
+            buffer.putInt(position);
+            position += names[city].length;
+        }
+        buffer.putInt(position);
+        position = 0;
+        for (int city = 0; city < cityCount; city++){
+            buffer.putInt(position);
+            position += graph.degree(city);
+        }
+        buffer.putInt(position);
+        for (int city = 0; city < cityCount; city++){
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                buffer.putInt(graph.neighbor(city, connection));
+            }
+        }
+        for (int city = 0; city < cityCount; city++){
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                buffer.putInt(graph.distance(city, connection));
+            }
+        }
+        int[] table = new int[hashSlots];
+        for (int city = 0; city < cityCount; city++){
+            int slot = hash(names[city], 0, names[city].length) & (hashSlots - 1);
+            while (table[slot] != 0) slot = (slot + 1) & (hashSlots - 1);
+            table[slot] = city + 1;
+        }
+        for (int slot = 0; slot < hashSlots; slot++){
+            buffer.putInt(table[slot]);
+        }
+        for (int city = 0; city < cityCount; city++){
+            buffer.put(names[city]);
+        }
+        buffer.putLong(24, checksum(buffer));
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * A method to save a graph into a file, replacing it if it exists
+     * @param graph the graph
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    static void save(RouteGraph graph, Path file) throws IOException {
+        ByteBuffer buffer = encode(graph, false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * A method to memory-map a saved graph so it can be queried without reading it into objects
+     * @param file the file to map
+     * @param verifyChecksum true to read the whole file once and check it was not damaged
+     * @return the mapped graph
+     * @throws IOException if the file cannot be read or is not a valid route graph
+     */
+    static FrozenRouteGraph map(Path file, boolean verifyChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Route graph file too large to map: " + file);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new FrozenRouteGraph(validate(buffer, verifyChecksum));
+        }
+    }
+
+    /**
+     * A method to check the header of an encoded graph
+     * @param buffer the encoded graph
+     * @param verifyChecksum true to also check the checksum of the whole content
+     * @return the buffer in little-endian order
+     * @throws IOException if the buffer is not a valid route graph
+     */
+    static ByteBuffer validate(ByteBuffer buffer, boolean verifyChecksum) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) throw new IOException("Not a route graph file");
+        if (buffer.getInt(4) != FORMAT_VERSION) throw new IOException("Unsupported route graph format version " + buffer.getInt(4));
+        // Check every count on its own first, so a negative one cannot make up for another in the total size
+        int content = buffer.capacity() - HEADER_BYTES;
+        int cityCount = headerInt(buffer, 8, 8, content, "city count");
+        int connectionCount = headerInt(buffer, 12, 8, content, "connection count");
+        int nameBytes = headerInt(buffer, 16, 1, content, "name byte count");
+        int hashSlots = headerInt(buffer, 20, 4, content, "hash slot count");
+        // The name table is probed until an empty slot, so it needs one more slot than there are cities
+        if (Integer.bitCount(hashSlots) != 1 || hashSlots <= cityCount) throw new IOException("Bad route graph hash slot count " + hashSlots);
+        long expected = HEADER_BYTES + 4L * (2L * (cityCount + 1) + 2L * connectionCount + hashSlots) + nameBytes;
+        if (expected != buffer.capacity()) throw new IOException("Truncated route graph file");
+        if (verifyChecksum && checksum(buffer) != buffer.getLong(24)) throw new IOException("Route graph file checksum mismatch");
+        return buffer;
+    }
+
+    /**
+     * A helper method for validate() to read a count of the header and check it fits the buffer
+     * @param buffer the encoded graph
+     * @param offset the position of the count in the header
+     * @param bytesPerItem the smallest number of bytes each counted item takes after the header
+     * @param content the number of bytes after the header
+     * @param field the name of the count, for the error message
+     * @return the count
+     * @throws IOException if the count is negative or its items cannot fit in the buffer
+     */
+    private static int headerInt(ByteBuffer buffer, int offset, int bytesPerItem, int content, String field) throws IOException {
+        int value = buffer.getInt(offset);
+        if (value < 0 || (long) value * bytesPerItem > content) throw new IOException("Bad route graph " + field + " " + value);
+        return value;
+    }
+
+    /**
+     * A method to compute the FNV-1a hash used by the name table
+     * @param bytes the UTF-8 name
+     * @param from the first byte
+     * @param to one past the last byte
+     * @return the hash
+     */
+    static int hash(byte[] bytes, int from, int to){
+        int hash = 0x811C9DC5;
+        for (int index = from; index < to; index++){
+            hash = (hash ^ (bytes[index] & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A helper method to choose a power of two name table at most half full
+     * @param cityCount the number of cities
+     * @return the number of slots
+     */
+    private static int hashSlots(int cityCount){
+        int slots = 2;
+        while (slots < 2L * cityCount) slots <<= 1;
+        return slots;
+    }
+
+    /**
+     * A helper method to compute the CRC32 of everything after the header
+     * @param buffer the encoded graph
+     * @return the checksum
+     */
+    private static long checksum(ByteBuffer buffer){
+        ByteBuffer content = buffer.duplicate();
+        content.position(HEADER_BYTES).limit(content.capacity());
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test saving, loading and mapping the airport system
+ */
+public class RouteGraphFileTest {
+
+    @org.junit.Test
+    public void saveLoadAndMap() throws IOException {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(70, 160, 19);
+        airportSystem.addEdge("Z\u00fcrich", "S\u00e3o Paulo", 9);
+        Path file = Files.createTempFile("airports", ".bin");
+        try {
+            airportSystem.save(file);
+
+            // Case 1: The loaded graph has the same cities, connection order and distances
+            AirportSystem loaded = AirportSystem.load(file);
+            FrozenRouteGraph mapped = AirportSystem.map(file);
+            assertEquals(airportSystem.cityCount(), loaded.cityCount());
+            assertEquals(airportSystem.cityCount(), mapped.cityCount());
+            for (int city = 0; city < airportSystem.cityCount(); city++) {
+                String name = airportSystem.cityName(city);
+                assertEquals(city, mapped.cityId(name));
+                assertEquals(airportSystem.breadthFirstSearch(name), loaded.breadthFirstSearch(name));
+                assertEquals(airportSystem.breadthFirstSearch(name), mapped.breadthFirstSearch(name));
+                assertEquals(airportSystem.shortestDistance("0", name), mapped.shortestDistance("0", name));
+            }
+            assertEquals(9, mapped.shortestDistance("S\u00e3o Paulo", "Z\u00fcrich"));
+            assertEquals(-1, mapped.cityId("Nowhere"));
+            assertFalse(loaded.addEdge("Z\u00fcrich", "S\u00e3o Paulo", 1));
+
+            // Case 2: A damaged file is rejected
+            try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(java.nio.ByteBuffer.wrap(new byte[]{42}), Files.size(file) - 1);
+            }
+            try {
+                AirportSystem.map(file);
+                fail("The damaged file was accepted");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().contains("checksum"));
+            }
+
+            // Case 3: Without the checksum only the header is checked, so the damaged names are not noticed
+            assertEquals(airportSystem.cityCount(), AirportSystem.map(file, false).cityCount());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @org.junit.Test
+    public void freeze() {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(120, 300, 23);
+        FrozenRouteGraph frozen = airportSystem.freeze();
+
+        // Case 1: The frozen graph is off-heap and has 8 bytes per connection plus the names and tables
+        assertTrue(frozen.isOffHeap());
+        assertEquals(airportSystem.cityCount(), frozen.cityCount());
+        assertTrue(frozen.getByteSize() < 8L * frozen.getConnectionCount() + 64L * frozen.cityCount());
+
+        // Case 2: Every query gives the same answer as on the airport system
+        DistanceMatrix matrix = frozen.allPairsDistances(2);
+        PointToPointSearch search = frozen.pointToPointSearch(4);
+        ContractionHierarchy hierarchy = frozen.contractionHierarchy();
+        for (int city = 0; city < 120; city += 7) {
+            String cityA = String.valueOf(city);
+            String cityB = String.valueOf((city * 31) % 120);
+            int expected = airportSystem.shortestDistance(cityA, cityB);
+            assertEquals(expected, frozen.shortestDistance(cityA, cityB));
+            assertEquals(expected, matrix.distance(cityA, cityB));
+            assertEquals(expected, search.shortestDistance(cityA, cityB));
+            assertEquals(expected, hierarchy.shortestDistance(cityA, cityB));
+            assertEquals(airportSystem.breadthFirstSearch(cityA), frozen.breadthFirstSearch(cityA));
+            assertEquals(airportSystem.parallelBreadthFirstSearch(cityA, 2).getReachedCities(),
+                         frozen.parallelBreadthFirstSearch(cityA, 2).getReachedCities());
+        }
+        assertEquals(airportSystem.minimumSpanningTree().toString(), frozen.minimumSpanningTree().toString());
+        assertEquals("0", frozen.breadthFirstIterator("0", 1, 1).next());
+
+        // Case 3: Later routes do not change the frozen graph
+        airportSystem.addEdge("0", "new", 1);
+        assertEquals(-1, frozen.cityId("new"));
+    }
+
+    @org.junit.Test
+    public void badHeaderCounts() throws IOException {
+        AirportSystem airportSystem = DijkstraSearchTest.randomGraph(40, 90, 29);
+        Path file = Files.createTempFile("airports", ".bin");
+        try {
+            airportSystem.save(file);
+            java.nio.ByteBuffer header = java.nio.ByteBuffer.wrap(Files.readAllBytes(file), 0, RouteGraphFile.HEADER_BYTES)
+                                                            .order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            int cityCount = header.getInt(8);
+            int connectionCount = header.getInt(12);
+
+            // Case 1: A negative city count is rejected even when a larger connection count keeps the total size
+            writeHeaderInt(file, 8, -1);
+            writeHeaderInt(file, 12, connectionCount + cityCount + 1);
+            try {
+                AirportSystem.map(file, false);
+                fail("The negative city count was accepted");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().contains("city count"));
+            }
+
+            // Case 2: A hash table without an empty slot is rejected
+            writeHeaderInt(file, 8, cityCount);
+            writeHeaderInt(file, 12, connectionCount);
+            writeHeaderInt(file, 20, 3);
+            try {
+                AirportSystem.map(file, false);
+                fail("The bad hash slot count was accepted");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().contains("hash slot"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * A helper method to overwrite a little-endian int of the header of a saved graph
+     * @param file the saved graph
+     * @param offset the position of the int
+     * @param value the new value
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeHeaderInt(Path file, int offset, int value) throws IOException {
+        java.nio.ByteBuffer bytes = java.nio.ByteBuffer.allocate(4).order(java.nio.ByteOrder.LITTLE_ENDIAN).putInt(0, value);
+        try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * A listener told by the airport system about every change of its routes, so structures built from the graph can
+ * repair themselves instead of being rebuilt
+ * @author Quan Tran
+ */
+interface RouteListener {
+    /**
+     * Called after a route was added or its distance was lowered. Both directions of the route are already changed.
+     * @param cityA the city number of one end of the route
+     * @param cityB the city number of the other end of the route
+     * @param distance the new distance of the route
+     */
+    void routeShortened(int cityA, int cityB, int distance);
+
+    /**
+     * Called after a route was removed. Both directions of the route are already gone.
+     * @param cityA the city number of one end of the route
+     * @param cityB the city number of the other end of the route
+     * @param distance the distance the route had
+     */
+    void routeRemoved(int cityA, int cityB, int distance);
+}
@@ -0,0 +1,240 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A client that measures the throughput and tail latency of a route server. Each connection sends random
+ * distance requests from its own thread, keeping up to a number of requests in flight, and the latency of every
+ * request is recorded from the moment it is sent until its answer is read.
+ * @author Quan Tran
+ */
+public class RouteLoadGenerator {
+
+    /** The outcome of one run */
+    public static class Result {
+        /** The number of answered requests */
+        private final long requestCount;
+        /** The wall-clock time of the run in nanoseconds */
+        private final long elapsedNanos;
+        /** The latency of every request in nanoseconds */
+        private final LatencyHistogram latency;
+
+        /**
+         * Initialize a result
+         * @param requestCount the number of answered requests
+         * @param elapsedNanos the wall-clock time of the run in nanoseconds
+         * @param latency the latency of every request in nanoseconds
+         */
+        private Result(long requestCount, long elapsedNanos, LatencyHistogram latency){
+            this.requestCount = requestCount;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        /**
+         * Retrieve the number of answered requests
+         * @return the number of requests
+         */
+        public long getRequestCount(){
+            return requestCount;
+        }
+
+        /**
+         * Retrieve the number of requests answered per second
+         * @return the throughput
+         */
+        public double getThroughput(){
+            return requestCount * 1e9 / Math.max(elapsedNanos, 1);
+        }
+
+        /**
+         * Retrieve the latency of the requests
+         * @return the histogram of the latencies in nanoseconds
+         */
+        public LatencyHistogram getLatency(){
+            return latency;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("%d requests, %.0f requests/s, latency us p50 %.1f p99 %.1f p99.9 %.1f max %.1f",
+                                 requestCount, getThroughput(), latency.getValueAtPercentile(50) / 1e3,
+                                 latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3,
+                                 latency.getMax() / 1e3);
+        }
+    }
+
+    /** Prevent instantiation, this class only has static methods */
+    private RouteLoadGenerator(){
+    }
+
+    /**
+     * A method to read the names of the first cities of a server, using pipelined binary requests
+     * @param port the localhost port of the server
+     * @param limit the largest number of cities to read
+     * @return the names of the cities by number, up to the first number the server does not know
+     * @throws IOException if the server cannot be reached
+     */
+    public static List<String> cityNames(int port, int limit) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)){
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.write(RouteServer.BINARY_MAGIC);
+            // Ask in batches, so neither side fills the socket buffers while the other is still writing
+            for (int first = 0; first < limit && names.size() == first; first += 1024){
+                int last = Math.min(limit, first + 1024);
+                for (int city = first; city < last; city++){
+                    out.write(RouteServer.OP_CITY_NAME);
+                    out.writeInt(city);
+                }
+                out.flush();
+                // Read every answer of the batch, even after the first unknown city
+                for (int city = first; city < last; city++){
+                    int length = in.readInt();
+                    if (length < 0) continue;
+                    byte[] name = new byte[length];
+                    in.readFully(name);
+                    names.add(new String(name, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * A method to load a server with random distance requests between its cities
+     * @param port the localhost port of the server
+     * @param cities the names of the cities to query, by city number
+     * @param binary true for the binary protocol, false for the text protocol
+     * @param connections the number of connections, each with its own thread
+     * @param requests the number of requests sent by each connection
+     * @param pipelineDepth the largest number of requests in flight on a connection, 1 to wait for every answer. The
+     *                      requests in flight must fit the socket buffers, a few thousand at most.
+     * @param seed the seed of the random city pairs
+     * @return the throughput and latency of the run
+     * @throws IOException if a connection fails
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the connections
+     */
+    public static Result run(int port, List<String> cities, boolean binary, int connections, int requests,
+                             int pipelineDepth, long seed) throws IOException, InterruptedException {
+        if (cities.isEmpty()) throw new IllegalArgumentException("The server has no cities");
+        if (connections < 1 || requests < 0 || pipelineDepth < 1) throw new IllegalArgumentException("Bad load parameters");
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[connections];
+        long start = System.nanoTime();
+        for (int index = 0; index < connections; index++){
+            Random random = new Random(seed + index);
+            threads[index] = new Thread(() -> {
+                try {
+                    drive(port, cities, binary, requests, pipelineDepth, random, latency);
+                } catch (IOException e){
+                    failure.compareAndSet(null, e);
+                }
+            }, "route-load-" + index);
+            threads[index].start();
+        }
+        for (Thread thread : threads){
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (failure.get() != null) throw failure.get();
+        return new Result(latency.getCount(), elapsed, latency);
+    }
+
+    /**
+     * A helper method for run() that sends the requests of one connection
+     * @param port the localhost port of the server
+     * @param cities the names of the cities to query
+     * @param binary true for the binary protocol
+     * @param requests the number of requests to send
+     * @param pipelineDepth the largest number of requests in flight
+     * @param random the source of the city pairs
+     * @param latency the histogram receiving the latency of every request
+     * @throws IOException if the connection fails or the server refuses a request
+     */
+    private static void drive(int port, List<String> cities, boolean binary, int requests, int pipelineDepth,
+                              Random random, LatencyHistogram latency) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)){
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (binary) out.write(RouteServer.BINARY_MAGIC);
+            // The send time of each request in flight, request i at i % pipelineDepth
+            long[] sent = new long[pipelineDepth];
+            int sentCount = 0;
+            for (int received = 0; received < requests; received++){
+                // STEP 1: Fill the pipeline, then send one request per answer
+                while (sentCount < requests && sentCount - received < pipelineDepth){
+                    int source = random.nextInt(cities.size());
+                    int destination = random.nextInt(cities.size());
+                    if (binary){
+                        out.write(RouteServer.OP_DISTANCE);
+                        out.writeInt(source);
+                        out.writeInt(destination);
+                    } else {
+                        out.write(("DISTANCE " + cities.get(source) + " " + cities.get(destination) + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                    sent[sentCount++ % pipelineDepth] = System.nanoTime();
+                }
+                out.flush();
+                // STEP 2: Read the oldest answer
+                if (binary) in.readInt();
+                else {
+                    String answer = readLine(in);
+                    if (answer == null || !answer.startsWith("OK")) throw new IOException("Request refused: " + answer);
+                }
+                latency.record(System.nanoTime() - sent[received % pipelineDepth]);
+            }
+        }
+    }
+
+    /**
+     * A helper method for drive() to read one text response
+     * @param in the input of the connection
+     * @return the line without its line break, or null at the end of the input
+     * @throws IOException if the connection fails
+     */
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int next;
+        while ((next = in.read()) >= 0 && next != '\n'){
+            line.append((char) next);
+        }
+        return next < 0 && line.length() == 0 ? null : line.toString();
+    }
+
+    /**
+     * Load a running server and print the throughput and latency percentiles. Arguments: the port, then optionally
+     * "binary" or "text", the number of connections, the requests per connection and the pipeline depth.
+     * @param args the command line arguments
+     * @throws IOException if the server cannot be reached
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1){
+            System.err.println("usage: RouteLoadGenerator port [binary|text] [connections] [requests] [pipelineDepth]");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        boolean binary = args.length < 2 || args[1].equals("binary");
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+        int pipelineDepth = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        List<String> cities = cityNames(port, 100000);
+        // A first short run warms up the server before the measured one
+        run(port, cities, binary, connections, Math.max(requests / 10, 1), pipelineDepth, 0);
+        System.out.println(run(port, cities, binary, connections, requests, pipelineDepth, 1));
+    }
+}
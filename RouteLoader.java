@@ -0,0 +1,377 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A bulk loader of routes from delimited text files such as CSV or OpenFlights-style dumps.
+ * The file is memory-mapped and split into chunks at line boundaries, and the chunks are parsed in parallel
+ * straight from the mapped bytes: a city name only becomes a String the first time a chunk sees it, and
+ * distances are parsed without creating any object. The parsed chunks are then added to the airport system
+ * in file order with AirportSystem.addEdges(), so the result is the same as calling addEdge() for every row.
+ * Fields may be surrounded by double quotes but cannot contain the delimiter. Empty lines and lines starting
+ * with '#' are skipped.
+ * @author Quan Tran
+ */
+public class RouteLoader {
+    /** The target size of a chunk of the file */
+    private static final int CHUNK_BYTES = 32 << 20;
+
+    /** The character between two fields */
+    private final byte delimiter;
+    /** The field number of the starting city */
+    private final int sourceColumn;
+    /** The field number of the final city */
+    private final int destinationColumn;
+    /** The field number of the distance */
+    private final int distanceColumn;
+    /** True to skip the first line of the file */
+    private final boolean header;
+    /** The target size of a chunk, smaller in tests */
+    private int chunkBytes = CHUNK_BYTES;
+
+    /**
+     * Initialize a loader for "source,destination,distance" files without a header
+     */
+    public RouteLoader(){
+        this(',', 0, 1, 2, false);
+    }
+
+    /**
+     * Initialize a loader for a custom layout
+     * @param delimiter the character between two fields
+     * @param sourceColumn the field number of the starting city, counting from 0
+     * @param destinationColumn the field number of the final city
+     * @param distanceColumn the field number of the distance
+     * @param header true to skip the first line of the file
+     */
+    public RouteLoader(char delimiter, int sourceColumn, int destinationColumn, int distanceColumn, boolean header){
+        if (delimiter > 127) throw new IllegalArgumentException("The delimiter must be an ASCII character");
+        if (sourceColumn < 0 || destinationColumn < 0 || distanceColumn < 0) throw new IllegalArgumentException("Columns must not be negative");
+        this.delimiter = (byte) delimiter;
+        this.sourceColumn = sourceColumn;
+        this.destinationColumn = destinationColumn;
+        this.distanceColumn = distanceColumn;
+        this.header = header;
+    }
+
+    /**
+     * Change the target size of the chunks parsed in parallel
+     * @param chunkBytes the target size of a chunk
+     * @return this loader
+     */
+    RouteLoader withChunkBytes(int chunkBytes){
+        this.chunkBytes = Math.max(chunkBytes, 1);
+        return this;
+    }
+
+    /**
+     * A method to load every route of a file into the airport system
+     * @param graph the airport system
+     * @param file the file to read
+     * @param parallelism the number of threads parsing the file
+     * @return how many routes were added and why the other rows were rejected
+     * @throws IOException if the file cannot be read
+     */
+    public LoadReport load(AirportSystem graph, Path file, int parallelism) throws IOException {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            // STEP 1: Split the file into chunks that end at line boundaries
+            long[] bounds = chunkBounds(channel, chunkBytes);
+            int chunkCount = bounds.length - 1;
+            ChunkParser[] parsers = new ChunkParser[chunkCount];
+            // STEP 2: Parse the chunks in parallel, each into its own batch
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ParallelRange.forEach(pool, 0, chunkCount, 1, (from, to) -> {
+                    for (int chunk = from; chunk < to; chunk++){
+                        try {
+                            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]);
+                            parsers[chunk] = new ChunkParser(buffer, header && chunk == 0);
+                            parsers[chunk].parse();
+                        } catch (IOException exception){
+                            throw new java.io.UncheckedIOException(exception);
+                        }
+                    }
+                });
+            } catch (java.io.UncheckedIOException exception){
+                throw exception.getCause();
+            } finally {
+                pool.shutdown();
+            }
+            // STEP 3: Join the chunks in file order and add them to the graph in one pass
+            LoadReport report = new LoadReport();
+            RouteBatch batch = chunkCount == 1 ? parsers[0].batch : new RouteBatch();
+            long lineOffset = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++){
+                if (chunkCount > 1) batch.append(parsers[chunk].batch, lineOffset);
+                report.mergeMalformed(parsers[chunk].report, lineOffset);
+                lineOffset += parsers[chunk].lineCount;
+            }
+            graph.addEdges(batch, report);
+            return report;
+        }
+    }
+
+    /**
+     * A helper method for load() to find the chunk boundaries, each one just after a line break
+     * @param channel the open file
+     * @param chunkBytes the target size of a chunk
+     * @return the start of every chunk followed by the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] chunkBounds(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long position = 0;
+        java.nio.ByteBuffer probe = java.nio.ByteBuffer.allocate(4096);
+        while (size - position > chunkBytes){
+            // Move the boundary forward to the next line break
+            long boundary = position + chunkBytes;
+            long found = -1;
+            while (found < 0 && boundary < size){
+                probe.clear();
+                int read = channel.read(probe, boundary);
+                for (int index = 0; index < read; index++){
+                    if (probe.get(index) == '\n'){
+                        found = boundary + index + 1;
+                        break;
+                    }
+                }
+                boundary += Math.max(read, 1);
+            }
+            if (found < 0 || found >= size) break;
+            bounds.add(found);
+            position = found;
+        }
+        bounds.add(size);
+        long[] output = new long[bounds.size()];
+        for (int index = 0; index < output.length; index++){
+            output[index] = bounds.get(index);
+        }
+        return output;
+    }
+
+    /**
+     * The parser of one chunk of the file. Line numbers are counted from the start of the chunk.
+     */
+    private class ChunkParser {
+        /** The mapped bytes of the chunk */
+        private final MappedByteBuffer buffer;
+        /** True to skip the first line */
+        private final boolean skipFirstLine;
+        /** The routes read from the chunk */
+        private final RouteBatch batch = new RouteBatch();
+        /** The malformed rows of the chunk */
+        private final LoadReport report = new LoadReport();
+        /** The city names seen by the chunk */
+        private final CityTable cities = new CityTable();
+        /** The number of lines of the chunk */
+        private long lineCount;
+        /** The first byte of the source, destination and distance fields of the current line */
+        private final int[] fieldStart = new int[3];
+        /** One past the last byte of the source, destination and distance fields of the current line */
+        private final int[] fieldEnd = new int[3];
+
+        /**
+         * Initialize a parser for a chunk
+         * @param buffer the mapped bytes of the chunk
+         * @param skipFirstLine true to skip the header line
+         */
+        ChunkParser(MappedByteBuffer buffer, boolean skipFirstLine){
+            this.buffer = buffer;
+            this.skipFirstLine = skipFirstLine;
+        }
+
+        /**
+         * Parse every line of the chunk
+         */
+        void parse(){
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit){
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+                lineCount++;
+                if (!(skipFirstLine && lineCount == 1)) parseLine(lineStart, lineEnd);
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        /**
+         * A helper method to parse one line and add its route to the batch
+         * @param start the first byte of the line
+         * @param end the line break or the end of the chunk
+         */
+        private void parseLine(int start, int end){
+            // Ignore a Windows line ending, empty lines and comments
+            if (end > start && buffer.get(end - 1) == '\r') end--;
+            if (end == start || buffer.get(start) == '#') return;
+            Arrays.fill(fieldStart, -1);
+            // Find the three fields that are needed
+            int field = 0;
+            int fieldBegin = start;
+            for (int position = start; position <= end; position++){
+                if (position == end || buffer.get(position) == delimiter){
+                    record(field, fieldBegin, position);
+                    field++;
+                    fieldBegin = position + 1;
+                }
+            }
+            if (fieldStart[0] < 0 || fieldStart[1] < 0 || fieldStart[2] < 0){
+                report.malformed(lineCount, "expected at least " + (Math.max(sourceColumn, Math.max(destinationColumn, distanceColumn)) + 1) + " fields");
+                return;
+            }
+            long distance = parseDistance(fieldStart[2], fieldEnd[2]);
+            if (distance == Long.MIN_VALUE){
+                report.malformed(lineCount, "invalid distance");
+                return;
+            }
+            if (fieldEnd[0] == fieldStart[0] || fieldEnd[1] == fieldStart[1]){
+                report.malformed(lineCount, "empty city name");
+                return;
+            }
+            int source = cities.find(fieldStart[0], fieldEnd[0]);
+            int destination = cities.find(fieldStart[1], fieldEnd[1]);
+            batch.add(source, destination, (int) distance, lineCount);
+        }
+
+        /**
+         * A helper method to remember where a needed field starts and ends, without spaces and quotes
+         * @param field the field number
+         * @param start the first byte of the field
+         * @param end one past the last byte of the field
+         */
+        private void record(int field, int start, int end){
+            int slot = field == sourceColumn ? 0 : field == destinationColumn ? 1 : field == distanceColumn ? 2 : -1;
+            if (slot < 0) return;
+            while (start < end && buffer.get(start) == ' ') start++;
+            while (end > start && buffer.get(end - 1) == ' ') end--;
+            if (end - start >= 2 && buffer.get(start) == '"' && buffer.get(end - 1) == '"'){
+                start++;
+                end--;
+            }
+            fieldStart[slot] = start;
+            fieldEnd[slot] = end;
+        }
+
+        /**
+         * A helper method to parse a distance directly from the bytes of the file
+         * @param start the first byte of the field
+         * @param end one past the last byte of the field
+         * @return the distance, or Long.MIN_VALUE if it is not an int
+         */
+        private long parseDistance(int start, int end){
+            boolean negative = start < end && buffer.get(start) == '-';
+            if (negative) start++;
+            if (start == end) return Long.MIN_VALUE;
+            long value = 0;
+            for (int position = start; position < end; position++){
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) return Long.MIN_VALUE;
+            }
+            value = negative ? -value : value;
+            return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+        }
+
+        /**
+         * An open-addressing table from the bytes of a city name to its batch number, so a name
+         * is decoded into a String only the first time the chunk sees it.
+         */
+        private class CityTable {
+            /** The batch number plus one of the city in each slot, 0 for an empty slot */
+            private int[] slots = new int[1024];
+            /** The hash of the name of each batch city */
+            private int[] hashes = new int[256];
+            /** The UTF-8 bytes of each batch city */
+            private byte[][] names = new byte[256][];
+            /** The number of cities in the table */
+            private int size;
+
+            /**
+             * Find the batch number of the city whose name is in the given bytes, numbering it if it is new
+             * @param start the first byte of the name
+             * @param end one past the last byte of the name
+             * @return the batch number of the city
+             */
+            int find(int start, int end){
+                int hash = hash(start, end);
+                int mask = slots.length - 1;
+                int index = hash & mask;
+                while (slots[index] != 0){
+                    int city = slots[index] - 1;
+                    if (hashes[city] == hash && sameName(names[city], start, end)) return city;
+                    index = (index + 1) & mask;
+                }
+                // A new city: copy its bytes once and give it a String in the batch
+                byte[] name = new byte[end - start];
+                for (int position = start; position < end; position++){
+                    name[position - start] = buffer.get(position);
+                }
+                int city = batch.city(new String(name, StandardCharsets.UTF_8));
+                // Invalid UTF-8 can decode two byte sequences to the same name, which then share a city
+                if (city < size) return city;
+                if (size == names.length){
+                    names = Arrays.copyOf(names, size * 2);
+                    hashes = Arrays.copyOf(hashes, size * 2);
+                }
+                names[size] = name;
+                hashes[size] = hash;
+                slots[index] = ++size;
+                if (size * 2 > slots.length) grow();
+                return city;
+            }
+
+            /**
+             * A helper method to compare a stored name with bytes of the file
+             * @param name the stored name
+             * @param start the first byte of the other name
+             * @param end one past the last byte of the other name
+             * @return true if the names are the same
+             */
+            private boolean sameName(byte[] name, int start, int end){
+                if (name.length != end - start) return false;
+                for (int index = 0; index < name.length; index++){
+                    if (name[index] != buffer.get(start + index)) return false;
+                }
+                return true;
+            }
+
+            /**
+             * A helper method to compute the FNV-1a hash of a name in the file
+             * @param start the first byte of the name
+             * @param end one past the last byte of the name
+             * @return the hash
+             */
+            private int hash(int start, int end){
+                int hash = 0x811C9DC5;
+                for (int position = start; position < end; position++){
+                    hash = (hash ^ (buffer.get(position) & 0xFF)) * 0x01000193;
+                }
+                return hash ^ (hash >>> 16);
+            }
+
+            /**
+             * A helper method to double the slots and place every city again
+             */
+            private void grow(){
+                slots = new int[slots.length * 2];
+                int mask = slots.length - 1;
+                for (int city = 0; city < size; city++){
+                    int index = hashes[city] & mask;
+                    while (slots[index] != 0) index = (index + 1) & mask;
+                    slots[index] = city + 1;
+                }
+            }
+        }
+    }
+}
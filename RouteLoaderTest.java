@@ -0,0 +1,82 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the bulk route loader
+ */
+public class RouteLoaderTest {
+
+    @org.junit.Test
+    public void batchMatchesAddEdge() {
+        Random random = new Random(21);
+        AirportSystem expected = new AirportSystem();
+        AirportSystem actual = new AirportSystem();
+        expected.addEdge("a", "b", 1);
+        actual.addEdge("a", "b", 1);
+        RouteBatch batch = new RouteBatch();
+        int addedCount = 0;
+        for (int index = 0; index < 500; index++) {
+            String source = String.valueOf(random.nextInt(60));
+            String destination = random.nextInt(20) == 0 ? "a" : String.valueOf(random.nextInt(60));
+            int weight = random.nextInt(110) - 10;
+            if (expected.addEdge(source, destination, weight)) addedCount++;
+            batch.add(source, destination, weight);
+        }
+        batch.add("b", "a", 3);
+
+        // Case 1: The batch adds the same routes, cities and order as one addEdge() per route
+        LoadReport report = actual.addEdges(batch);
+        assertEquals(addedCount, report.getAddedCount());
+        assertEquals(501, report.getAddedCount() + report.getNegativeCount() + report.getDuplicateCount());
+        assertEquals(expected.cityCount(), actual.cityCount());
+        for (int city = 0; city < expected.cityCount(); city++) {
+            String name = expected.cityName(city);
+            assertEquals(name, actual.cityName(city));
+            assertEquals(expected.breadthFirstSearch(name), actual.breadthFirstSearch(name));
+            assertEquals(expected.shortestDistance("a", name), actual.shortestDistance("a", name));
+        }
+        // Case 2: The repeated route between cities already in the graph is reported
+        assertTrue(report.getRejections().contains("line 0: duplicate route between b and a"));
+    }
+
+    @org.junit.Test
+    public void loadFile() throws IOException {
+        Path file = Files.createTempFile("routes", ".csv");
+        try {
+            StringBuilder text = new StringBuilder("source,destination,distance\r\n");
+            Random random = new Random(8);
+            AirportSystem expected = new AirportSystem();
+            for (int index = 0; index < 2000; index++) {
+                String source = "City " + random.nextInt(300);
+                String destination = "\"City " + random.nextInt(300) + "\"";
+                int weight = random.nextInt(1000) - 5;
+                expected.addEdge(source, destination.replace("\"", ""), weight);
+                text.append(source).append(", ").append(destination).append(',').append(weight).append("\r\n");
+            }
+            text.append("# comment\n\nShort,Row\nBad,Distance,12x\n");
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+            // Case 1: Small chunks parsed in parallel give the same graph as adding the rows in order
+            AirportSystem actual = new AirportSystem();
+            LoadReport report = new RouteLoader(',', 0, 1, 2, true).withChunkBytes(1000).load(actual, file, 4);
+            assertEquals(expected.cityCount(), actual.cityCount());
+            for (int city = 0; city < expected.cityCount(); city++) {
+                assertEquals(expected.cityName(city), actual.cityName(city));
+                assertEquals(expected.breadthFirstSearch(expected.cityName(city)), actual.breadthFirstSearch(expected.cityName(city)));
+            }
+            assertEquals(2000, report.getAddedCount() + report.getNegativeCount() + report.getDuplicateCount());
+
+            // Case 2: Malformed rows are reported with their line in the file
+            assertEquals(2, report.getMalformedCount());
+            assertTrue(report.getRejections().contains("line 2004: expected at least 3 fields"));
+            assertTrue(report.getRejections().contains("line 2005: invalid distance"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of the operations of an airport system: for each of addEdge(), shortestDistance(), breadthFirstSearch()
+ * and minimumSpanningTree() a latency histogram, the number of cities settled, the number of connections examined
+ * and the largest queue size. Operations slower than the event threshold are also sent to Java Flight Recorder as
+ * RouteQueryEvent. The metrics only exist while they are turned on, so an airport system without metrics does no
+ * timing and no allocation for them.
+ * @author Quan Tran
+ */
+public class RouteMetrics {
+    /** The operations that are measured */
+    public enum Operation {
+        ADD_EDGE("addEdge"),
+        REMOVE_EDGE("removeEdge"),
+        SHORTEST_DISTANCE("shortestDistance"),
+        BREADTH_FIRST_SEARCH("breadthFirstSearch"),
+        MINIMUM_SPANNING_TREE("minimumSpanningTree");
+
+        /** The name of the method of the operation */
+        private final String methodName;
+
+        /**
+         * Initialize an operation
+         * @param methodName the name of the method of the operation
+         */
+        Operation(String methodName){
+            this.methodName = methodName;
+        }
+
+        /**
+         * Retrieve the name of the method of the operation
+         * @return the method name
+         */
+        public String getMethodName(){
+            return methodName;
+        }
+    }
+
+    /**
+     * The work done by one call, filled in by the search engines. One object is reused for every call of the
+     * owning airport system, which is not thread-safe either.
+     */
+    static final class Counters {
+        /** The number of cities settled or visited */
+        int settled;
+        /** The number of connections examined */
+        long relaxed;
+        /** The largest number of cities waiting in the queue */
+        int queuePeak;
+
+        /**
+         * Reset the counters before a call
+         */
+        void clear(){
+            settled = 0;
+            relaxed = 0;
+            queuePeak = 0;
+        }
+    }
+
+    /** The default duration from which an operation is sent to Java Flight Recorder */
+    static final long DEFAULT_EVENT_THRESHOLD_NANOS = 1_000_000;
+    /** The operations, in the order of the enum */
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    /** The metrics of each operation, in the order of the enum */
+    private final OperationMetrics[] operations;
+    /** The counters reused by the calls of the owning airport system */
+    final Counters counters = new Counters();
+    /** The duration from which an operation is sent to Java Flight Recorder */
+    private volatile long eventThresholdNanos = DEFAULT_EVENT_THRESHOLD_NANOS;
+    /** The names under which the metrics are registered with JMX */
+    private final List<ObjectName> registeredNames = new ArrayList<>();
+
+    /**
+     * Initialize empty metrics
+     */
+    RouteMetrics(){
+        operations = new OperationMetrics[OPERATIONS.length];
+        for (Operation operation : OPERATIONS){
+            operations[operation.ordinal()] = new OperationMetrics(operation.getMethodName());
+        }
+    }
+
+    /**
+     * Retrieve the metrics of an operation
+     * @param operation the operation
+     * @return the metrics
+     */
+    public OperationMetrics get(Operation operation){
+        return operations[operation.ordinal()];
+    }
+
+    /**
+     * A method to record one call
+     * @param operation the operation
+     * @param startNanos the System.nanoTime() at the start of the call
+     * @param source the source or start city
+     * @param destination the destination city, or null if the operation has none
+     * @param settled the number of cities settled or visited
+     * @param relaxed the number of connections examined
+     * @param queuePeak the largest number of cities waiting in the queue
+     */
+    void record(Operation operation, long startNanos, String source, String destination, int settled, long relaxed, int queuePeak){
+        long latency = System.nanoTime() - startNanos;
+        operations[operation.ordinal()].record(latency, settled, relaxed, queuePeak);
+        // Only slow calls are worth an event, which keeps bulk loads from flooding the recording
+        if (latency < eventThresholdNanos) return;
+        RouteQueryEvent event = new RouteQueryEvent();
+        if (!event.isEnabled()) return;
+        event.operation = operation.getMethodName();
+        event.source = source;
+        event.destination = destination;
+        event.latency = latency;
+        event.settled = settled;
+        event.relaxed = relaxed;
+        event.queuePeak = queuePeak;
+        event.commit();
+    }
+
+    /**
+     * A method to record one call with the work stored in the counters
+     * @param operation the operation
+     * @param startNanos the System.nanoTime() at the start of the call
+     * @param source the source or start city
+     * @param destination the destination city, or null if the operation has none
+     */
+    void record(Operation operation, long startNanos, String source, String destination){
+        record(operation, startNanos, source, destination, counters.settled, counters.relaxed, counters.queuePeak);
+    }
+
+    /**
+     * Retrieve the duration from which an operation is sent to Java Flight Recorder
+     * @return the duration in nanoseconds
+     */
+    public long getEventThresholdNanos(){
+        return eventThresholdNanos;
+    }
+
+    /**
+     * Change the duration from which an operation is sent to Java Flight Recorder
+     * @param thresholdNanos the duration in nanoseconds, 0 to send every operation
+     */
+    public void setEventThresholdNanos(long thresholdNanos){
+        if (thresholdNanos < 0) throw new IllegalArgumentException("The event threshold must not be negative");
+        this.eventThresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * A method to forget every recorded call
+     */
+    public void reset(){
+        for (OperationMetrics metrics : operations){
+            metrics.reset();
+        }
+    }
+
+    /**
+     * A method to publish the metrics with JMX, one MBean per operation named
+     * "AirportSystem:type=RouteMetrics,name=[name],operation=[method name]"
+     * @param name the name of the airport system, which must be unique in this JVM
+     * @throws JMException if the name is invalid or already registered
+     */
+    public synchronized void register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        List<ObjectName> names = new ArrayList<>();
+        try {
+            for (OperationMetrics metrics : operations){
+                ObjectName objectName = new ObjectName("AirportSystem:type=RouteMetrics,name=" + ObjectName.quote(name)
+                        + ",operation=" + metrics.getName());
+                server.registerMBean(metrics, objectName);
+                names.add(objectName);
+            }
+        } catch (JMException exception){
+            // Do not leave some of the operations of this name registered
+            for (ObjectName objectName : names){
+                server.unregisterMBean(objectName);
+            }
+            throw exception;
+        }
+        registeredNames.addAll(names);
+    }
+
+    /**
+     * A method to remove the metrics from JMX
+     * @throws JMException if an MBean cannot be removed
+     */
+    public synchronized void unregister() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : registeredNames){
+            if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+        }
+        registeredNames.clear();
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder output = new StringBuilder();
+        for (OperationMetrics metrics : operations){
+            output.append(metrics).append('\n');
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,155 @@
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A JUnit class to test the metrics of the airport system operations
+ */
+public class RouteMetricsTest {
+
+    /**
+     * A helper method to build the graph used by the airport system tests
+     * @return the airport system
+     */
+    private static AirportSystem sampleGraph() {
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("4", "5", 9);
+        airportSystem.addEdge("2", "4", 3);
+        airportSystem.addEdge("2", "3", 3);
+        airportSystem.addEdge("2", "6", 7);
+        airportSystem.addEdge("3", "4", 5);
+        airportSystem.addEdge("3", "6", 8);
+        return airportSystem;
+    }
+
+    @org.junit.Test
+    public void operationMetrics() {
+        AirportSystem airportSystem = sampleGraph();
+
+        // Case 1: The metrics are off until they are turned on
+        assertNull(airportSystem.getMetrics());
+        RouteMetrics metrics = airportSystem.enableMetrics();
+        assertSame(metrics, airportSystem.enableMetrics());
+
+        // Case 2: Every operation is counted with the work it did
+        assertEquals(13, airportSystem.shortestDistance("6", "5"));
+        assertEquals(6, airportSystem.breadthFirstSearch("1").size());
+        assertEquals(5, airportSystem.minimumSpanningTree().size());
+        assertTrue(airportSystem.addEdge("6", "7", 2));
+        OperationMetrics search = metrics.get(RouteMetrics.Operation.SHORTEST_DISTANCE);
+        assertEquals(1, search.getCount());
+        assertTrue(search.getVerticesSettled() >= 2);
+        assertTrue(search.getEdgesRelaxed() >= search.getVerticesSettled());
+        assertTrue(search.getQueuePeak() >= 1);
+        OperationMetrics traversal = metrics.get(RouteMetrics.Operation.BREADTH_FIRST_SEARCH);
+        assertEquals(6, traversal.getVerticesSettled());
+        assertEquals(18, traversal.getEdgesRelaxed());
+        assertEquals(6, metrics.get(RouteMetrics.Operation.MINIMUM_SPANNING_TREE).getVerticesSettled());
+        assertEquals(9, metrics.get(RouteMetrics.Operation.MINIMUM_SPANNING_TREE).getEdgesRelaxed());
+        assertEquals(1, metrics.get(RouteMetrics.Operation.ADD_EDGE).getCount());
+
+        // Case 3: A cache hit is timed but does no work
+        airportSystem.enableDistanceCache(10, 0);
+        airportSystem.shortestDistance("6", "5");
+        long settled = search.getVerticesSettled();
+        airportSystem.shortestDistance("5", "6");
+        assertEquals(3, search.getCount());
+        assertEquals(settled, search.getVerticesSettled());
+
+        // Case 4: Turning the metrics off stops the counting
+        airportSystem.disableMetrics();
+        airportSystem.shortestDistance("1", "3");
+        assertNull(airportSystem.getMetrics());
+        assertEquals(3, search.getCount());
+
+        // Case 5: Reset forgets every call
+        metrics.reset();
+        assertEquals(0, search.getCount());
+        assertEquals(0, search.getVerticesSettled());
+    }
+
+    @org.junit.Test
+    public void latencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Case 1: An empty histogram
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+
+        // Case 2: Small values are exact and large values are within 1%
+        for (long value = 1; value <= 100_000; value++){
+            histogram.record(value * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 500_000);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 990_000);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(200);
+        assertEquals(3, small.getValueAtPercentile(50));
+        assertEquals(200, small.getValueAtPercentile(100));
+
+        // Case 3: Values above the trackable range are kept as the largest trackable value
+        small.record(Long.MAX_VALUE);
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, small.getMax());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, small.getValueAtPercentile(100));
+    }
+
+    @org.junit.Test
+    public void jmxRegistration() throws Exception {
+        AirportSystem airportSystem = sampleGraph();
+        RouteMetrics metrics = airportSystem.enableMetrics();
+        metrics.register("test");
+        try {
+            airportSystem.shortestDistance("6", "5");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("AirportSystem:type=RouteMetrics,name=\"test\",operation=shortestDistance");
+
+            // Case 1: The attributes of an operation can be read through JMX
+            assertEquals(1L, server.getAttribute(name, "Count"));
+            assertTrue((Long) server.getAttribute(name, "VerticesSettled") > 0);
+
+            // Case 2: The same name cannot be registered twice
+            try {
+                airportSystem.enableMetrics().register("test");
+                fail("A second registration should fail");
+            } catch (javax.management.InstanceAlreadyExistsException expected){
+                assertTrue(server.isRegistered(name));
+            }
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName("AirportSystem:type=RouteMetrics,name=\"test\",operation=shortestDistance")));
+    }
+
+    @org.junit.Test
+    public void disabledMetricsDoNotAllocate() {
+        AirportSystem airportSystem = sampleGraph();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long distance = 0;
+        // Warm up the search and the allocation counter
+        for (int query = 0; query < 1000; query++){
+            distance += airportSystem.shortestDistance("6", "5");
+        }
+        threads.getThreadAllocatedBytes(thread);
+
+        // Case 1: Repeated queries on an unchanged graph allocate nothing while the metrics are off
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int query = 0; query < 1000; query++){
+            distance += airportSystem.shortestDistance("6", "5");
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertEquals(26_000, distance);
+        assertTrue("allocated " + allocated + " bytes", allocated < 1000);
+    }
+}
@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for one slow airport system operation. Only operations slower than the event threshold
+ * of their RouteMetrics are committed, so a recording shows the slow queries with the work they did.
+ * @author Quan Tran
+ */
+@Name("airport.RouteQuery")
+@Label("Route Query")
+@Category("Airport System")
+@Description("A slow airport system operation")
+class RouteQueryEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Source")
+    String source;
+
+    @Label("Destination")
+    String destination;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Vertices Settled")
+    int settled;
+
+    @Label("Edges Relaxed")
+    long relaxed;
+
+    @Label("Queue Peak")
+    int queuePeak;
+}
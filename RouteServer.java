@@ -0,0 +1,507 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A query server on localhost over one shared airport system, so several programs can query the same graph
+ * instead of each loading its own copy. Every connection gets its own thread and answers from the latest
+ * published snapshot, so queries never wait for each other or for writers.
+ * Two protocols share the port, chosen by the first byte a client sends:
+ * <pre>
+ * text, one request per line, one response line "OK ..." or "ERROR message" per request:
+ *     DISTANCE a b   OK distance, -1 if there is no route
+ *     REACH a        OK count city city ...          the cities in BFS order
+ *     MST            OK count a b distance ...       the edges of the minimum spanning forest in Prim order
+ * binary, starting with the byte BINARY_MAGIC, then frames of one opcode byte and big-endian ints:
+ *     CITY_ID        int length, UTF-8 name  ->  int city, -1 if unknown
+ *     CITY_NAME      int city                ->  int length, UTF-8 name, length -1 if unknown
+ *     DISTANCE       int city, int city      ->  int distance, -1 if unknown or there is no route
+ *     DISTANCES      int city, int count, count cities  ->  count distances, with one search for all of them
+ *     REACH          int city                ->  int count, count cities
+ *     MST            nothing                 ->  int count, count triples of city, city, distance
+ * </pre>
+ * Requests may be pipelined: a client can send many requests without waiting, and the answers come back in order.
+ * Responses are only flushed once every request already received has been answered, so a pipelined batch
+ * goes back in a few packets, and all the requests of a batch are answered from the same snapshot.
+ * City names in the text protocol cannot contain whitespace, the binary protocol has no such limit.
+ * @author Quan Tran
+ */
+public class RouteServer implements Closeable {
+    /** The first byte of a binary connection, which cannot start a text request */
+    public static final int BINARY_MAGIC = 0xB7;
+    /** The binary opcode to find the number of a city */
+    public static final int OP_CITY_ID = 1;
+    /** The binary opcode to find the name of a city */
+    public static final int OP_CITY_NAME = 2;
+    /** The binary opcode to find the shortest distance between two cities */
+    public static final int OP_DISTANCE = 3;
+    /** The binary opcode to find the cities reachable from a city */
+    public static final int OP_REACH = 4;
+    /** The binary opcode to find the minimum spanning forest */
+    public static final int OP_MST = 5;
+    /** The binary opcode to find the shortest distances from one city to several cities */
+    public static final int OP_DISTANCES = 6;
+    /** The longest text request or binary city name accepted, in bytes */
+    static final int MAX_REQUEST_BYTES = 1 << 16;
+    /** The largest number of cities accepted by one DISTANCES request */
+    static final int MAX_TARGETS = 1 << 24;
+
+    /** The shared airport system */
+    private final ConcurrentAirportSystem airportSystem;
+    /** The socket accepting connections */
+    private final ServerSocket serverSocket;
+    /** The threads serving the connections, one per connection */
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "route-server-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** The open client sockets, closed with the server */
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    /** The thread accepting connections */
+    private final Thread acceptor;
+    /** Whether close() was called */
+    private volatile boolean closed;
+
+    /**
+     * Start a server on a localhost port
+     * @param airportSystem the shared airport system
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public RouteServer(ConcurrentAirportSystem airportSystem, int port) throws IOException {
+        this.airportSystem = airportSystem;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.acceptor = new Thread(this::acceptConnections, "route-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Retrieve the port the server listens on
+     * @return the port
+     */
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * A method to stop accepting connections and close every open connection
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket client : clients){
+            closeQuietly(client);
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * A helper method for the acceptor thread that hands every new connection to its own thread
+     */
+    private void acceptConnections(){
+        while (!closed){
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e){
+                // The server socket was closed
+                return;
+            }
+            clients.add(client);
+            // A connection accepted while closing would be missed by close()
+            if (closed){
+                closeQuietly(client);
+                return;
+            }
+            // Responses are already batched, so small packets should not wait for more data
+            try {
+                client.setTcpNoDelay(true);
+            } catch (SocketException e){
+                // Keep the default
+            }
+            connections.execute(() -> serve(client));
+        }
+    }
+
+    /**
+     * A helper method for the connection threads that answers the requests of one client until it disconnects
+     * @param client the client socket
+     */
+    private void serve(Socket client){
+        try (Socket socket = client){
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            // STEP 1: Choose the protocol from the first byte without consuming a text request
+            in.mark(1);
+            int first = in.read();
+            if (first < 0) return;
+            if (first == BINARY_MAGIC) serveBinary(new DataInputStream(in), new DataOutputStream(out));
+            else {
+                in.reset();
+                serveText(in, out);
+            }
+        } catch (EOFException e){
+            // The client disconnected in the middle of a request
+        } catch (IOException e){
+            // The client disconnected or the server was closed
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    /**
+     * A helper method for serve() that answers text requests
+     * @param in the buffered input of the client
+     * @param out the buffered output of the client
+     * @throws IOException if the connection fails
+     */
+    private void serveText(InputStream in, OutputStream out) throws IOException {
+        Connection connection = new Connection(airportSystem);
+        StringBuilder response = new StringBuilder();
+        byte[] line = new byte[256];
+        while (true){
+            // STEP 2: Read one line, without the line break
+            int length = 0;
+            int next;
+            while ((next = in.read()) >= 0 && next != '\n'){
+                if (length == MAX_REQUEST_BYTES) throw new IOException("Request line too long");
+                if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                line[length++] = (byte) next;
+            }
+            if (next < 0 && length == 0) return;
+            if (length > 0 && line[length - 1] == '\r') length--;
+            // STEP 3: Answer it and flush only once no more requests are waiting
+            response.setLength(0);
+            answerText(connection, new String(line, 0, length, StandardCharsets.UTF_8), response);
+            out.write(response.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+            if (in.available() == 0){
+                out.flush();
+                connection.endBatch();
+            }
+            if (next < 0) return;
+        }
+    }
+
+    /**
+     * A helper method for serveText() that answers one text request
+     * @param connection the query state of the connection
+     * @param request the request line
+     * @param response the builder receiving the response line
+     */
+    private static void answerText(Connection connection, String request, StringBuilder response){
+        String[] words = request.trim().split("\\s+");
+        RouteSnapshot graph = connection.graph();
+        switch (words[0].toUpperCase()){
+            case "DISTANCE":
+                if (words.length != 3){
+                    response.append("ERROR usage: DISTANCE a b");
+                    return;
+                }
+                int source = graph.cityId(words[1]);
+                int destination = graph.cityId(words[2]);
+                if (source < 0 || destination < 0){
+                    response.append("ERROR unknown city ").append(source < 0 ? words[1] : words[2]);
+                    return;
+                }
+                response.append("OK ").append(connection.distance(source, destination));
+                return;
+            case "REACH":
+                if (words.length != 2){
+                    response.append("ERROR usage: REACH a");
+                    return;
+                }
+                if (graph.cityId(words[1]) < 0){
+                    response.append("ERROR unknown city ").append(words[1]);
+                    return;
+                }
+                List<String> cities = graph.breadthFirstSearch(words[1]);
+                response.append("OK ").append(cities.size());
+                for (String city : cities){
+                    response.append(' ').append(city);
+                }
+                return;
+            case "MST":
+                int[] edges = SpanningForest.computeIds(graph, null);
+                response.append("OK ").append(edges.length / 3);
+                for (int index = 0; index < edges.length; index += 3){
+                    response.append(' ').append(graph.cityName(edges[index])).append(' ').append(graph.cityName(edges[index + 1]))
+                            .append(' ').append(edges[index + 2]);
+                }
+                return;
+            default:
+                response.append("ERROR unknown request ").append(words[0]);
+        }
+    }
+
+    /**
+     * A helper method for serve() that answers binary requests. An unknown opcode closes the connection, since the
+     * length of its arguments is not known.
+     * @param in the input of the client, after the magic byte
+     * @param out the output of the client
+     * @throws IOException if the connection fails or a request is malformed
+     */
+    private void serveBinary(DataInputStream in, DataOutputStream out) throws IOException {
+        Connection connection = new Connection(airportSystem);
+        while (true){
+            int opcode = in.read();
+            if (opcode < 0) return;
+            RouteSnapshot graph = connection.graph();
+            switch (opcode){
+                case OP_CITY_ID:
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_REQUEST_BYTES) throw new IOException("Bad city name length " + length);
+                    byte[] name = new byte[length];
+                    in.readFully(name);
+                    out.writeInt(graph.cityId(new String(name, StandardCharsets.UTF_8)));
+                    break;
+                case OP_CITY_NAME:
+                    int city = in.readInt();
+                    if (city < 0 || city >= graph.cityCount()){
+                        out.writeInt(-1);
+                        break;
+                    }
+                    byte[] bytes = graph.cityName(city).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    break;
+                case OP_DISTANCE:
+                    int source = in.readInt();
+                    int destination = in.readInt();
+                    boolean known = source >= 0 && source < graph.cityCount() && destination >= 0 && destination < graph.cityCount();
+                    out.writeInt(known ? connection.distance(source, destination) : -1);
+                    break;
+                case OP_DISTANCES:
+                    int from = in.readInt();
+                    int count = in.readInt();
+                    if (count < 0 || count > MAX_TARGETS) throw new IOException("Bad target count " + count);
+                    int[] targets = new int[count];
+                    for (int index = 0; index < count; index++){
+                        targets[index] = in.readInt();
+                    }
+                    for (int distance : connection.distances(from, targets)){
+                        out.writeInt(distance);
+                    }
+                    break;
+                case OP_REACH:
+                    int start = in.readInt();
+                    int[] reached = BreadthFirstSearch.traverse(graph, start < 0 || start >= graph.cityCount() ? -1 : start, null);
+                    writeInts(out, reached, reached.length);
+                    break;
+                case OP_MST:
+                    int[] edges = SpanningForest.computeIds(graph, null);
+                    writeInts(out, edges, edges.length / 3);
+                    break;
+                default:
+                    throw new IOException("Unknown opcode " + opcode);
+            }
+            if (in.available() == 0){
+                out.flush();
+                connection.endBatch();
+            }
+        }
+    }
+
+    /**
+     * A helper method for serveBinary() to write a count followed by ints
+     * @param out the output of the client
+     * @param values the ints
+     * @param count the count written before them
+     * @throws IOException if the connection fails
+     */
+    private static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+        out.writeInt(count);
+        for (int value : values){
+            out.writeInt(value);
+        }
+    }
+
+    /** The query state of one connection: the snapshot of the current batch and a reusable search over it */
+    private static class Connection {
+        /** The shared airport system */
+        private final ConcurrentAirportSystem airportSystem;
+        /** The snapshot the current batch of requests is answered from */
+        private RouteSnapshot graph;
+        /** The search over the snapshot, created on the first distance request */
+        private DijkstraSearch search;
+        /** Whether the next request starts a new batch */
+        private boolean batchDone = true;
+
+        /**
+         * Initialize the state of a connection
+         * @param airportSystem the shared airport system
+         */
+        private Connection(ConcurrentAirportSystem airportSystem){
+            this.airportSystem = airportSystem;
+        }
+
+        /**
+         * Retrieve the snapshot of the current batch, taking the latest one when a new batch starts
+         * @return the snapshot
+         */
+        private RouteSnapshot graph(){
+            if (batchDone){
+                batchDone = false;
+                RouteSnapshot latest = airportSystem.snapshot();
+                // Keep the search if nothing was published since the last batch
+                if (latest != graph){
+                    graph = latest;
+                    search = null;
+                }
+            }
+            return graph;
+        }
+
+        /**
+         * A method to mark that every request received so far was answered
+         */
+        private void endBatch(){
+            batchDone = true;
+        }
+
+        /**
+         * A method to find the shortest distance between two cities of the snapshot of the current batch
+         * @param source the source city number
+         * @param destination the destination city number
+         * @return the distance, or -1 if there is no route between them
+         */
+        private int distance(int source, int destination){
+            if (search == null) search = new DijkstraSearch(graph());
+            int distance = DijkstraSearch.toIntDistance(search.run(source, destination));
+            return distance == Integer.MAX_VALUE ? -1 : distance;
+        }
+
+        /**
+         * A method to find the shortest distances from a city to several cities of the snapshot with one search
+         * @param source the source city number
+         * @param targets the target city numbers, which may repeat or be unknown
+         * @return the distance of each target, -1 if it is unknown or there is no route to it
+         */
+        private int[] distances(int source, int[] targets){
+            RouteSnapshot graph = graph();
+            int[] output = new int[targets.length];
+            Arrays.fill(output, -1);
+            if (source < 0 || source >= graph.cityCount()) return output;
+            // Only search for the known cities
+            int[] known = new int[targets.length];
+            int count = 0;
+            for (int target : targets){
+                if (target >= 0 && target < graph.cityCount()) known[count++] = target;
+            }
+            if (count == 0) return output;
+            if (search == null) search = new DijkstraSearch(graph);
+            search.runToTargets(source, known, 0, count);
+            for (int index = 0; index < targets.length; index++){
+                if (targets[index] < 0 || targets[index] >= graph.cityCount()) continue;
+                int distance = DijkstraSearch.toIntDistance(search.distanceTo(targets[index]));
+                if (distance != Integer.MAX_VALUE) output[index] = distance;
+            }
+            return output;
+        }
+    }
+
+    /**
+     * A helper method to close a socket, ignoring errors
+     * @param socket the socket
+     */
+    private static void closeQuietly(Socket socket){
+        try {
+            socket.close();
+        } catch (IOException e){
+            // Already closed
+        }
+    }
+
+    /**
+     * A helper method for main() to check if a file was written by AirportSystem.save()
+     * @param file the file
+     * @return true if the file starts with the magic number of a saved graph
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean isSavedGraph(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)){
+            byte[] magic = new byte[4];
+            if (in.readNBytes(magic, 0, 4) < 4) return false;
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == RouteGraphFile.MAGIC;
+        }
+    }
+
+    /**
+     * A method to copy a graph into an airport system, keeping the numbers of the cities
+     * @param source the graph to copy
+     * @param target the empty airport system
+     */
+    static void copy(RouteGraph source, AirportSystem target){
+        for (int city = 0; city < source.cityCount(); city++){
+            target.addCity(source.cityName(city));
+        }
+        // Each route is listed from both of its cities, the second copy is refused as a repeated route
+        for (int city = 0; city < source.cityCount(); city++){
+            for (int connection = 0; connection < source.degree(city); connection++){
+                target.addEdge(city, source.neighbor(city, connection), source.distance(city, connection));
+            }
+        }
+    }
+
+    /**
+     * Serve a route file until the process is stopped. Arguments: the route file, either source,destination,distance
+     * rows or a graph saved by AirportSystem.save(), and optionally the port, 7070 by default.
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be read or the port cannot be bound
+     * @throws InterruptedException if the main thread is interrupted while serving
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1){
+            System.err.println("usage: RouteServer routes.csv [port]");
+            return;
+        }
+        ConcurrentAirportSystem airportSystem = new ConcurrentAirportSystem();
+        Path file = Paths.get(args[0]);
+        boolean saved = isSavedGraph(file);
+        try {
+            airportSystem.update(graph -> {
+                try {
+                    // Every route is copied anyway, so checking the checksum only adds one sequential read
+                    if (saved) copy(AirportSystem.map(file, true), graph);
+                    else new RouteLoader().load(graph, file, Runtime.getRuntime().availableProcessors());
+                } catch (IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+        RouteServer server = new RouteServer(airportSystem, args.length > 1 ? Integer.parseInt(args[1]) : 7070);
+        System.out.println("Loaded " + airportSystem.snapshot().cityCount() + " cities, listening on localhost:" + server.getPort());
+        // The connection threads are daemons, so keep the process alive while the server accepts connections
+        server.acceptor.join();
+    }
+}
@@ -0,0 +1,147 @@
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A JUnit class to test the route server and the load generator
+ */
+public class RouteServerTest {
+
+    /**
+     * A helper method to build the airport system of the other tests
+     * @return the shared airport system
+     */
+    private static ConcurrentAirportSystem airportSystem() {
+        ConcurrentAirportSystem airportSystem = new ConcurrentAirportSystem();
+        airportSystem.update(graph -> {
+            graph.addEdge("1", "5", 4);
+            graph.addEdge("1", "4", 1);
+            graph.addEdge("1", "2", 2);
+            graph.addEdge("4", "5", 9);
+            graph.addEdge("2", "4", 3);
+            graph.addCity("6");
+        });
+        return airportSystem;
+    }
+
+    @org.junit.Test
+    public void textProtocol() throws IOException {
+        ConcurrentAirportSystem airportSystem = airportSystem();
+        try (RouteServer server = new RouteServer(airportSystem, 0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            // Case 1: Pipelined requests are all sent before reading, and the answers come back in order
+            out.write("DISTANCE 2 5\r\nREACH 1\nMST\nDISTANCE 1 6\nDISTANCE 1 X\nFLY 1 2\nREACH\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("OK 6", in.readLine());
+            assertEquals("OK 4 1 5 4 2", in.readLine());
+            // The forest is the one of the airport system, in the same order
+            RouteSnapshot snapshot = airportSystem.snapshot();
+            int[] edges = SpanningForest.computeIds(snapshot, null);
+            StringBuilder forest = new StringBuilder("OK 3");
+            for (int index = 0; index < edges.length; index += 3) {
+                forest.append(' ').append(snapshot.cityName(edges[index])).append(' ').append(snapshot.cityName(edges[index + 1]))
+                      .append(' ').append(edges[index + 2]);
+            }
+            assertEquals(forest.toString(), in.readLine());
+            assertEquals("OK -1", in.readLine());
+            assertEquals("ERROR unknown city X", in.readLine());
+            assertEquals("ERROR unknown request FLY", in.readLine());
+            assertEquals("ERROR usage: REACH a", in.readLine());
+
+            // Case 2: A later request sees the routes published since
+            airportSystem.addEdge("5", "6", 1);
+            out.write("DISTANCE 1 6\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("OK 5", in.readLine());
+        }
+    }
+
+    @org.junit.Test
+    public void binaryProtocol() throws IOException {
+        ConcurrentAirportSystem airportSystem = airportSystem();
+        try (RouteServer server = new RouteServer(airportSystem, 0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] name = "4".getBytes(StandardCharsets.UTF_8);
+
+            // Case 1: Pipelined binary requests
+            out.write(RouteServer.BINARY_MAGIC);
+            out.write(RouteServer.OP_CITY_ID);
+            out.writeInt(name.length);
+            out.write(name);
+            out.write(RouteServer.OP_DISTANCE);
+            out.writeInt(1);
+            out.writeInt(0);
+            out.write(RouteServer.OP_DISTANCE);
+            out.writeInt(0);
+            out.writeInt(99);
+            out.write(RouteServer.OP_REACH);
+            out.writeInt(0);
+            out.write(RouteServer.OP_CITY_NAME);
+            out.writeInt(2);
+            out.write(RouteServer.OP_CITY_NAME);
+            out.writeInt(99);
+            out.flush();
+            int city = in.readInt();
+            assertEquals(airportSystem.snapshot().cityId("4"), city);
+            assertEquals(4, in.readInt());
+            assertEquals(-1, in.readInt());
+            assertEquals(4, in.readInt());
+            int[] reached = new int[4];
+            for (int index = 0; index < reached.length; index++) {
+                reached[index] = in.readInt();
+            }
+            assertEquals(0, reached[0]);
+            assertEquals(1, in.readInt());
+            assertEquals(airportSystem.snapshot().cityName(2).charAt(0), in.read());
+            assertEquals(-1, in.readInt());
+
+            // Case 2: The spanning forest is three ints per edge
+            out.write(RouteServer.OP_MST);
+            out.flush();
+            assertEquals(3, in.readInt());
+            int total = 0;
+            for (int edge = 0; edge < 3; edge++) {
+                in.readInt();
+                in.readInt();
+                total += in.readInt();
+            }
+            assertEquals(7, total);
+
+            // Case 3: An unknown opcode closes the connection
+            out.write(99);
+            out.flush();
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @org.junit.Test
+    public void loadGenerator() throws IOException, InterruptedException {
+        try (RouteServer server = new RouteServer(airportSystem(), 0)) {
+            // Case 1: The city names are read until the first unknown number
+            List<String> cities = RouteLoadGenerator.cityNames(server.getPort(), 5000);
+            assertEquals("[1, 5, 4, 2, 6]", cities.toString());
+
+            // Case 2: Every request of every connection is answered and timed, in both protocols
+            RouteLoadGenerator.Result result = RouteLoadGenerator.run(server.getPort(), cities, true, 3, 500, 8, 1);
+            assertEquals(1500, result.getRequestCount());
+            assertEquals(1500, result.getLatency().getCount());
+            assertTrue(result.getThroughput() > 0);
+            result = RouteLoadGenerator.run(server.getPort(), cities, false, 2, 300, 1, 2);
+            assertEquals(600, result.getRequestCount());
+        }
+    }
+}
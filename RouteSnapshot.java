@@ -0,0 +1,119 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of the airport system at one version, stored as compressed adjacency arrays.
+ * A snapshot never changes after it is built, so any number of threads can query it without locks.
+ * Every query creates its own traversal state.
+ * @author Quan Tran
+ */
+public class RouteSnapshot implements RouteGraph {
+    /** The version of the airport system this snapshot was taken from */
+    private final long version;
+    /** The name of each city by number */
+    private final String[] names;
+    /** The number of each city by name */
+    private final Map<String, Integer> ids;
+    /** Where the connections of each city start inside the arrays below, with one extra entry for the end */
+    private final int[] offsets;
+    /** The destination of each connection */
+    private final int[] targets;
+    /** The distance of each connection */
+    private final int[] weights;
+
+    /**
+     * Copy a route graph into a snapshot, keeping the order of the cities and of their connections
+     * @param graph the graph, which must not be modified while it is being copied
+     * @param version the version of the graph
+     */
+    RouteSnapshot(RouteGraph graph, long version){
+        this.version = version;
+        int cityCount = graph.cityCount();
+        names = new String[cityCount];
+        ids = new HashMap<>(cityCount * 2);
+        offsets = new int[cityCount + 1];
+        for (int city = 0; city < cityCount; city++){
+            names[city] = graph.cityName(city);
+            ids.put(names[city], city);
+            offsets[city + 1] = offsets[city] + graph.degree(city);
+        }
+        targets = new int[offsets[cityCount]];
+        weights = new int[offsets[cityCount]];
+        for (int city = 0; city < cityCount; city++){
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                targets[offsets[city] + connection] = graph.neighbor(city, connection);
+                weights[offsets[city] + connection] = graph.distance(city, connection);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the version of the airport system this snapshot was taken from
+     * @return the version, which grows with every route change
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    /**
+     * A method to find the shortest distance between two cities
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the shortest distance, or Integer.MAX_VALUE if there is no route between them
+     */
+    public int shortestDistance(String cityA, String cityB){
+        int source = cityId(cityA);
+        int destination = cityId(cityB);
+        if (source < 0 || destination < 0) return Integer.MAX_VALUE;
+        return DijkstraSearch.toIntDistance(new DijkstraSearch(this).run(source, destination));
+    }
+
+    /**
+     * A method that traverse through the graph using BFS style
+     * @param start the original start city
+     * @return the BFS traversal starting from the input city, or an empty list if the city is not in the graph
+     */
+    public List<String> breadthFirstSearch(String start){
+        return BreadthFirstSearch.traverse(this, start);
+    }
+
+    /**
+     * A method to create a minimum spanning forest, one minimum spanning tree for every connected part of the graph
+     * @return a list that contains the edges of the forest, in the order Prim's algorithm would add them
+     */
+    public List<AirportSystem.Edges> minimumSpanningTree(){
+        return SpanningForest.compute(this);
+    }
+
+    @Override
+    public int cityCount(){
+        return names.length;
+    }
+
+    @Override
+    public int cityId(String city){
+        Integer id = ids.get(city);
+        return id == null ? -1 : id;
+    }
+
+    @Override
+    public String cityName(int city){
+        return names[city];
+    }
+
+    @Override
+    public int degree(int city){
+        return offsets[city + 1] - offsets[city];
+    }
+
+    @Override
+    public int neighbor(int city, int connection){
+        return targets[offsets[city] + connection];
+    }
+
+    @Override
+    public int distance(int city, int connection){
+        return weights[offsets[city] + connection];
+    }
+}
@@ -0,0 +1,358 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A minimum spanning forest engine: one minimum spanning tree for every connected part of the graph.
+ * Small graphs use Kruskal's algorithm with a union-find structure, graphs with many connections use a parallel
+ * version of Boruvka's algorithm on a fork-join pool. Both break ties between equal distances by the order in which
+ * the connections appear in the graph, so they always choose the same forest.
+ * The chosen connections are returned in the order a Prim traversal would add them, starting the first tree from the
+ * second city like the original implementation did, so reports stay comparable with earlier output.
+ * @author Quan Tran
+ * @references CSDS 233 Lecture 24 minimum spanning tree pseudocode
+ */
+class SpanningForest {
+    /** The number of connections from which the parallel algorithm is used */
+    static final int PARALLEL_EDGE_THRESHOLD = 1 << 18;
+    /** The key of a component that has no outgoing connection in a Boruvka round */
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    /** The graph */
+    private final RouteGraph graph;
+    /** The smaller city of each undirected connection */
+    private final int[] edgeFrom;
+    /** The larger city of each undirected connection */
+    private final int[] edgeTo;
+    /** The distance of each undirected connection */
+    private final int[] edgeWeight;
+    /** The number of undirected connections */
+    private final int edgeCount;
+    /** The union-find parent of each city */
+    private final int[] parent;
+    /** The size of the set of each union-find root */
+    private final int[] setSize;
+    /** True for the connections chosen for the forest */
+    private final boolean[] chosen;
+    /** The largest number of cities in the queue while the forest is put in Prim order */
+    private int queuePeak;
+
+    /**
+     * Initialize the engine by listing every undirected connection once
+     * @param graph the graph, which must not be modified during the computation
+     */
+    private SpanningForest(RouteGraph graph){
+        this.graph = graph;
+        int cityCount = graph.cityCount();
+        int count = 0;
+        for (int city = 0; city < cityCount; city++){
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                if (city < graph.neighbor(city, connection)) count++;
+            }
+        }
+        edgeCount = count;
+        edgeFrom = new int[count];
+        edgeTo = new int[count];
+        edgeWeight = new int[count];
+        count = 0;
+        // Self loops can never be in a forest, and each route appears once from its smaller city
+        for (int city = 0; city < cityCount; city++){
+            for (int connection = 0; connection < graph.degree(city); connection++){
+                int neighbor = graph.neighbor(city, connection);
+                if (city >= neighbor) continue;
+                edgeFrom[count] = city;
+                edgeTo[count] = neighbor;
+                edgeWeight[count] = graph.distance(city, connection);
+                count++;
+            }
+        }
+        parent = new int[cityCount];
+        setSize = new int[cityCount];
+        for (int city = 0; city < cityCount; city++){
+            parent[city] = city;
+            setSize[city] = 1;
+        }
+        chosen = new boolean[count];
+    }
+
+    /**
+     * A method to compute the minimum spanning forest of a graph, in parallel if the graph is large
+     * @param graph the graph, which must not be modified during the computation
+     * @return the connections of the forest in Prim order
+     */
+    static List<AirportSystem.Edges> compute(RouteGraph graph){
+        return compute(graph, (RouteMetrics.Counters) null);
+    }
+
+    /**
+     * A method to compute the minimum spanning forest of a graph and count the work it does
+     * @param graph the graph, which must not be modified during the computation
+     * @param counters the counters to fill with the number of cities, examined connections and largest queue size, or null
+     * @return the connections of the forest in Prim order
+     */
+    static List<AirportSystem.Edges> compute(RouteGraph graph, RouteMetrics.Counters counters){
+        return toEdges(graph, computeIds(graph, counters));
+    }
+
+    /**
+     * A method to compute the minimum spanning forest of a graph as city numbers and count the work it does
+     * @param graph the graph, which must not be modified during the computation
+     * @param counters the counters to fill with the number of cities, examined connections and largest queue size, or null
+     * @return three ints per connection of the forest in Prim order: the city already in the tree, the new city and the distance
+     */
+    static int[] computeIds(RouteGraph graph, RouteMetrics.Counters counters){
+        SpanningForest forest = new SpanningForest(graph);
+        if (forest.edgeCount >= PARALLEL_EDGE_THRESHOLD) forest.boruvka(Runtime.getRuntime().availableProcessors());
+        else forest.kruskal();
+        int[] output = forest.primOrder();
+        if (counters != null){
+            counters.settled = graph.cityCount();
+            counters.relaxed = forest.edgeCount;
+            counters.queuePeak = forest.queuePeak;
+        }
+        return output;
+    }
+
+    /**
+     * A method to compute the minimum spanning forest with a chosen algorithm
+     * @param graph the graph, which must not be modified during the computation
+     * @param parallelism 0 for Kruskal's algorithm, otherwise the number of threads of Boruvka's algorithm
+     * @return the connections of the forest in Prim order
+     */
+    static List<AirportSystem.Edges> compute(RouteGraph graph, int parallelism){
+        SpanningForest forest = new SpanningForest(graph);
+        if (parallelism > 0) forest.boruvka(parallelism);
+        else forest.kruskal();
+        return toEdges(graph, forest.primOrder());
+    }
+
+    /**
+     * A helper method to turn the city numbers of a forest into connections with city names
+     * @param graph the graph
+     * @param forest three ints per connection: the city already in the tree, the new city and the distance
+     * @return the connections
+     */
+    private static List<AirportSystem.Edges> toEdges(RouteGraph graph, int[] forest){
+        List<AirportSystem.Edges> output = new ArrayList<>(forest.length / 3);
+        for (int index = 0; index < forest.length; index += 3){
+            output.add(new AirportSystem.Edges(graph.cityName(forest[index]), graph.cityName(forest[index + 1]), forest[index + 2]));
+        }
+        return output;
+    }
+
+    /**
+     * Kruskal's algorithm: add the connections from shortest to longest unless they close a cycle
+     */
+    private void kruskal(){
+        // Sort by distance then by position with one primitive sort
+        long[] order = new long[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++){
+            order[edge] = key(edge);
+        }
+        Arrays.sort(order);
+        int needed = graph.cityCount() - 1;
+        for (int index = 0; index < edgeCount && needed > 0; index++){
+            int edge = (int) order[index];
+            if (union(edgeFrom[edge], edgeTo[edge])){
+                chosen[edge] = true;
+                needed--;
+            }
+        }
+    }
+
+    /**
+     * Boruvka's algorithm: in each round every component picks its shortest outgoing connection in parallel,
+     * then the picked connections merge the components. The number of components at least halves every round.
+     * @param parallelism the number of threads
+     */
+    private void boruvka(int parallelism){
+        int cityCount = graph.cityCount();
+        int[] component = new int[cityCount];
+        for (int city = 0; city < cityCount; city++){
+            component[city] = city;
+        }
+        // The connections that still join two different components
+        int[] active = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++){
+            active[edge] = edge;
+        }
+        int activeCount = edgeCount;
+        AtomicLongArray best = new AtomicLongArray(cityCount);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (activeCount > 0){
+                final int[] edges = active;
+                final int count = activeCount;
+                // STEP 1: Every component finds its shortest outgoing connection
+                ParallelRange.forEach(pool, 0, cityCount, ParallelRange.grainFor(pool, cityCount), (from, to) -> {
+                    for (int city = from; city < to; city++) best.set(city, NO_EDGE);
+                });
+                ParallelRange.forEach(pool, 0, count, ParallelRange.grainFor(pool, count), (from, to) -> {
+                    for (int index = from; index < to; index++){
+                        int edge = edges[index];
+                        long edgeKey = key(edge);
+                        lowerTo(best, component[edgeFrom[edge]], edgeKey);
+                        lowerTo(best, component[edgeTo[edge]], edgeKey);
+                    }
+                });
+                // STEP 2: Merge the components along the picked connections
+                boolean merged = false;
+                for (int city = 0; city < cityCount; city++){
+                    long picked = best.get(city);
+                    if (picked == NO_EDGE) continue;
+                    int edge = (int) picked;
+                    if (!chosen[edge] && union(edgeFrom[edge], edgeTo[edge])){
+                        chosen[edge] = true;
+                        merged = true;
+                    }
+                }
+                if (!merged) break;
+                // STEP 3: Relabel the cities by their new component, reading the union-find without changing it
+                ParallelRange.forEach(pool, 0, cityCount, ParallelRange.grainFor(pool, cityCount), (from, to) -> {
+                    for (int city = from; city < to; city++) component[city] = root(city);
+                });
+                // STEP 4: Drop the connections inside a component
+                boolean[] keep = new boolean[count];
+                ParallelRange.forEach(pool, 0, count, ParallelRange.grainFor(pool, count), (from, to) -> {
+                    for (int index = from; index < to; index++){
+                        keep[index] = component[edgeFrom[edges[index]]] != component[edgeTo[edges[index]]];
+                    }
+                });
+                int kept = 0;
+                for (int index = 0; index < count; index++){
+                    if (keep[index]) edges[kept++] = edges[index];
+                }
+                activeCount = kept;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A helper method to output the chosen connections in the order Prim's algorithm would add them. The first tree
+     * grows from the second city, the other trees from their first city in insertion order.
+     * @return three ints per connection: the city already in the tree, the new city and the distance
+     */
+    private int[] primOrder(){
+        int cityCount = graph.cityCount();
+        if (cityCount < 2) return new int[0];
+        // Build the adjacency of the forest
+        int[] offsets = new int[cityCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++){
+            if (!chosen[edge]) continue;
+            offsets[edgeFrom[edge] + 1]++;
+            offsets[edgeTo[edge] + 1]++;
+        }
+        for (int city = 0; city < cityCount; city++){
+            offsets[city + 1] += offsets[city];
+        }
+        int[] forestEdges = new int[offsets[cityCount]];
+        // Each chosen connection is listed from both of its cities
+        int[] output = new int[3 * (offsets[cityCount] / 2)];
+        int size = 0;
+        int[] fill = Arrays.copyOf(offsets, cityCount);
+        for (int edge = 0; edge < edgeCount; edge++){
+            if (!chosen[edge]) continue;
+            forestEdges[fill[edgeFrom[edge]]++] = edge;
+            forestEdges[fill[edgeTo[edge]]++] = edge;
+        }
+        // Grow each tree with a heap keyed by distance then position of the connection
+        boolean[] encountered = new boolean[cityCount];
+        int[] reachedBy = new int[cityCount];
+        DistanceHeap queue = new DistanceHeap(cityCount);
+        for (int index = 0; index < cityCount; index++){
+            int root = index == 0 ? 1 : index == 1 ? 0 : index;
+            if (encountered[root]) continue;
+            reachedBy[root] = -1;
+            queue.insertOrDecrease(root, -1);
+            while (!queue.isEmpty()){
+                if (queue.size() > queuePeak) queuePeak = queue.size();
+                int city = queue.poll();
+                encountered[city] = true;
+                int edge = reachedBy[city];
+                if (edge >= 0){
+                    int from = edgeFrom[edge] == city ? edgeTo[edge] : edgeFrom[edge];
+                    output[size++] = from;
+                    output[size++] = city;
+                    output[size++] = edgeWeight[edge];
+                }
+                for (int position = offsets[city]; position < offsets[city + 1]; position++){
+                    int next = forestEdges[position];
+                    int neighbor = edgeFrom[next] == city ? edgeTo[next] : edgeFrom[next];
+                    if (encountered[neighbor]) continue;
+                    reachedBy[neighbor] = next;
+                    queue.insertOrDecrease(neighbor, key(next));
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * A helper method to build the sort key of a connection: its distance, then its position
+     * @param edge the connection number
+     * @return the key, whose low 32 bits are the connection number
+     */
+    private long key(int edge){
+        return ((long) edgeWeight[edge] << 32) | edge;
+    }
+
+    /**
+     * A helper method to lower an entry of an atomic array without locks
+     * @param values the array
+     * @param index the entry
+     * @param value the candidate value
+     */
+    private static void lowerTo(AtomicLongArray values, int index, long value){
+        long current = values.get(index);
+        while (value < current && !values.compareAndSet(index, current, value)){
+            current = values.get(index);
+        }
+    }
+
+    /**
+     * A helper method to find the root of the set of a city, halving the path on the way
+     * @param city the city number
+     * @return the root city
+     */
+    private int find(int city){
+        while (parent[city] != city){
+            parent[city] = parent[parent[city]];
+            city = parent[city];
+        }
+        return city;
+    }
+
+    /**
+     * A helper method to find the root of the set of a city without changing the union-find, safe to call from many threads
+     * @param city the city number
+     * @return the root city
+     */
+    private int root(int city){
+        while (parent[city] != city) city = parent[city];
+        return city;
+    }
+
+    /**
+     * A helper method to join the sets of two cities, the smaller set under the larger one
+     * @param cityA the first city
+     * @param cityB the second city
+     * @return true if the cities were in different sets
+     */
+    private boolean union(int cityA, int cityB){
+        int rootA = find(cityA);
+        int rootB = find(cityB);
+        if (rootA == rootB) return false;
+        if (setSize[rootA] < setSize[rootB]){
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        setSize[rootA] += setSize[rootB];
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * A JUnit class to test the minimum spanning forest engine
+ */
+public class SpanningForestTest {
+
+    /**
+     * A helper method to add up the distances of a list of edges
+     * @param graph the graph the edges belong to
+     * @param edges the edges
+     * @return the total distance
+     */
+    private static long totalDistance(AirportSystem graph, List<AirportSystem.Edges> edges) {
+        long total = 0;
+        for (AirportSystem.Edges edge : edges) {
+            String[] ends = edge.toString().substring(1, edge.toString().length() - 1).split(", ");
+            total += directDistance(graph, ends[0], ends[1]);
+        }
+        return total;
+    }
+
+    /**
+     * A helper method to find the distance of the connection between two cities
+     * @param graph the graph
+     * @param cityA the first city
+     * @param cityB the second city
+     * @return the distance of the connection
+     */
+    private static int directDistance(RouteGraph graph, String cityA, String cityB) {
+        int city = graph.cityId(cityA);
+        for (int connection = 0; connection < graph.degree(city); connection++) {
+            if (graph.cityName(graph.neighbor(city, connection)).equals(cityB)) return graph.distance(city, connection);
+        }
+        throw new AssertionError("No connection between " + cityA + " and " + cityB);
+    }
+
+    @org.junit.Test
+    public void smallGraphs() {
+        // Case 1: A graph with one city has an empty forest
+        AirportSystem single = new AirportSystem();
+        single.addEdge("1", "1", 3);
+        assertEquals("[]", single.minimumSpanningTree().toString());
+        assertEquals("[]", new AirportSystem().minimumSpanningTree().toString());
+
+        // Case 2: A disconnected graph gets one tree per part
+        AirportSystem airportSystem = new AirportSystem();
+        airportSystem.addEdge("1", "5", 4);
+        airportSystem.addEdge("1", "4", 1);
+        airportSystem.addEdge("6", "7", 2);
+        airportSystem.addEdge("1", "2", 2);
+        airportSystem.addEdge("7", "8", 9);
+        airportSystem.addEdge("6", "8", 1);
+        assertEquals("[[5, 1], [1, 4], [1, 2], [6, 8], [6, 7]]", airportSystem.minimumSpanningTree().toString());
+        assertEquals("[[5, 1], [1, 4], [1, 2], [6, 8], [6, 7]]", airportSystem.snapshot().minimumSpanningTree().toString());
+    }
+
+    @org.junit.Test
+    public void kruskalMatchesBoruvka() {
+        for (long seed = 1; seed <= 5; seed++) {
+            AirportSystem airportSystem = DijkstraSearchTest.randomGraph(200, 600, seed);
+            // Add a second part to the graph with ties between distances
+            for (int city = 0; city < 30; city++) {
+                airportSystem.addEdge("x" + city, "x" + ((city * 7) % 30), 5);
+                airportSystem.addEdge("x" + city, "x" + ((city + 1) % 30), 5);
+            }
+            List<AirportSystem.Edges> kruskal = SpanningForest.compute(airportSystem, 0);
+            List<AirportSystem.Edges> boruvka = SpanningForest.compute(airportSystem, 4);
+
+            // Case 1: Both algorithms choose the same forest in the same order
+            assertEquals(kruskal.toString(), boruvka.toString());
+            assertEquals(airportSystem.cityCount() - 2, kruskal.size());
+
+            // Case 2: Both forests use existing connections and have the same total distance
+            assertEquals(totalDistance(airportSystem, kruskal), totalDistance(airportSystem, boruvka));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A schedule of flights between the cities of an airport system. Each flight leaves one city at a departure time
+ * and lands at another at an arrival time, and changing flights at a city takes at least its minimum connection
+ * time. Times are whole minutes counted from the start of the timetable, so a flight after midnight of the first
+ * day simply has a time above 1440.
+ * Queries run the Connection Scan Algorithm over all flights sorted by departure, which is rebuilt after flights
+ * are added. Like the airport system, a timetable is not thread-safe.
+ * @author Quan Tran
+ * @references Dibbelt, Pajor, Strasser and Wagner, Connection Scan Algorithm
+ */
+public class Timetable {
+    /** The time returned when a city cannot be reached */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** A scheduled flight */
+    public static class Flight {
+        /** The city the flight leaves */
+        private final String source;
+        /** The city the flight lands at */
+        private final String destination;
+        /** The departure time in minutes */
+        private final int departure;
+        /** The arrival time in minutes */
+        private final int arrival;
+
+        /**
+         * Initialize a flight
+         * @param source the city the flight leaves
+         * @param destination the city the flight lands at
+         * @param departure the departure time in minutes
+         * @param arrival the arrival time in minutes
+         */
+        Flight(String source, String destination, int departure, int arrival){
+            this.source = source;
+            this.destination = destination;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Retrieve the city the flight leaves
+         * @return the city name
+         */
+        public String getSource(){
+            return source;
+        }
+
+        /**
+         * Retrieve the city the flight lands at
+         * @return the city name
+         */
+        public String getDestination(){
+            return destination;
+        }
+
+        /**
+         * Retrieve the departure time
+         * @return the departure time in minutes
+         */
+        public int getDeparture(){
+            return departure;
+        }
+
+        /**
+         * Retrieve the arrival time
+         * @return the arrival time in minutes
+         */
+        public int getArrival(){
+            return arrival;
+        }
+
+        @Override
+        public String toString(){
+            return "[" + source + " " + departure + ", " + destination + " " + arrival + "]";
+        }
+    }
+
+    /** A journey of a profile query that no other journey beats on both departure and arrival */
+    public static class Option {
+        /** The latest departure time from the source */
+        private final int departure;
+        /** The earliest arrival time at the destination */
+        private final int arrival;
+
+        /**
+         * Initialize an option
+         * @param departure the departure time in minutes
+         * @param arrival the arrival time in minutes
+         */
+        Option(int departure, int arrival){
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Retrieve the departure time from the source
+         * @return the departure time in minutes
+         */
+        public int getDeparture(){
+            return departure;
+        }
+
+        /**
+         * Retrieve the arrival time at the destination
+         * @return the arrival time in minutes
+         */
+        public int getArrival(){
+            return arrival;
+        }
+
+        @Override
+        public String toString(){
+            return "[" + departure + ", " + arrival + "]";
+        }
+    }
+
+    /** The airport system whose cities the flights connect */
+    private final AirportSystem airportSystem;
+    /** The departure city, arrival city, departure time and arrival time of each flight, four ints per flight */
+    private int[] flights = new int[64];
+    /** The number of flights */
+    private int flightCount;
+    /** The minimum connection time of each city by number, 0 for cities without one */
+    private int[] connectionTimes = new int[16];
+    /** The scan engine over the sorted flights, null after the timetable changed */
+    private ConnectionScan scan;
+
+    /**
+     * Initialize an empty timetable over the cities of an airport system
+     * @param airportSystem the airport system
+     */
+    public Timetable(AirportSystem airportSystem){
+        this.airportSystem = airportSystem;
+    }
+
+    /**
+     * A method to add a flight between two cities of the airport system
+     * @param source the city the flight leaves
+     * @param destination the city the flight lands at
+     * @param departure the departure time in minutes
+     * @param arrival the arrival time in minutes
+     * @return true if the flight was added, false if a city is not in the airport system, the cities are the same,
+     *         a time is negative or the flight does not land after it leaves
+     */
+    public boolean addFlight(String source, String destination, int departure, int arrival){
+        int from = airportSystem.cityId(source);
+        int to = airportSystem.cityId(destination);
+        if (from < 0 || to < 0 || from == to || departure < 0 || arrival <= departure) return false;
+        if (4 * (flightCount + 1) > flights.length) flights = Arrays.copyOf(flights, flights.length * 2);
+        int position = 4 * flightCount++;
+        flights[position] = from;
+        flights[position + 1] = to;
+        flights[position + 2] = departure;
+        flights[position + 3] = arrival;
+        scan = null;
+        return true;
+    }
+
+    /**
+     * A method to set the shortest time needed to change flights at a city
+     * @param city the city
+     * @param minutes the minimum connection time in minutes
+     * @return true if the time was set, false if the city is not in the airport system or the time is negative
+     */
+    public boolean setMinimumConnectionTime(String city, int minutes){
+        int id = airportSystem.cityId(city);
+        if (id < 0 || minutes < 0) return false;
+        if (id >= connectionTimes.length) connectionTimes = Arrays.copyOf(connectionTimes, Math.max(id + 1, connectionTimes.length * 2));
+        connectionTimes[id] = minutes;
+        scan = null;
+        return true;
+    }
+
+    /**
+     * Retrieve the number of flights
+     * @return the number of flights
+     */
+    public int getFlightCount(){
+        return flightCount;
+    }
+
+    /**
+     * A method to find the earliest arrival at a city when leaving another city at a time or later
+     * @param source the city to leave
+     * @param destination the city to reach
+     * @param departure the earliest departure time in minutes
+     * @return the earliest arrival time in minutes, the departure time if the cities are the same, or UNREACHABLE
+     */
+    public int earliestArrival(String source, String destination, int departure){
+        int from = airportSystem.cityId(source);
+        int to = airportSystem.cityId(destination);
+        if (from < 0 || to < 0) return UNREACHABLE;
+        return engine().earliestArrival(from, to, departure);
+    }
+
+    /**
+     * A method to find the flights of an earliest arrival journey
+     * @param source the city to leave
+     * @param destination the city to reach
+     * @param departure the earliest departure time in minutes
+     * @return the flights in the order they are taken, empty if the cities are the same, or null if there is no journey
+     */
+    public List<Flight> earliestArrivalJourney(String source, String destination, int departure){
+        int from = airportSystem.cityId(source);
+        int to = airportSystem.cityId(destination);
+        if (from < 0 || to < 0) return null;
+        ConnectionScan engine = engine();
+        if (engine.earliestArrival(from, to, departure) == UNREACHABLE) return null;
+        List<Flight> journey = new ArrayList<>();
+        // Follow the flight that reached each city back to the source
+        for (int city = to; city != from; ){
+            int flight = engine.reachedBy(city);
+            journey.add(new Flight(airportSystem.cityName(engine.source(flight)), airportSystem.cityName(city),
+                                   engine.departure(flight), engine.arrival(flight)));
+            city = engine.source(flight);
+        }
+        Collections.reverse(journey);
+        return journey;
+    }
+
+    /**
+     * A method to find every journey worth taking between two cities over the whole timetable: for each departure
+     * time, the earliest arrival, keeping only the journeys that no later departure arrives as early as
+     * @param source the city to leave
+     * @param destination the city to reach
+     * @return the options in order of departure, empty if there is no journey or the cities are the same
+     */
+    public List<Option> profile(String source, String destination){
+        int from = airportSystem.cityId(source);
+        int to = airportSystem.cityId(destination);
+        List<Option> output = new ArrayList<>();
+        if (from < 0 || to < 0 || from == to) return output;
+        int[] options = engine().profile(from, to);
+        // The engine lists the options from the latest departure to the earliest
+        for (int index = options.length - 2; index >= 0; index -= 2){
+            output.add(new Option(options[index], options[index + 1]));
+        }
+        return output;
+    }
+
+    /**
+     * A helper method to retrieve the scan engine, sorting the flights again if the timetable changed
+     * @return the engine
+     */
+    private ConnectionScan engine(){
+        int cityCount = airportSystem.cityCount();
+        if (scan == null || scan.cityCount() < cityCount){
+            if (connectionTimes.length < cityCount) connectionTimes = Arrays.copyOf(connectionTimes, cityCount);
+            scan = new ConnectionScan(flights, flightCount, Arrays.copyOf(connectionTimes, cityCount));
+        }
+        return scan;
+    }
+}
@@ -0,0 +1,213 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A JUnit class to test the timetable and the Connection Scan engine
+ */
+public class TimetableTest {
+
+    /**
+     * A helper method to build a timetable over cities named "0" to "n - 1"
+     * @param cityCount the number of cities
+     * @return the timetable
+     */
+    private static Timetable timetable(int cityCount) {
+        AirportSystem airportSystem = new AirportSystem();
+        for (int city = 0; city < cityCount; city++) {
+            airportSystem.addCity(String.valueOf(city));
+        }
+        return new Timetable(airportSystem);
+    }
+
+    @org.junit.Test
+    public void earliestArrival() {
+        Timetable timetable = timetable(4);
+        assertTrue(timetable.addFlight("0", "1", 60, 120));
+        assertTrue(timetable.addFlight("1", "3", 130, 200));
+        assertTrue(timetable.addFlight("1", "3", 180, 240));
+        assertTrue(timetable.addFlight("0", "2", 90, 150));
+        assertTrue(timetable.addFlight("2", "3", 160, 230));
+
+        // Case 1: Without connection times the first connection is caught
+        assertEquals(200, timetable.earliestArrival("0", "3", 0));
+        assertEquals(230, timetable.earliestArrival("0", "3", 61));
+        assertEquals(Timetable.UNREACHABLE, timetable.earliestArrival("0", "3", 91));
+
+        // Case 2: A connection time at 1 misses the 130 flight, and the traveler goes through 2 instead
+        assertTrue(timetable.setMinimumConnectionTime("1", 15));
+        assertEquals(230, timetable.earliestArrival("0", "3", 0));
+
+        // Case 3: The connection time only applies when changing flights, not at the start of the journey
+        assertEquals(200, timetable.earliestArrival("1", "3", 130));
+        assertEquals(120, timetable.earliestArrival("0", "1", 0));
+
+        // Case 4: The same city is reached at the departure time
+        assertEquals(45, timetable.earliestArrival("2", "2", 45));
+    }
+
+    @org.junit.Test
+    public void journey() {
+        Timetable timetable = timetable(4);
+        timetable.addFlight("0", "1", 60, 120);
+        timetable.addFlight("1", "2", 125, 180);
+        timetable.addFlight("2", "3", 200, 260);
+        timetable.addFlight("0", "3", 100, 300);
+
+        // Case 1: The flights of the journey are given in order
+        List<Timetable.Flight> flights = timetable.earliestArrivalJourney("0", "3", 0);
+        assertEquals("[[0 60, 1 120], [1 125, 2 180], [2 200, 3 260]]", flights.toString());
+
+        // Case 2: Leaving too late for the first flight takes the direct flight
+        flights = timetable.earliestArrivalJourney("0", "3", 61);
+        assertEquals(1, flights.size());
+        assertEquals("0", flights.get(0).getSource());
+        assertEquals("3", flights.get(0).getDestination());
+        assertEquals(300, flights.get(0).getArrival());
+
+        // Case 3: No journey and the same city
+        assertNull(timetable.earliestArrivalJourney("0", "3", 101));
+        assertTrue(timetable.earliestArrivalJourney("1", "1", 0).isEmpty());
+    }
+
+    @org.junit.Test
+    public void profile() {
+        Timetable timetable = timetable(3);
+        timetable.addFlight("0", "2", 60, 300);
+        timetable.addFlight("0", "1", 90, 150);
+        timetable.addFlight("1", "2", 160, 200);
+        timetable.addFlight("0", "2", 120, 310);
+        timetable.addFlight("0", "2", 240, 330);
+
+        // Case 1: The 60 flight arrives later than the 90 journey, so it is not worth taking
+        List<Timetable.Option> options = timetable.profile("0", "2");
+        assertEquals("[[90, 200], [120, 310], [240, 330]]", options.toString());
+
+        // Case 2: A connection time that misses the 160 flight brings the direct flights back
+        timetable.setMinimumConnectionTime("1", 20);
+        options = timetable.profile("0", "2");
+        assertEquals("[[60, 300], [120, 310], [240, 330]]", options.toString());
+        assertEquals(60, options.get(0).getDeparture());
+        assertEquals(300, options.get(0).getArrival());
+    }
+
+    @org.junit.Test
+    public void refusedInput() {
+        Timetable timetable = timetable(2);
+
+        // Case 1: Unknown cities, a flight to its own city and impossible times are refused
+        assertFalse(timetable.addFlight("0", "X", 10, 20));
+        assertFalse(timetable.addFlight("0", "0", 10, 20));
+        assertFalse(timetable.addFlight("0", "1", -1, 20));
+        assertFalse(timetable.addFlight("0", "1", 20, 20));
+        assertFalse(timetable.setMinimumConnectionTime("X", 5));
+        assertFalse(timetable.setMinimumConnectionTime("0", -5));
+        assertEquals(0, timetable.getFlightCount());
+
+        // Case 2: Queries on unknown cities find nothing
+        assertEquals(Timetable.UNREACHABLE, timetable.earliestArrival("0", "X", 0));
+        assertNull(timetable.earliestArrivalJourney("X", "1", 0));
+        assertTrue(timetable.profile("X", "1").isEmpty());
+
+        // Case 3: Flights may be added after a query
+        assertEquals(Timetable.UNREACHABLE, timetable.earliestArrival("0", "1", 0));
+        timetable.addFlight("0", "1", 10, 20);
+        assertEquals(20, timetable.earliestArrival("0", "1", 0));
+    }
+
+    @org.junit.Test
+    public void randomTimetable() {
+        Random random = new Random(19);
+        int cityCount = 30;
+        Timetable timetable = timetable(cityCount);
+        int[][] flights = new int[600][];
+        for (int index = 0; index < flights.length; index++) {
+            int from = random.nextInt(cityCount);
+            int to = (from + 1 + random.nextInt(cityCount - 1)) % cityCount;
+            int departure = random.nextInt(1440);
+            flights[index] = new int[]{from, to, departure, departure + 1 + random.nextInt(180)};
+            assertTrue(timetable.addFlight(String.valueOf(from), String.valueOf(to), flights[index][2], flights[index][3]));
+        }
+        int[] connectionTimes = new int[cityCount];
+        for (int city = 0; city < cityCount; city++) {
+            connectionTimes[city] = random.nextInt(30);
+            timetable.setMinimumConnectionTime(String.valueOf(city), connectionTimes[city]);
+        }
+
+        // Case 1: Every earliest arrival matches a relaxation of all flights until nothing changes
+        for (int query = 0; query < 200; query++) {
+            int source = random.nextInt(cityCount);
+            int target = random.nextInt(cityCount);
+            int departure = random.nextInt(1440);
+            int expected = bruteForce(flights, connectionTimes, source, departure)[target];
+            assertEquals(expected, timetable.earliestArrival(String.valueOf(source), String.valueOf(target), departure));
+            // The journey is valid and arrives at that time
+            List<Timetable.Flight> journey = timetable.earliestArrivalJourney(String.valueOf(source), String.valueOf(target), departure);
+            if (expected == Timetable.UNREACHABLE) {
+                assertNull(journey);
+            } else if (source != target) {
+                assertTrue(journey.get(0).getDeparture() >= departure);
+                for (int leg = 1; leg < journey.size(); leg++) {
+                    String city = journey.get(leg).getSource();
+                    assertEquals(city, journey.get(leg - 1).getDestination());
+                    assertTrue(journey.get(leg).getDeparture() >= journey.get(leg - 1).getArrival() + connectionTimes[Integer.parseInt(city)]);
+                }
+                assertEquals(expected, journey.get(journey.size() - 1).getArrival());
+            }
+        }
+
+        // Case 2: The profile keeps a departure exactly when it arrives earlier than every later departure
+        for (int query = 0; query < 50; query++) {
+            int source = random.nextInt(cityCount);
+            int target = (source + 1 + random.nextInt(cityCount - 1)) % cityCount;
+            int[] departures = new int[flights.length];
+            int count = 0;
+            for (int[] flight : flights) {
+                if (flight[0] == source) departures[count++] = flight[2];
+            }
+            departures = Arrays.copyOf(departures, count);
+            Arrays.sort(departures);
+            StringBuilder expected = new StringBuilder();
+            int best = Timetable.UNREACHABLE;
+            for (int index = count - 1; index >= 0; index--) {
+                if (index < count - 1 && departures[index] == departures[index + 1]) continue;
+                int arrival = bruteForce(flights, connectionTimes, source, departures[index])[target];
+                if (arrival < best) {
+                    expected.insert(0, ", [" + departures[index] + ", " + arrival + "]");
+                    best = arrival;
+                }
+            }
+            String options = timetable.profile(String.valueOf(source), String.valueOf(target)).toString();
+            assertEquals("[" + (expected.length() == 0 ? "" : expected.substring(2)) + "]", options);
+        }
+    }
+
+    /**
+     * A helper method to find the earliest arrival at every city by relaxing all flights until nothing changes
+     * @param flights the flights, each source, destination, departure and arrival
+     * @param connectionTimes the minimum connection time of each city
+     * @param source the source city
+     * @param departure the earliest departure time
+     * @return the earliest arrival at each city, or Timetable.UNREACHABLE
+     */
+    private static int[] bruteForce(int[][] flights, int[] connectionTimes, int source, int departure) {
+        int[] arrival = new int[connectionTimes.length];
+        Arrays.fill(arrival, Timetable.UNREACHABLE);
+        arrival[source] = departure;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int[] flight : flights) {
+                if (arrival[flight[0]] == Timetable.UNREACHABLE) continue;
+                int ready = flight[0] == source ? departure : arrival[flight[0]] + connectionTimes[flight[0]];
+                if (flight[2] >= ready && flight[3] < arrival[flight[1]]) {
+                    arrival[flight[1]] = flight[3];
+                    changed = true;
+                }
+            }
+        }
+        return arrival;
+    }
+}
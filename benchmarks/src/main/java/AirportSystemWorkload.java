@@ -0,0 +1,36 @@
+import benchmarks.GraphWorkload;
+import benchmarks.SyntheticGraph;
+
+/**
+ * The benchmark workload of the airport system, kept in the default package so it can use AirportSystem directly
+ * @author Quan Tran
+ */
+public class AirportSystemWorkload implements GraphWorkload {
+    /** The last built airport system */
+    private AirportSystem airportSystem;
+
+    @Override
+    public int build(SyntheticGraph graph){
+        airportSystem = new AirportSystem();
+        int added = 0;
+        for (int route = 0; route < graph.sources.length; route++){
+            if (airportSystem.addEdge(graph.names[graph.sources[route]], graph.names[graph.destinations[route]], graph.weights[route])) added++;
+        }
+        return added;
+    }
+
+    @Override
+    public int shortestDistance(String cityA, String cityB){
+        return airportSystem.shortestDistance(cityA, cityB);
+    }
+
+    @Override
+    public int breadthFirstSearch(String start){
+        return airportSystem.breadthFirstSearch(start).size();
+    }
+
+    @Override
+    public int minimumSpanningTree(){
+        return airportSystem.minimumSpanningTree().size();
+    }
+}
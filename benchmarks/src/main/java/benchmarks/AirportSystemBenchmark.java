@@ -0,0 +1,110 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the main airport system operations on seeded synthetic graphs from 10^2 to 10^6 cities.
+ * Throughput and sampled latency (with percentiles) are reported for every operation; run with "-prof gc"
+ * (BenchmarkMain does this by default) to also report the allocation rate. The dense graphs with 10^6 cities
+ * need a large heap, for example "-jvmArgs -Xmx8g".
+ * @author Quan Tran
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AirportSystemBenchmark {
+    /** The shape of the synthetic graph */
+    @Param({"hub", "grid", "dense"})
+    public String shape;
+
+    /** The number of cities of the synthetic graph */
+    @Param({"100", "10000", "1000000"})
+    public int cities;
+
+    /** The number of precomputed query pairs */
+    private static final int QUERY_COUNT = 1024;
+
+    /** The synthetic graph */
+    private SyntheticGraph graph;
+    /** The airport system being measured */
+    private GraphWorkload workload;
+    /** The source city of each query */
+    private String[] sources;
+    /** The destination city of each query */
+    private String[] destinations;
+    /** The next query to run */
+    private int next;
+
+    /**
+     * Generate the graph, build the airport system once and choose the query cities
+     */
+    @Setup(Level.Trial)
+    public void setUp(){
+        graph = SyntheticGraph.generate(shape, cities, 42);
+        workload = GraphWorkload.create();
+        workload.build(graph);
+        Random random = new Random(7);
+        sources = new String[QUERY_COUNT];
+        destinations = new String[QUERY_COUNT];
+        for (int query = 0; query < QUERY_COUNT; query++){
+            sources[query] = graph.names[random.nextInt(cities)];
+            destinations[query] = graph.names[random.nextInt(cities)];
+        }
+    }
+
+    /**
+     * Build a whole airport system with one addEdge() per route
+     * @return the number of added routes
+     */
+    @Benchmark
+    public int addEdge(){
+        GraphWorkload fresh = GraphWorkload.create();
+        return fresh.build(graph);
+    }
+
+    /**
+     * Run one shortest distance query between two random cities
+     * @return the distance
+     */
+    @Benchmark
+    public int shortestDistance(){
+        int query = next++ & (QUERY_COUNT - 1);
+        return workload.shortestDistance(sources[query], destinations[query]);
+    }
+
+    /**
+     * Run one breadth-first traversal from a random city
+     * @return the number of visited cities
+     */
+    @Benchmark
+    public int breadthFirstSearch(){
+        int query = next++ & (QUERY_COUNT - 1);
+        return workload.breadthFirstSearch(sources[query]);
+    }
+
+    /**
+     * Compute the minimum spanning forest
+     * @return the number of edges of the forest
+     */
+    @Benchmark
+    public int minimumSpanningTree(){
+        return workload.minimumSpanningTree();
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler turned on, so the allocation rate is always reported.
+ * Any JMH command line option can be added, for example "-p cities=100,10000" to limit the graph sizes.
+ * @author Quan Tran
+ */
+public class BenchmarkMain {
+    /**
+     * Run the benchmarks
+     * @param args the JMH command line options
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if an option is invalid
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+    }
+}
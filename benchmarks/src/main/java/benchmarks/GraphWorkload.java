@@ -0,0 +1,49 @@
+package benchmarks;
+
+/**
+ * The operations measured by the benchmarks. JMH benchmarks must live in a named package while the airport system
+ * lives in the default package, which a named package cannot refer to, so the airport system is reached through
+ * this interface and an implementation in the default package that is loaded by name.
+ * @author Quan Tran
+ */
+public interface GraphWorkload {
+    /**
+     * Build a new airport system by adding every route of a synthetic graph with addEdge()
+     * @param graph the synthetic graph
+     * @return the number of routes that were added
+     */
+    int build(SyntheticGraph graph);
+
+    /**
+     * Run shortestDistance() on the last built airport system
+     * @param cityA the source city
+     * @param cityB the destination city
+     * @return the distance
+     */
+    int shortestDistance(String cityA, String cityB);
+
+    /**
+     * Run breadthFirstSearch() on the last built airport system
+     * @param start the start city
+     * @return the number of visited cities
+     */
+    int breadthFirstSearch(String start);
+
+    /**
+     * Run minimumSpanningTree() on the last built airport system
+     * @return the number of edges of the forest
+     */
+    int minimumSpanningTree();
+
+    /**
+     * A method to create the workload of the airport system
+     * @return the workload
+     */
+    static GraphWorkload create(){
+        try {
+            return (GraphWorkload) Class.forName("AirportSystemWorkload").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException exception){
+            throw new IllegalStateException("The airport system workload is missing from the class path", exception);
+        }
+    }
+}
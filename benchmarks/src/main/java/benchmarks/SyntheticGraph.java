@@ -0,0 +1,136 @@
+package benchmarks;
+
+import java.util.Random;
+
+/**
+ * A seeded synthetic route network, stored as plain arrays so generating it does not depend on the engine being measured.
+ * Cities are named "C0", "C1", ... and every route is listed once.
+ * @author Quan Tran
+ */
+public final class SyntheticGraph {
+    /** The name of each city */
+    public final String[] names;
+    /** The starting city of each route */
+    public final int[] sources;
+    /** The final city of each route */
+    public final int[] destinations;
+    /** The distance of each route */
+    public final int[] weights;
+
+    /**
+     * Initialize a graph from its arrays
+     * @param cityCount the number of cities
+     * @param sources the starting city of each route
+     * @param destinations the final city of each route
+     * @param weights the distance of each route
+     */
+    private SyntheticGraph(int cityCount, int[] sources, int[] destinations, int[] weights){
+        this.names = new String[cityCount];
+        for (int city = 0; city < cityCount; city++){
+            names[city] = "C" + city;
+        }
+        this.sources = sources;
+        this.destinations = destinations;
+        this.weights = weights;
+    }
+
+    /**
+     * A method to generate a graph
+     * @param shape "hub" for hub-and-spoke, "grid" for a grid-like network or "dense" for a random graph of high degree
+     * @param cityCount the number of cities
+     * @param seed the random seed
+     * @return the graph
+     */
+    public static SyntheticGraph generate(String shape, int cityCount, long seed){
+        switch (shape){
+            case "hub": return hubAndSpoke(cityCount, new Random(seed));
+            case "grid": return grid(cityCount, new Random(seed));
+            case "dense": return dense(cityCount, new Random(seed));
+            default: throw new IllegalArgumentException("Unknown graph shape: " + shape);
+        }
+    }
+
+    /**
+     * A helper method to build a sparse hub-and-spoke network: about one city in a hundred is a hub, hubs form a ring
+     * with a few random links, and every other city is served by two hubs
+     * @param cityCount the number of cities
+     * @param random the random numbers
+     * @return the graph
+     */
+    private static SyntheticGraph hubAndSpoke(int cityCount, Random random){
+        int hubCount = Math.max(2, cityCount / 100);
+        int routeCount = 2 * hubCount + 2 * (cityCount - hubCount);
+        int[][] routes = new int[3][routeCount];
+        int size = 0;
+        for (int hub = 0; hub < hubCount; hub++){
+            size = add(routes, size, hub, (hub + 1) % hubCount, 500 + random.nextInt(2000));
+            size = add(routes, size, hub, random.nextInt(hubCount), 500 + random.nextInt(5000));
+        }
+        for (int city = hubCount; city < cityCount; city++){
+            size = add(routes, size, city, random.nextInt(hubCount), 50 + random.nextInt(500));
+            size = add(routes, size, city, random.nextInt(hubCount), 50 + random.nextInt(500));
+        }
+        return new SyntheticGraph(cityCount, routes[0], routes[1], routes[2]);
+    }
+
+    /**
+     * A helper method to build a grid-like network where each city is linked to its right and lower neighbors
+     * @param cityCount the number of cities
+     * @param random the random numbers
+     * @return the graph
+     */
+    private static SyntheticGraph grid(int cityCount, Random random){
+        int width = Math.max(1, (int) Math.sqrt(cityCount));
+        int[][] routes = new int[3][2 * cityCount];
+        int size = 0;
+        for (int city = 0; city < cityCount; city++){
+            if ((city + 1) % width != 0 && city + 1 < cityCount) size = add(routes, size, city, city + 1, 10 + random.nextInt(20));
+            if (city + width < cityCount) size = add(routes, size, city, city + width, 10 + random.nextInt(20));
+        }
+        return new SyntheticGraph(cityCount, trim(routes[0], size), trim(routes[1], size), trim(routes[2], size));
+    }
+
+    /**
+     * A helper method to build a dense random network where each city has up to 32 random routes
+     * @param cityCount the number of cities
+     * @param random the random numbers
+     * @return the graph
+     */
+    private static SyntheticGraph dense(int cityCount, Random random){
+        int perCity = Math.min(cityCount - 1, 32) / 2;
+        int[][] routes = new int[3][cityCount * Math.max(perCity, 1)];
+        int size = 0;
+        for (int city = 0; city < cityCount && perCity > 0; city++){
+            for (int index = 0; index < perCity; index++){
+                size = add(routes, size, city, random.nextInt(cityCount), 1 + random.nextInt(1000));
+            }
+        }
+        return new SyntheticGraph(cityCount, trim(routes[0], size), trim(routes[1], size), trim(routes[2], size));
+    }
+
+    /**
+     * A helper method to append a route
+     * @param routes the route arrays
+     * @param size the number of routes so far
+     * @param source the starting city
+     * @param destination the final city
+     * @param weight the distance
+     * @return the new number of routes
+     */
+    private static int add(int[][] routes, int size, int source, int destination, int weight){
+        routes[0][size] = source;
+        routes[1][size] = destination;
+        routes[2][size] = weight;
+        return size + 1;
+    }
+
+    /**
+     * A helper method to cut an array to its used size
+     * @param values the array
+     * @param size the used size
+     * @return the cut array
+     */
+    private static int[] trim(int[] values, int size){
+        return java.util.Arrays.copyOf(values, size);
+    }
+}